@@ -1,23 +1,109 @@
 package com.example.ps.cache.factory;
 
+import com.example.ps.cache.strategy.BinaryCodec;
 import com.example.ps.cache.strategy.Cache;
+import com.example.ps.cache.strategy.CacheLoader;
+import com.example.ps.cache.strategy.ConcurrentLruCache;
 import com.example.ps.cache.strategy.KeyValueCache;
+import com.example.ps.cache.strategy.MappedFileCache;
+import com.example.ps.cache.strategy.OffHeapCache;
+import com.example.ps.cache.strategy.SnapshotTypeCache;
+import com.example.ps.cache.strategy.TieredCache;
+import com.example.ps.cache.strategy.TinyLfuCache;
 import com.example.ps.cache.strategy.TypeAwareCache;
 import com.example.ps.cache.strategy.TypeBasedCache;
+import com.example.ps.cache.strategy.Weigher;
 import com.example.ps.config.CacheConfig;
 import com.example.ps.config.CacheProperties;
 import com.example.ps.config.TypeCacheConfig;
+import com.example.ps.exception.CacheException;
 
 public class CacheFactory {
 
   public static <K, V> Cache<K, V> getCache(String name, CacheProperties props) {
+    return getCache(name, props, null);
+  }
+
+  /**
+   * Builds the named cache; {@code refresher} reloads entries in the background when the cache
+   * has a {@code refresh-after-write} age configured.
+   */
+  public static <K, V> Cache<K, V> getCache(String name, CacheProperties props, CacheLoader<K, V> refresher) {
+    return getCache(name, props, refresher, Weigher.singleton());
+  }
+
+  /**
+   * Builds the named cache; {@code weigher} estimates entry sizes for caches that set
+   * {@code max-weight-bytes}.
+   */
+  public static <K, V> Cache<K, V> getCache(String name, CacheProperties props, CacheLoader<K, V> refresher,
+                                            Weigher<K, V> weigher) {
+    return getCache(name, props, refresher, weigher, null, null);
+  }
+
+  /**
+   * Builds the named cache; {@code keyCodec} and {@code valueCodec} are only used, and then
+   * required, when the cache is configured with the {@code off-heap} strategy or an {@code l2}
+   * tier.
+   */
+  public static <K, V> Cache<K, V> getCache(String name, CacheProperties props, CacheLoader<K, V> refresher,
+                                            Weigher<K, V> weigher, BinaryCodec<K> keyCodec,
+                                            BinaryCodec<V> valueCodec) {
     CacheConfig cacheConfig = props.getCacheConfigMap().get(name);
-    return new KeyValueCache<>(cacheConfig);
+    if (cacheConfig.l2() == null) {
+      return newCache(name, cacheConfig, refresher, weigher, keyCodec, valueCodec);
+    }
+    if (keyCodec == null || valueCodec == null) {
+      throw new CacheException("Cache " + name + " has an l2 tier and needs a key and a value codec");
+    }
+    MappedFileCache<K, V> secondTier = new MappedFileCache<>(cacheConfig.l2(), keyCodec, valueCodec);
+    // Refresh-ahead keeps the persistent tier as fresh as the in-memory one, and drops keys that
+    // no longer load from both, so the file cannot serve them again
+    CacheLoader<K, V> writeThrough = (refresher == null) ? null : key -> {
+      V refreshed = refresher.load(key);
+      if (refreshed != null) {
+        secondTier.save(key, refreshed);
+      } else {
+        secondTier.invalidate(key);
+      }
+      return refreshed;
+    };
+    return new TieredCache<>(newCache(name, cacheConfig, writeThrough, weigher, keyCodec, valueCodec), secondTier);
+  }
+
+  private static <K, V> Cache<K, V> newCache(String name, CacheConfig cacheConfig, CacheLoader<K, V> refresher,
+                                             Weigher<K, V> weigher, BinaryCodec<K> keyCodec,
+                                             BinaryCodec<V> valueCodec) {
+    return switch (cacheConfig.strategy()) {
+      case CONCURRENT_LRU -> new ConcurrentLruCache<>(cacheConfig, refresher, weigher);
+      case TINY_LFU -> new TinyLfuCache<>(cacheConfig, refresher, weigher);
+      case OFF_HEAP -> {
+        if (keyCodec == null || valueCodec == null) {
+          throw new CacheException("Off-heap cache " + name + " needs a key and a value codec");
+        }
+        yield new OffHeapCache<>(cacheConfig, keyCodec, valueCodec, refresher);
+      }
+      case LRU -> new KeyValueCache<>(cacheConfig, refresher, weigher);
+    };
   }
 
   public static <T, K> TypeAwareCache<T, K> getTypeCache(String name, CacheProperties props) {
+    return getTypeCache(name, props, null);
+  }
+
+  public static <T, K> TypeAwareCache<T, K> getTypeCache(String name, CacheProperties props,
+                                                         CacheLoader<T, Iterable<K>> refresher) {
+    return getTypeCache(name, props, refresher, Weigher.singleton());
+  }
+
+  public static <T, K> TypeAwareCache<T, K> getTypeCache(String name, CacheProperties props,
+                                                         CacheLoader<T, Iterable<K>> refresher,
+                                                         Weigher<T, K> weigher) {
     TypeCacheConfig typeCacheConfig = props.getTypeCacheConfigs().get(name);
-    return new TypeBasedCache<>(typeCacheConfig);
+    return switch (typeCacheConfig.strategy()) {
+      case SNAPSHOT -> new SnapshotTypeCache<>(typeCacheConfig, refresher, weigher);
+      case LRU -> new TypeBasedCache<>(typeCacheConfig, refresher, weigher);
+    };
   }
 
 }
@@ -1,21 +1,34 @@
 package com.example.ps.cache.provider;
 
 import com.example.ps.cache.factory.CacheFactory;
+import com.example.ps.cache.strategy.BinaryCodec;
 import com.example.ps.cache.strategy.Cache;
+import com.example.ps.cache.strategy.TieredCache;
 import com.example.ps.cache.strategy.TypeAwareCache;
 import com.example.ps.config.CacheProperties;
 import com.example.ps.domain.Product;
+import com.example.ps.domain.ProductChangedEvent;
+import com.example.ps.repository.ProductRepository;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Locale;
 
 @Component
 public class CacheProvider {
   @Autowired
   private CacheProperties cacheProperties;
 
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private CacheRegistry cacheRegistry;
+
   private Cache<String, Product> productIdCache;
   private TypeAwareCache<String, Product> typeCache;
   private TypeAwareCache<String, Product> recommendationCache;
@@ -26,9 +39,44 @@ public class CacheProvider {
   }
 
   private void initCache() {
-    productIdCache = CacheFactory.getCache("id-cache", cacheProperties);
-    typeCache = CacheFactory.getTypeCache("type-cache", cacheProperties);
-    recommendationCache = CacheFactory.getTypeCache("recommendation-cache", cacheProperties);
+    ProductWeigher weigher = new ProductWeigher();
+    // Refresh-ahead reloads hot entries from the repository before they expire
+    productIdCache = CacheFactory.getCache("id-cache", cacheProperties,
+        productId -> productRepository.findById(productId).orElse(null), weigher,
+        BinaryCodec.utf8(), new ProductCodec());
+    typeCache = CacheFactory.getTypeCache("type-cache", cacheProperties, productRepository::findByType, weigher);
+    recommendationCache = CacheFactory.getTypeCache("recommendation-cache", cacheProperties, null, weigher);
+
+    cacheRegistry.register("id-cache", productIdCache::stats);
+    if (productIdCache instanceof TieredCache<String, Product> tiered) {
+      cacheRegistry.register("id-cache-l2", tiered.secondTier()::stats);
+    }
+    cacheRegistry.register("type-cache", typeCache::stats);
+    cacheRegistry.register("recommendation-cache", recommendationCache::stats);
+  }
+
+  /** Flushes the persistent tier so the next start finds every entry written before shutdown. */
+  @PreDestroy
+  public void close() {
+    if (productIdCache instanceof TieredCache<String, Product> tiered) {
+      tiered.close();
+    }
+  }
+
+  /**
+   * Drops the entries a product write made stale: the product itself and the type lists it left
+   * or joined. Recommendation entries are handled by {@code RecommendationService}, which knows
+   * the query behind each key.
+   */
+  @EventListener
+  public void onProductChanged(ProductChangedEvent event) {
+    productIdCache.invalidate(event.productId());
+    if (event.before() != null && event.before().type() != null) {
+      typeCache.invalidate(event.before().type().toUpperCase(Locale.ROOT));
+    }
+    if (event.after() != null && event.after().type() != null) {
+      typeCache.invalidate(event.after().type().toUpperCase(Locale.ROOT));
+    }
   }
 
   public Cache<String, Product> getProductIdCache() {
@@ -42,4 +90,8 @@ public class CacheProvider {
   public TypeAwareCache<String, Product> getTypeCache() {
     return typeCache;
   }
+
+  public CacheRegistry getCacheRegistry() {
+    return cacheRegistry;
+  }
 }
@@ -0,0 +1,37 @@
+package com.example.ps.cache.provider;
+
+import com.example.ps.cache.strategy.CacheStats;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Named sources of {@link CacheStats}. {@link CacheProvider} registers every cache it builds, so
+ * statistics can be read by name without reaching into the caches themselves.
+ */
+@Component
+public class CacheRegistry {
+
+  private final Map<String, Supplier<CacheStats>> caches = new ConcurrentHashMap<>();
+
+  public void register(String name, Supplier<CacheStats> stats) {
+    caches.put(name, stats);
+  }
+
+  public Optional<CacheStats> stats(String name) {
+    Supplier<CacheStats> stats = caches.get(name);
+    return (stats == null) ? Optional.empty() : Optional.of(stats.get());
+  }
+
+  /** Current statistics of every registered cache, by name. */
+  public Map<String, CacheStats> snapshot() {
+    Map<String, CacheStats> snapshot = new LinkedHashMap<>();
+    caches.keySet().stream().sorted().forEach(name -> snapshot.put(name, caches.get(name).get()));
+    return Collections.unmodifiableMap(snapshot);
+  }
+}
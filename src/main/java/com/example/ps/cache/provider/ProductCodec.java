@@ -0,0 +1,81 @@
+package com.example.ps.cache.provider;
+
+import com.example.ps.cache.strategy.BinaryCodec;
+import com.example.ps.domain.Product;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodes a {@link Product} for the off-heap cache. Strings are written as a length followed by
+ * their UTF-8 bytes (length {@code -1} for null), the price as a presence flag and a long, and the
+ * attributes as an entry count followed by key/value strings.
+ */
+public class ProductCodec implements BinaryCodec<Product> {
+
+  @Override
+  public byte[] encode(Product product) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      writeString(out, product.id());
+      writeString(out, product.name());
+      writeString(out, product.type());
+      writeString(out, product.category());
+      out.writeBoolean(product.price() != null);
+      if (product.price() != null) {
+        out.writeLong(product.price());
+      }
+      writeString(out, product.recommendedAgeGroup());
+      out.writeInt(product.attributes().size());
+      for (Map.Entry<String, String> attribute : product.attributes().entrySet()) {
+        writeString(out, attribute.getKey());
+        writeString(out, attribute.getValue());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public Product decode(ByteBuffer in) {
+    String id = readString(in);
+    String name = readString(in);
+    String type = readString(in);
+    String category = readString(in);
+    Long price = (in.get() != 0) ? in.getLong() : null;
+    String recommendedAgeGroup = readString(in);
+    int attributeCount = in.getInt();
+    Map<String, String> attributes = (attributeCount == 0) ? Map.of() : new LinkedHashMap<>();
+    for (int i = 0; i < attributeCount; i++) {
+      attributes.put(readString(in), readString(in));
+    }
+    return new Product(id, name, type, category, price, recommendedAgeGroup, attributes);
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(utf8.length);
+    out.write(utf8);
+  }
+
+  private static String readString(ByteBuffer in) {
+    int length = in.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] utf8 = new byte[length];
+    in.get(utf8);
+    return new String(utf8, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,96 @@
+package com.example.ps.cache.provider;
+
+import com.example.ps.cache.factory.CacheFactory;
+import com.example.ps.cache.strategy.BloomFilter;
+import com.example.ps.cache.strategy.Cache;
+import com.example.ps.config.CacheProperties;
+import com.example.ps.config.ProductIdFilterConfig;
+import com.example.ps.domain.Product;
+import com.example.ps.domain.ProductChangedEvent;
+import com.example.ps.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Stream;
+
+/**
+ * Answers "can this product ID exist?" without a repository round trip. A Bloom filter of every
+ * known ID is filled from the repository at startup and then from every product write; an ID it
+ * has never seen is rejected outright. IDs the filter lets through but the repository does not
+ * have (false positives, deleted products) are remembered for a short while in the
+ * {@code missing-id-cache}.
+ * <p>
+ * Until the startup scan finishes, the filter lets every ID through.
+ */
+@Component
+public class ProductIdFilter extends AbstractMongoEventListener<Product> implements ApplicationRunner {
+
+  private static final Logger logger = LoggerFactory.getLogger(ProductIdFilter.class);
+
+  private final ProductRepository productRepository;
+  private final BloomFilter<String> knownIds;
+  private final Cache<String, Boolean> missingIds;
+  private volatile boolean ready;
+
+  public ProductIdFilter(ProductRepository productRepository, CacheProperties cacheProperties,
+                         CacheRegistry cacheRegistry) {
+    this.productRepository = productRepository;
+    ProductIdFilterConfig config = cacheProperties.getProductIdFilter();
+    this.knownIds = new BloomFilter<>(config.expectedInsertions(), config.falsePositiveProbability());
+    this.missingIds = CacheFactory.getCache("missing-id-cache", cacheProperties);
+    cacheRegistry.register("missing-id-cache", missingIds::stats);
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    long count = 0;
+    try (Stream<Product> products = productRepository.streamAllIds()) {
+      for (Product product : (Iterable<Product>) products::iterator) {
+        knownIds.put(product.id());
+        count++;
+      }
+    }
+    ready = true;
+    logger.info("Product ID filter loaded {} IDs into {} bits", count, knownIds.bitSize());
+  }
+
+  /** False when the product certainly does not exist; true when the repository must be asked. */
+  public boolean mightExist(String productId) {
+    if (ready && !knownIds.mightContain(productId)) {
+      return false;
+    }
+    return !missingIds.fetch(productId).orElse(Boolean.FALSE);
+  }
+
+  /** Remembers that the repository had no product with this ID. */
+  public void recordMissing(String productId) {
+    missingIds.save(productId, Boolean.TRUE);
+  }
+
+  public void recordSaved(String productId) {
+    knownIds.put(productId);
+    missingIds.invalidate(productId);
+  }
+
+  @EventListener
+  public void onProductChanged(ProductChangedEvent event) {
+    if (event.after() != null) {
+      recordSaved(event.productId());
+    }
+  }
+
+  /** Covers repository writes that bypass {@code ProductService}, such as {@code DataLoader}'s. */
+  @Override
+  public void onAfterSave(AfterSaveEvent<Product> event) {
+    Product product = event.getSource();
+    if (product.id() != null) {
+      recordSaved(product.id());
+    }
+  }
+}
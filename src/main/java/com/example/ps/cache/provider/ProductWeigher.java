@@ -0,0 +1,59 @@
+package com.example.ps.cache.provider;
+
+import com.example.ps.cache.strategy.Weigher;
+import com.example.ps.domain.Product;
+
+import java.util.Map;
+
+/**
+ * Estimates the retained size of a {@link Product} on a 64-bit JVM with compressed references.
+ * The key is not counted: ids and type names are short and mostly shared with the product, while
+ * the {@code attributes} map is what makes one product many times heavier than another.
+ */
+public class ProductWeigher implements Weigher<String, Product> {
+
+  private static final int OBJECT_HEADER = 12;
+  private static final int REFERENCE = 4;
+  private static final int ARRAY_HEADER = 16;
+  private static final int STRING = 24;
+  private static final int BOXED_LONG = 16;
+  private static final int HASH_MAP = 48;
+  private static final int LINKED_MAP_NODE = 40;
+
+  @Override
+  public int weigh(String key, Product product) {
+    long size = align(OBJECT_HEADER + 7 * REFERENCE)
+        + stringSize(product.id())
+        + stringSize(product.name())
+        + stringSize(product.type())
+        + stringSize(product.category())
+        + (product.price() == null ? 0 : BOXED_LONG)
+        + stringSize(product.recommendedAgeGroup())
+        + mapSize(product.attributes());
+    return (int) Math.min(Integer.MAX_VALUE, size);
+  }
+
+  private static long mapSize(Map<String, String> map) {
+    if (map.isEmpty()) {
+      return 0; // Map.of() is a shared instance
+    }
+    int tableLength = Integer.highestOneBit(Math.max(1, (int) (map.size() / 0.75f)) * 2 - 1);
+    long size = HASH_MAP + align(ARRAY_HEADER + (long) REFERENCE * Math.max(16, tableLength));
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      size += LINKED_MAP_NODE + stringSize(entry.getKey()) + stringSize(entry.getValue());
+    }
+    return size;
+  }
+
+  private static long stringSize(String s) {
+    if (s == null) {
+      return 0;
+    }
+    boolean latin1 = s.chars().allMatch(c -> c <= 0xFF);
+    return STRING + align(ARRAY_HEADER + (long) s.length() * (latin1 ? 1 : 2));
+  }
+
+  private static long align(long size) {
+    return (size + 7) & ~7L;
+  }
+}
@@ -0,0 +1,71 @@
+package com.example.ps.cache.strategy;
+
+/**
+ * Intrusive doubly-linked list of {@link CacheNode}s ordered from least to most recently used.
+ * Every operation is O(1). Not thread-safe: callers guard it with their eviction lock.
+ */
+final class AccessOrderDeque<K, V> {
+
+  private CacheNode<K, V> first;
+  private CacheNode<K, V> last;
+  private int size;
+
+  boolean contains(CacheNode<K, V> node) {
+    return node.prev != null || node.next != null || node == first;
+  }
+
+  void addLast(CacheNode<K, V> node) {
+    node.prev = last;
+    node.next = null;
+    if (last == null) {
+      first = node;
+    } else {
+      last.next = node;
+    }
+    last = node;
+    size++;
+  }
+
+  void moveToLast(CacheNode<K, V> node) {
+    if (node != last) {
+      remove(node);
+      addLast(node);
+    }
+  }
+
+  void remove(CacheNode<K, V> node) {
+    if (node.prev == null) {
+      first = node.next;
+    } else {
+      node.prev.next = node.next;
+    }
+    if (node.next == null) {
+      last = node.prev;
+    } else {
+      node.next.prev = node.prev;
+    }
+    node.prev = null;
+    node.next = null;
+    size--;
+  }
+
+  CacheNode<K, V> peekFirst() {
+    return first;
+  }
+
+  CacheNode<K, V> pollFirst() {
+    CacheNode<K, V> node = first;
+    if (node != null) {
+      remove(node);
+    }
+    return node;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+}
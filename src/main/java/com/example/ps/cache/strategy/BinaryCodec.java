@@ -0,0 +1,29 @@
+package com.example.ps.cache.strategy;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary form of cache keys or values, for strategies that keep entries outside the Java
+ * heap. {@link #decode} must not retain the buffer it is given.
+ */
+public interface BinaryCodec<T> {
+  byte[] encode(T value);
+
+  /** Decodes the bytes between the buffer's position and limit. */
+  T decode(ByteBuffer buffer);
+
+  static BinaryCodec<String> utf8() {
+    return new BinaryCodec<>() {
+      @Override
+      public byte[] encode(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+      }
+
+      @Override
+      public String decode(ByteBuffer buffer) {
+        return StandardCharsets.UTF_8.decode(buffer).toString();
+      }
+    };
+  }
+}
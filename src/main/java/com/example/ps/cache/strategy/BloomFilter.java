@@ -0,0 +1,77 @@
+package com.example.ps.cache.strategy;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over the keys' hash codes. {@link #mightContain} never returns false
+ * for a key that was {@linkplain #put put}; for any other key it returns true with roughly the
+ * configured false-positive probability once the expected number of keys has been added. Keys
+ * cannot be removed. Bits are set with compare-and-set, so the filter is safe for concurrent use
+ * without locking.
+ */
+public final class BloomFilter<K> {
+
+  private static final double LN2 = Math.log(2);
+
+  private final AtomicLongArray words;
+  private final long bitCount;
+  private final int hashCount;
+
+  public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+    if (expectedInsertions <= 0) {
+      throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+    }
+    if (!(falsePositiveProbability > 0 && falsePositiveProbability < 1)) {
+      throw new IllegalArgumentException("False-positive probability must be in (0, 1): " + falsePositiveProbability);
+    }
+    long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (LN2 * LN2));
+    int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) >>> 6));
+    this.words = new AtomicLongArray(wordCount);
+    this.bitCount = (long) wordCount * Long.SIZE;
+    this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * LN2));
+  }
+
+  public void put(K key) {
+    long hash1 = mix(key.hashCode());
+    long hash2 = mix(hash1);
+    for (int i = 1; i <= hashCount; i++) {
+      setBit(((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount);
+    }
+  }
+
+  public boolean mightContain(K key) {
+    long hash1 = mix(key.hashCode());
+    long hash2 = mix(hash1);
+    for (int i = 1; i <= hashCount; i++) {
+      long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Number of bits in the filter; its heap footprint is about {@code bitSize() / 8} bytes. */
+  public long bitSize() {
+    return bitCount;
+  }
+
+  private void setBit(long bit) {
+    int index = (int) (bit >>> 6);
+    long mask = 1L << bit;
+    long word;
+    do {
+      word = words.get(index);
+    } while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask));
+  }
+
+  /** MurmurHash3's 64-bit finalizer, so every bit of the input affects every bit probed. */
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,348 @@
+package com.example.ps.cache.strategy;
+
+import com.example.ps.config.CacheConfig;
+import com.example.ps.exception.CacheException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Shared machinery of the concurrent cache strategies. Lookups go straight to a
+ * {@link ConcurrentHashMap} and only record the hit in a {@link StripedReadBuffer}; the eviction
+ * policy sees those hits in batches, replayed by whichever thread wins {@code tryLock} on the
+ * eviction lock. Writes take the lock to link the new entry, replaying pending reads and expiring
+ * due entries first so eviction sees the latest state.
+ * <p>
+ * Subclasses implement the eviction policy through the {@code on*} hooks and
+ * {@link #evictIfNeeded()}, all of which are called with the eviction lock held. When the cache
+ * has a {@code max-weight-bytes} budget, {@link #exceedsMaxWeight()} tells the policy to keep
+ * evicting until the total weight fits.
+ */
+abstract class BufferedCache<K, V> implements Cache<K, V> {
+
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+
+  final ConcurrentHashMap<K, CacheNode<K, V>> data;
+  final ReentrantLock evictionLock = new ReentrantLock();
+  private final StripedReadBuffer<CacheNode<K, V>> readBuffer = new StripedReadBuffer<>();
+  private final StripedReadBuffer<K> missBuffer;
+  private final Expiration<K> expiration;
+  private final CacheLoader<K, V> refresher;
+  private final Executor refreshExecutor;
+  private final StatsCounter statsCounter = new StatsCounter();
+  private final SingleFlight<K, V> inFlightLoads = new SingleFlight<>(statsCounter, this::save, this::removeEntry);
+  private final Weigher<K, V> weigher;
+  private final long maxWeight;
+  private long weightedSize; // guarded by evictionLock
+
+  BufferedCache(CacheConfig cacheConfig, CacheLoader<K, V> refresher, Weigher<K, V> weigher,
+                LongSupplier ticker, Executor refreshExecutor, boolean recordMisses) {
+    this.data = new ConcurrentHashMap<>(cacheConfig.capacity());
+    this.weigher = weigher;
+    this.maxWeight = cacheConfig.maxWeightBytes();
+    this.missBuffer = recordMisses ? new StripedReadBuffer<>() : null;
+    this.expiration = new Expiration<>(cacheConfig.expiry(), ticker);
+    this.refresher = refresher;
+    this.refreshExecutor = refreshExecutor;
+  }
+
+  @Override
+  public void save(K k, V v) {
+    if (k == null) {
+      throw new CacheException("Cache key cannot be null");
+    }
+    if (v == null) {
+      throw new CacheException("Cache value cannot be null");
+    }
+    long now = expiration.now();
+    int weight = (maxWeight > 0) ? weigher.weigh(k, v) : 0;
+    CacheNode<K, V> node = new CacheNode<>(k, v, expiration.newTimer(k, now));
+    node.weight = weight;
+    CacheNode<K, V> existing = data.putIfAbsent(k, node);
+    if (existing == null) {
+      afterWrite(node);
+    } else {
+      existing.value = v;
+      expiration.onWrite(existing.timer, now);
+      if (maxWeight > 0) {
+        afterUpdate(existing, weight);
+      } else {
+        afterRead(existing);
+      }
+    }
+    logger.debug("Stored value in cache for key: {}", k);
+  }
+
+  @Override
+  public Optional<V> fetch(K k) {
+    if (k == null) {
+      logger.warn("Attempted to fetch with null key");
+      return Optional.empty();
+    }
+    CacheNode<K, V> node = data.get(k);
+    if (node != null && expiration.enabled()) {
+      long now = expiration.now();
+      if (expiration.hasExpired(node.timer, now)) {
+        logger.debug("Cache entry expired for key: {}", k);
+        node = null;
+      } else {
+        expiration.onAccess(node.timer, now);
+        if (refresher != null && expiration.startRefresh(node.timer, now)) {
+          refreshAsync(node);
+        }
+      }
+    }
+    if (node == null) {
+      statsCounter.recordMiss();
+      afterMiss(k);
+      logger.debug("Cache miss for key: {}", k);
+      return Optional.empty();
+    }
+    statsCounter.recordHit();
+    afterRead(node);
+    logger.debug("Cache hit for key: {}", k);
+    return Optional.of(node.value);
+  }
+
+  /** Holds the eviction lock across the batch, so each write's bookkeeping does not take it again. */
+  @Override
+  public void saveAll(Map<? extends K, ? extends V> entries) {
+    evictionLock.lock();
+    try {
+      Cache.super.saveAll(entries);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public Optional<V> fetchOrLoad(K k, Function<? super K, ? extends V> loader) {
+    Optional<V> cached = fetch(k);
+    if (cached.isPresent() || k == null) {
+      return cached;
+    }
+    return Optional.ofNullable(inFlightLoads.load(k, loader));
+  }
+
+  @Override
+  public Map<K, V> fetchAllOrLoad(Collection<? extends K> keys,
+                                  Function<? super List<K>, ? extends Map<K, V>> loader) {
+    return inFlightLoads.loadMissing(keys, fetchAll(keys), loader);
+  }
+
+  @Override
+  public void invalidate(K k) {
+    if (k == null) {
+      return;
+    }
+    inFlightLoads.discard(k);
+    removeEntry(k);
+    logger.debug("Invalidated cache entry for key: {}", k);
+  }
+
+  @Override
+  public int size() {
+    return data.size();
+  }
+
+  @Override
+  public CacheStats stats() {
+    return statsCounter.snapshot(data.size(), weightedSize());
+  }
+
+  /** Total weight of the linked entries; zero when the cache has no weight budget. */
+  long weightedSize() {
+    evictionLock.lock();
+    try {
+      return weightedSize;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /** Links a newly stored node into the policy's structures. */
+  abstract void onAdd(CacheNode<K, V> node);
+
+  /** Replays a buffered read. The node may not have been linked yet by its writer. */
+  abstract void onAccess(CacheNode<K, V> node);
+
+  /** Unlinks a node that is removed for a reason other than the policy's own eviction. */
+  abstract void onRemove(CacheNode<K, V> node);
+
+  /** Replays a buffered miss; only called when the cache was built to record misses. */
+  void onMiss(K key) {
+  }
+
+  abstract void evictIfNeeded();
+
+  boolean exceedsMaxWeight() {
+    return maxWeight > 0 && weightedSize > maxWeight;
+  }
+
+  /** Drops an already unlinked node from the map. */
+  void retire(CacheNode<K, V> node) {
+    node.retired = true;
+    weightedSize -= node.weight;
+    statsCounter.recordEvictions(1);
+    data.remove(node.key, node);
+    expiration.cancel(node.timer);
+    logger.debug("Evicted key: {}", node.key);
+  }
+
+  /** Drops an entry without counting an eviction; a node its writer has not linked yet is never linked. */
+  private void removeEntry(K k) {
+    CacheNode<K, V> node = data.get(k);
+    if (node != null) {
+      removeIfLive(node);
+    }
+  }
+
+  /** Drops the node unless it was already removed or replaced, without counting an eviction. */
+  private void removeIfLive(CacheNode<K, V> node) {
+    evictionLock.lock();
+    try {
+      drainBuffers();
+      if (!node.retired) {
+        if (node.linked) {
+          onRemove(node);
+          weightedSize -= node.weight;
+        }
+        node.retired = true;
+        data.remove(node.key, node);
+        expiration.cancel(node.timer);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /** Swaps in a refreshed value unless the node was removed while it was reloading. */
+  private void replaceIfLive(CacheNode<K, V> node, V value) {
+    int weight = (maxWeight > 0) ? weigher.weigh(node.key, value) : 0;
+    evictionLock.lock();
+    try {
+      if (node.retired) {
+        return;
+      }
+      node.value = value;
+      expiration.onWrite(node.timer, expiration.now());
+      if (node.linked) {
+        weightedSize += weight - node.weight;
+      }
+      node.weight = weight;
+      evictIfNeeded();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void afterRead(CacheNode<K, V> node) {
+    if (readBuffer.offer(node)) {
+      tryDrainBuffers();
+    }
+  }
+
+  private void afterMiss(K k) {
+    if (missBuffer != null && missBuffer.offer(k)) {
+      tryDrainBuffers();
+    }
+  }
+
+  private void afterWrite(CacheNode<K, V> node) {
+    evictionLock.lock();
+    try {
+      drainBuffers();
+      if (!node.retired) {
+        expiration.schedule(node.timer);
+        node.linked = true;
+        weightedSize += node.weight;
+        onAdd(node);
+      }
+      evictIfNeeded();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /** Re-weighs a node whose value was replaced; a node its writer has not linked yet is counted then. */
+  private void afterUpdate(CacheNode<K, V> node, int weight) {
+    evictionLock.lock();
+    try {
+      drainBuffers();
+      if (node.linked && !node.retired) {
+        weightedSize += weight - node.weight;
+        node.weight = weight;
+        onAccess(node);
+        evictIfNeeded();
+      } else if (!node.retired) {
+        node.weight = weight;
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void tryDrainBuffers() {
+    if (evictionLock.tryLock()) {
+      try {
+        drainBuffers();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  private void drainBuffers() {
+    readBuffer.drainTo(node -> {
+      if (!node.retired) {
+        onAccess(node);
+      }
+    });
+    if (missBuffer != null) {
+      missBuffer.drainTo(this::onMiss);
+    }
+    expiration.expireEntries(expiration.now(), timer -> {
+      CacheNode<K, V> node = data.get(timer.key);
+      if (node != null && node.timer == timer && !node.retired) {
+        onRemove(node);
+        retire(node);
+      }
+    });
+  }
+
+  private void refreshAsync(CacheNode<K, V> node) {
+    K key = node.key;
+    try {
+      refreshExecutor.execute(() -> {
+        try {
+          V refreshed = statsCounter.recordLoad(() -> refresher.load(key));
+          if (refreshed != null) {
+            replaceIfLive(node, refreshed);
+            logger.debug("Refreshed cache entry for key: {}", key);
+          } else {
+            // The key no longer loads, so the stale value must not outlive its refresh
+            removeIfLive(node);
+            logger.debug("Removed cache entry for key that no longer loads: {}", key);
+          }
+        } catch (RuntimeException e) {
+          logger.warn("Failed to refresh cache entry for key: {}", key, e);
+        } finally {
+          expiration.endRefresh(node.timer);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      expiration.endRefresh(node.timer);
+      logger.warn("Refresh rejected for key: {}", key);
+    }
+  }
+}
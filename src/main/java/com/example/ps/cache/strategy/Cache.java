@@ -1,6 +1,13 @@
 package com.example.ps.cache.strategy;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 public interface Cache<K, V> {
   public void save(K k, V v);
@@ -8,4 +15,72 @@ public interface Cache<K, V> {
   public Optional<V> fetch(K k);
 
   public int size();
+
+  /**
+   * Returns the cached values of the given keys, in the keys' order; a key missing from the
+   * result was a miss. Strategies that lock on access take the lock once for the whole batch.
+   */
+  public default Map<K, V> fetchAll(Collection<? extends K> keys) {
+    Map<K, V> found = new LinkedHashMap<>();
+    for (K k : keys) {
+      fetch(k).ifPresent(v -> found.put(k, v));
+    }
+    return found;
+  }
+
+  /**
+   * Returns the cached values of the given keys, in the keys' order, and loads all misses with
+   * one call to {@code loader}, caching the values it returns; a key it leaves out stays
+   * uncached and missing from the result. The cache strategies share loads with concurrent
+   * callers and keep a key invalidated during the load out of the cache, as
+   * {@link #fetchOrLoad} does; this default does neither.
+   */
+  public default Map<K, V> fetchAllOrLoad(Collection<? extends K> keys,
+                                          Function<? super List<K>, ? extends Map<K, V>> loader) {
+    Map<K, V> found = new LinkedHashMap<>(fetchAll(keys));
+    Set<K> misses = new LinkedHashSet<>();
+    for (K k : keys) {
+      if (k != null && !found.containsKey(k)) {
+        misses.add(k);
+      }
+    }
+    if (!misses.isEmpty()) {
+      Map<K, V> loaded = loader.apply(List.copyOf(misses));
+      if (loaded != null) {
+        misses.stream().filter(k -> loaded.get(k) != null).forEach(k -> found.put(k, loaded.get(k)));
+        saveAll(loaded);
+      }
+    }
+    return found;
+  }
+
+  /** Stores every entry, as {@link #save} would one at a time. */
+  public default void saveAll(Map<? extends K, ? extends V> entries) {
+    entries.forEach(this::save);
+  }
+
+  public CacheStats stats();
+
+  /**
+   * Removes the entry for a key, if present, and keeps a load of it that is already running from
+   * caching its result.
+   */
+  public void invalidate(K k);
+
+  /**
+   * Returns the cached value, or on a miss calls {@code loader}, caches a non-null result and
+   * returns it. The cache strategies coalesce concurrent misses for one key into a single call
+   * to {@code loader}; this default does not.
+   */
+  public default Optional<V> fetchOrLoad(K k, Function<? super K, ? extends V> loader) {
+    Optional<V> cached = fetch(k);
+    if (cached.isPresent() || k == null) {
+      return cached;
+    }
+    V loaded = loader.apply(k);
+    if (loaded != null) {
+      save(k, loaded);
+    }
+    return Optional.ofNullable(loaded);
+  }
 }
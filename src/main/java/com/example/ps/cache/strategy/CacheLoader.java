@@ -0,0 +1,10 @@
+package com.example.ps.cache.strategy;
+
+/**
+ * Loads the value for a key from the system of record. Returning {@code null} means the key no
+ * longer exists.
+ */
+@FunctionalInterface
+public interface CacheLoader<K, V> {
+  V load(K key);
+}
@@ -0,0 +1,30 @@
+package com.example.ps.cache.strategy;
+
+/**
+ * Entry holder shared by the concurrent cache strategies. The value is published through a
+ * volatile field so readers never lock; the links are only touched while the owning cache
+ * holds its eviction lock.
+ */
+final class CacheNode<K, V> {
+
+  final K key;
+  final TimerWheel.Timer<K> timer;
+  volatile V value;
+  volatile boolean retired;
+
+  /** Region the node currently lives in, for strategies that split their capacity. */
+  int region;
+
+  /** Weight charged to the cache's budget from the moment the writer links the node. */
+  int weight;
+  boolean linked;
+
+  CacheNode<K, V> prev;
+  CacheNode<K, V> next;
+
+  CacheNode(K key, V value, TimerWheel.Timer<K> timer) {
+    this.key = key;
+    this.value = value;
+    this.timer = timer;
+  }
+}
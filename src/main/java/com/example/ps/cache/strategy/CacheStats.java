@@ -0,0 +1,19 @@
+package com.example.ps.cache.strategy;
+
+/**
+ * Point-in-time statistics of one cache. Loads are reloads made by the cache itself, such as
+ * refresh-ahead; evictions include entries removed because they expired. For type-aware caches
+ * hits and misses count type lookups while size, weight and evictions count items.
+ */
+public record CacheStats(
+    long hitCount,
+    long missCount,
+    double hitRate,
+    long loadSuccessCount,
+    long loadFailureCount,
+    long totalLoadTimeNanos,
+    long evictionCount,
+    long size,
+    long weightedSize
+) {
+}
@@ -0,0 +1,67 @@
+package com.example.ps.cache.strategy;
+
+import com.example.ps.config.CacheConfig;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongSupplier;
+
+/**
+ * LRU cache whose reads never block. Hits are recorded in striped buffers and replayed into the
+ * access order in batches (see {@link BufferedCache}); writes evict the least recently used
+ * entries once the configured capacity or weight budget is exceeded.
+ */
+public class ConcurrentLruCache<K, V> extends BufferedCache<K, V> {
+
+  private final CacheConfig cacheConfig;
+  private final AccessOrderDeque<K, V> accessOrder = new AccessOrderDeque<>();
+
+  public ConcurrentLruCache(CacheConfig cacheConfig) {
+    this(cacheConfig, null);
+  }
+
+  public ConcurrentLruCache(CacheConfig cacheConfig, CacheLoader<K, V> refresher) {
+    this(cacheConfig, refresher, Weigher.singleton());
+  }
+
+  public ConcurrentLruCache(CacheConfig cacheConfig, CacheLoader<K, V> refresher, Weigher<K, V> weigher) {
+    this(cacheConfig, refresher, weigher, System::nanoTime, ForkJoinPool.commonPool());
+  }
+
+  ConcurrentLruCache(CacheConfig cacheConfig, CacheLoader<K, V> refresher, LongSupplier ticker,
+                     Executor refreshExecutor) {
+    this(cacheConfig, refresher, Weigher.singleton(), ticker, refreshExecutor);
+  }
+
+  ConcurrentLruCache(CacheConfig cacheConfig, CacheLoader<K, V> refresher, Weigher<K, V> weigher,
+                     LongSupplier ticker, Executor refreshExecutor) {
+    super(cacheConfig, refresher, weigher, ticker, refreshExecutor, false);
+    this.cacheConfig = cacheConfig;
+  }
+
+  @Override
+  void onAdd(CacheNode<K, V> node) {
+    accessOrder.addLast(node);
+  }
+
+  @Override
+  void onAccess(CacheNode<K, V> node) {
+    if (accessOrder.contains(node)) {
+      accessOrder.moveToLast(node);
+    }
+  }
+
+  @Override
+  void onRemove(CacheNode<K, V> node) {
+    if (accessOrder.contains(node)) {
+      accessOrder.remove(node);
+    }
+  }
+
+  @Override
+  void evictIfNeeded() {
+    while (accessOrder.size() > cacheConfig.capacity() || (exceedsMaxWeight() && !accessOrder.isEmpty())) {
+      retire(accessOrder.pollFirst());
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package com.example.ps.cache.strategy;
+
+import com.example.ps.config.ExpiryConfig;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Applies an {@link ExpiryConfig} to a cache's entries. Reads only write volatile timestamps;
+ * the {@link TimerWheel} position of a timer is corrected lazily when its bucket comes due,
+ * which is safe because reads and writes only ever push a deadline later. Scheduling, cancelling
+ * and {@link #expireEntries} must run under the owning cache's lock.
+ */
+final class Expiration<K> {
+
+  private final long expireAfterWriteNanos;
+  private final long expireAfterAccessNanos;
+  private final long refreshAfterWriteNanos;
+  private final LongSupplier ticker;
+  private final TimerWheel<K> timerWheel;
+
+  Expiration(ExpiryConfig expiry, LongSupplier ticker) {
+    this.expireAfterWriteNanos = toNanos(expiry.expireAfterWrite());
+    this.expireAfterAccessNanos = toNanos(expiry.expireAfterAccess());
+    this.refreshAfterWriteNanos = toNanos(expiry.refreshAfterWrite());
+    this.ticker = ticker;
+    this.timerWheel = expires() ? new TimerWheel<>(ticker.getAsLong()) : null;
+  }
+
+  /** Whether entries carry timers at all. */
+  boolean enabled() {
+    return expires() || refreshAfterWriteNanos > 0;
+  }
+
+  long now() {
+    return enabled() ? ticker.getAsLong() : 0L;
+  }
+
+  TimerWheel.Timer<K> newTimer(K key, long now) {
+    if (!enabled()) {
+      return null;
+    }
+    TimerWheel.Timer<K> timer = new TimerWheel.Timer<>(key);
+    timer.writeTime = now;
+    timer.accessTime = now;
+    return timer;
+  }
+
+  void schedule(TimerWheel.Timer<K> timer) {
+    if (timerWheel != null && timer != null) {
+      timer.deadline = deadline(timer);
+      timerWheel.schedule(timer);
+    }
+  }
+
+  void cancel(TimerWheel.Timer<K> timer) {
+    if (timerWheel != null && timer != null) {
+      timerWheel.deschedule(timer);
+    }
+  }
+
+  void onWrite(TimerWheel.Timer<K> timer, long now) {
+    if (timer != null) {
+      timer.writeTime = now;
+      timer.accessTime = now;
+    }
+  }
+
+  void onAccess(TimerWheel.Timer<K> timer, long now) {
+    if (timer != null && expireAfterAccessNanos > 0) {
+      timer.accessTime = now;
+    }
+  }
+
+  boolean hasExpired(TimerWheel.Timer<K> timer, long now) {
+    return timer != null && expires() && deadline(timer) - now <= 0;
+  }
+
+  /** Claims the entry for a background reload when it is older than the refresh age. */
+  boolean startRefresh(TimerWheel.Timer<K> timer, long now) {
+    if (timer == null || refreshAfterWriteNanos <= 0 || timer.refreshing
+        || now - timer.writeTime < refreshAfterWriteNanos) {
+      return false;
+    }
+    synchronized (timer) {
+      if (timer.refreshing) {
+        return false;
+      }
+      timer.refreshing = true;
+      return true;
+    }
+  }
+
+  void endRefresh(TimerWheel.Timer<K> timer) {
+    timer.refreshing = false;
+  }
+
+  /**
+   * Advances the wheel and passes every timer that is really due to {@code onExpired}. Timers
+   * whose entry was written or read since they were scheduled are put back at their new deadline.
+   */
+  void expireEntries(long now, Consumer<TimerWheel.Timer<K>> onExpired) {
+    if (timerWheel == null) {
+      return;
+    }
+    timerWheel.advance(now, timer -> {
+      long deadline = deadline(timer);
+      if (deadline - now > 0) {
+        timer.deadline = deadline;
+        timerWheel.schedule(timer);
+      } else {
+        onExpired.accept(timer);
+      }
+    });
+  }
+
+  private boolean expires() {
+    return expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0;
+  }
+
+  private long deadline(TimerWheel.Timer<K> timer) {
+    long deadline = Long.MAX_VALUE;
+    if (expireAfterWriteNanos > 0) {
+      deadline = timer.writeTime + expireAfterWriteNanos;
+    }
+    if (expireAfterAccessNanos > 0) {
+      long idleDeadline = timer.accessTime + expireAfterAccessNanos;
+      deadline = (deadline == Long.MAX_VALUE) ? idleDeadline : Math.min(deadline, idleDeadline);
+    }
+    return deadline;
+  }
+
+  private static long toNanos(Duration duration) {
+    return (duration == null || duration.isNegative()) ? 0L : duration.toNanos();
+  }
+}
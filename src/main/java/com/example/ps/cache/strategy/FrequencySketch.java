@@ -0,0 +1,85 @@
+package com.example.ps.cache.strategy;
+
+/**
+ * Count-min sketch of 4-bit counters used to estimate how often a key has been seen. Each key
+ * maps to four counters in four different table slots and its frequency is the smallest of them,
+ * so the estimate never undercounts and saturates at 15. Once the number of increments reaches
+ * ten times the cache capacity every counter is halved, letting the sketch forget old
+ * popularity. Not thread-safe: callers guard it with their eviction lock.
+ */
+final class FrequencySketch<E> {
+
+  private static final long[] SEEDS = {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long ONE_MASK = 0x1111111111111111L;
+  private static final int MAX_FREQUENCY = 15;
+
+  private final long[] table;
+  private final int tableMask;
+  private final int sampleSize;
+  private int size;
+
+  FrequencySketch(int maximumSize) {
+    int maximum = Math.max(1, Math.min(maximumSize, 1 << 30));
+    int tableSize = Math.max(8, Integer.highestOneBit(maximum - 1) << 1);
+    table = new long[tableSize];
+    tableMask = tableSize - 1;
+    sampleSize = 10 * maximum;
+  }
+
+  int frequency(E e) {
+    int hash = spread(e.hashCode());
+    int start = (hash & 3) << 2;
+    int frequency = MAX_FREQUENCY;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(hash, i);
+      int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  void increment(E e) {
+    int hash = spread(e.hashCode());
+    int start = (hash & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), start + i);
+    }
+    if (added && ++size == sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(int index, int counter) {
+    int offset = counter << 2;
+    long mask = 0xfL << offset;
+    if ((table[index] & mask) != mask) {
+      table[index] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  private void reset() {
+    int odd = 0;
+    for (int i = 0; i < table.length; i++) {
+      odd += Long.bitCount(table[i] & ONE_MASK);
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size = (size - (odd >>> 2)) >>> 1;
+  }
+
+  private int indexOf(int hash, int row) {
+    long h = (hash + SEEDS[row]) * SEEDS[row];
+    h += h >>> 32;
+    return (int) h & tableMask;
+  }
+
+  private static int spread(int x) {
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    return (x >>> 16) ^ x;
+  }
+}
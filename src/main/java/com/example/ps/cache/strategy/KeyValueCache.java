@@ -5,21 +5,65 @@ import com.example.ps.exception.CacheException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 public class KeyValueCache<K, V> extends LinkedHashMap<K, V> implements Cache<K, V> {
 
   private static final Logger logger = LoggerFactory.getLogger(KeyValueCache.class);
   private final CacheConfig cacheConfig;
+  private final Expiration<K> expiration;
+  private final Map<K, TimerWheel.Timer<K>> timers = new HashMap<>();
+  private final CacheLoader<K, V> refresher;
+  private final Executor refreshExecutor;
+  private final StatsCounter statsCounter = new StatsCounter();
+  private final SingleFlight<K, V> inFlightLoads = new SingleFlight<>(statsCounter, this::save, this::removeEntry);
+  private final Weigher<K, V> weigher;
+  // Guards the map and everything below; a lock rather than a monitor so virtual threads that
+  // wait for it unmount instead of pinning their carrier thread
+  private final ReentrantLock lock = new ReentrantLock();
+  private long weightedSize; // guarded by lock
 
   public KeyValueCache(CacheConfig cacheConfig) {
+    this(cacheConfig, null);
+  }
+
+  public KeyValueCache(CacheConfig cacheConfig, CacheLoader<K, V> refresher) {
+    this(cacheConfig, refresher, Weigher.singleton());
+  }
+
+  public KeyValueCache(CacheConfig cacheConfig, CacheLoader<K, V> refresher, Weigher<K, V> weigher) {
+    this(cacheConfig, refresher, weigher, System::nanoTime, ForkJoinPool.commonPool());
+  }
+
+  KeyValueCache(CacheConfig cacheConfig, CacheLoader<K, V> refresher, LongSupplier ticker,
+                Executor refreshExecutor) {
+    this(cacheConfig, refresher, Weigher.singleton(), ticker, refreshExecutor);
+  }
+
+  KeyValueCache(CacheConfig cacheConfig, CacheLoader<K, V> refresher, Weigher<K, V> weigher,
+                LongSupplier ticker, Executor refreshExecutor) {
     super(cacheConfig.capacity(), 0.75f, true);
     this.cacheConfig = cacheConfig;
+    this.weigher = weigher;
+    this.expiration = new Expiration<>(cacheConfig.expiry(), ticker);
+    this.refresher = refresher;
+    this.refreshExecutor = refreshExecutor;
   }
 
   @Override
-  public synchronized void save(K k, V v) {
+  public void save(K k, V v) {
+    lock.lock();
     try {
       if (k == null) {
         throw new CacheException("Cache key cannot be null");
@@ -27,43 +71,244 @@ public class KeyValueCache<K, V> extends LinkedHashMap<K, V> implements Cache<K,
       if (v == null) {
         throw new CacheException("Cache value cannot be null");
       }
-      super.put(k, v);
+      V previous = super.put(k, v);
+      if (weighted()) {
+        weightedSize += weigher.weigh(k, v) - (previous == null ? 0 : weigher.weigh(k, previous));
+        evictOverweight();
+      }
+      if (expiration.enabled()) {
+        long now = expiration.now();
+        TimerWheel.Timer<K> timer = timers.get(k);
+        if (timer == null) {
+          timer = expiration.newTimer(k, now);
+          timers.put(k, timer);
+          expiration.schedule(timer);
+        } else {
+          expiration.onWrite(timer, now);
+        }
+        expireEntries(now);
+      }
       logger.debug("Stored value in cache for key: {}", k);
     } catch (Exception e) {
       logger.error("Failed to store value in cache for key: {}", k, e);
       throw new CacheException("Failed to store value in cache", e);
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
-  public synchronized Optional<V> fetch(K k) {
+  public Optional<V> fetch(K k) {
+    lock.lock();
     try {
       if (k == null) {
         logger.warn("Attempted to fetch with null key");
         return Optional.empty();
       }
+      long now = expiration.now();
+      if (expiration.enabled()) {
+        expireEntries(now);
+      }
       V value = super.get(k);
       if (value != null) {
+        statsCounter.recordHit();
         logger.debug("Cache hit for key: {}", k);
+        if (expiration.enabled()) {
+          TimerWheel.Timer<K> timer = timers.get(k);
+          expiration.onAccess(timer, now);
+          if (refresher != null && expiration.startRefresh(timer, now)) {
+            refreshAsync(k, timer);
+          }
+        }
       } else {
+        statsCounter.recordMiss();
         logger.debug("Cache miss for key: {}", k);
       }
       return Optional.ofNullable(value);
     } catch (Exception e) {
       logger.error("Failed to fetch value from cache for key: {}", k, e);
       return Optional.empty(); // Return empty instead of throwing to allow fallback to database
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Map<K, V> fetchAll(Collection<? extends K> keys) {
+    lock.lock();
+    try {
+      return Cache.super.fetchAll(keys);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void saveAll(Map<? extends K, ? extends V> entries) {
+    lock.lock();
+    try {
+      Cache.super.saveAll(entries);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Optional<V> fetchOrLoad(K k, Function<? super K, ? extends V> loader) {
+    Optional<V> cached = fetch(k);
+    if (cached.isPresent() || k == null) {
+      return cached;
+    }
+    return Optional.ofNullable(inFlightLoads.load(k, loader));
+  }
+
+  @Override
+  public Map<K, V> fetchAllOrLoad(Collection<? extends K> keys,
+                                  Function<? super List<K>, ? extends Map<K, V>> loader) {
+    return inFlightLoads.loadMissing(keys, fetchAll(keys), loader);
+  }
+
+  @Override
+  public void invalidate(K k) {
+    if (k == null) {
+      return;
+    }
+    inFlightLoads.discard(k);
+    removeEntry(k);
+    logger.debug("Invalidated cache entry for key: {}", k);
+  }
+
+  @Override
+  public int size() {
+    lock.lock();
+    try {
+      return super.size();
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
-  public synchronized int size() {
-    return super.size();
+  public CacheStats stats() {
+    lock.lock();
+    try {
+      return statsCounter.snapshot(super.size(), weightedSize);
+    } finally {
+      lock.unlock();
+    }
   }
 
+  /** Total weight of the cached entries; zero when the cache has no weight budget. */
+  long weightedSize() {
+    lock.lock();
+    try {
+      return weightedSize;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Called by {@code put}, so only while {@code lock} is held. */
   @Override
-  protected synchronized boolean removeEldestEntry(java.util.Map.Entry<K, V> eldest) {
+  protected boolean removeEldestEntry(java.util.Map.Entry<K, V> eldest) {
     boolean shouldEvict = size() > cacheConfig.capacity();
+    if (shouldEvict) {
+      onEvicted(eldest.getKey(), eldest.getValue());
+    }
     return shouldEvict;
   }
 
+  /** Drops an entry without counting an eviction. */
+  private void removeEntry(K k) {
+    lock.lock();
+    try {
+      V removed = super.remove(k);
+      if (removed != null) {
+        if (!timers.isEmpty()) {
+          expiration.cancel(timers.remove(k));
+        }
+        if (weighted()) {
+          weightedSize -= weigher.weigh(k, removed);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Stores a refreshed value, or removes the entry when the key no longer loads, unless the entry
+   * was replaced or removed while it was reloading.
+   */
+  private void replaceIfCurrent(K k, V v, TimerWheel.Timer<K> timer) {
+    lock.lock();
+    try {
+      if (timers.get(k) == timer) {
+        if (v != null) {
+          save(k, v);
+        } else {
+          removeEntry(k);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean weighted() {
+    return cacheConfig.maxWeightBytes() > 0;
+  }
+
+  /** Evicts least recently used entries until the weight budget is met. */
+  private void evictOverweight() {
+    while (weightedSize > cacheConfig.maxWeightBytes() && !isEmpty()) {
+      Map.Entry<K, V> eldest = entrySet().iterator().next();
+      super.remove(eldest.getKey());
+      onEvicted(eldest.getKey(), eldest.getValue());
+      logger.debug("Evicted overweight entry for key: {}", eldest.getKey());
+    }
+  }
+
+  private void onEvicted(K k, V v) {
+    statsCounter.recordEvictions(1);
+    if (!timers.isEmpty()) {
+      expiration.cancel(timers.remove(k));
+    }
+    if (weighted()) {
+      weightedSize -= weigher.weigh(k, v);
+    }
+  }
+
+  private void expireEntries(long now) {
+    expiration.expireEntries(now, timer -> {
+      timers.remove(timer.key);
+      V removed = super.remove(timer.key);
+      if (removed != null) {
+        statsCounter.recordEvictions(1);
+        if (weighted()) {
+          weightedSize -= weigher.weigh(timer.key, removed);
+        }
+      }
+      logger.debug("Expired cache entry for key: {}", timer.key);
+    });
+  }
+
+  private void refreshAsync(K k, TimerWheel.Timer<K> timer) {
+    try {
+      refreshExecutor.execute(() -> {
+        try {
+          V refreshed = statsCounter.recordLoad(() -> refresher.load(k));
+          replaceIfCurrent(k, refreshed, timer);
+        } catch (RuntimeException e) {
+          logger.warn("Failed to refresh cache entry for key: {}", k, e);
+        } finally {
+          expiration.endRefresh(timer);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      expiration.endRefresh(timer);
+      logger.warn("Refresh rejected for key: {}", k);
+    }
+  }
+
 }
@@ -0,0 +1,409 @@
+package com.example.ps.cache.strategy;
+
+import com.example.ps.config.L2Config;
+import com.example.ps.exception.CacheException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent cache tier backed by a memory-mapped file, meant to sit behind an in-memory cache
+ * (see {@link TieredCache}) so a restarted instance starts warm.
+ * <p>
+ * The file is a header followed by a ring-shaped log of records. A save appends a record and a
+ * removal appends a tombstone; when the log is full, appending reclaims the oldest records, so
+ * the tier evicts in write order. Only the ring's head and tail live in the header; the key index
+ * is kept on the heap and rebuilt by scanning the log when the file is opened. Every record
+ * carries a CRC, and the scan stops at the first record that fails it, so a write torn by a crash
+ * only loses the records after it.
+ * <p>
+ * Entries carry their wall-clock write time and expire {@code expireAfterWrite} after it, across
+ * restarts too. The file is locked while open, so two processes cannot share one path.
+ */
+public class MappedFileCache<K, V> implements Cache<K, V>, AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(MappedFileCache.class);
+
+  private static final long MAGIC = 0x5053_4C32_4341_4348L;
+  private static final int VERSION = 1;
+
+  // File header
+  private static final int MAGIC_OFFSET = 0;
+  private static final int VERSION_OFFSET = 8;
+  private static final int DATA_SIZE_OFFSET = 16;
+  private static final int HEAD_OFFSET = 24;
+  private static final int TAIL_OFFSET = 32;
+  private static final int FILE_HEADER = 64;
+
+  // Record header
+  private static final int TYPE = 0;
+  private static final int KEY_LENGTH = 4;
+  private static final int VALUE_LENGTH = 8;
+  private static final int WRITE_TIME = 12;
+  private static final int CHECKSUM = 20;
+  private static final int RECORD_HEADER = 24;
+
+  private static final int PUT = 1;
+  private static final int REMOVE = 2;
+  private static final int WRAP = 3;
+
+  private final Path path;
+  private final BinaryCodec<K> keyCodec;
+  private final BinaryCodec<V> valueCodec;
+  private final long expireAfterWriteMillis;
+  private final LongSupplier clock;
+  private final FileChannel channel;
+  private final FileLock fileLock;
+  private final StatsCounter statsCounter = new StatsCounter();
+  private final SingleFlight<K, V> inFlightLoads = new SingleFlight<>(statsCounter, this::save, this::removeEntry);
+
+  // Guarded by lock. Positions are logical: they only grow, and wrap onto the ring modulo dataSize.
+  private final ReentrantLock lock = new ReentrantLock();
+  private final MappedByteBuffer file;
+  private final ByteBuffer ring;
+  private final int dataSize;
+  private final Map<K, Long> index = new HashMap<>();
+  private long head;
+  private long tail;
+
+  public MappedFileCache(L2Config config, BinaryCodec<K> keyCodec, BinaryCodec<V> valueCodec) {
+    this(config, keyCodec, valueCodec, System::currentTimeMillis);
+  }
+
+  MappedFileCache(L2Config config, BinaryCodec<K> keyCodec, BinaryCodec<V> valueCodec, LongSupplier clock) {
+    if (config.path() == null || config.path().isBlank()) {
+      throw new CacheException("L2 cache needs a file path");
+    }
+    if (config.maxBytes() > Integer.MAX_VALUE - FILE_HEADER) {
+      throw new CacheException("L2 cache file cannot exceed " + (Integer.MAX_VALUE - FILE_HEADER) + " bytes");
+    }
+    this.path = Path.of(config.path());
+    this.keyCodec = keyCodec;
+    this.valueCodec = valueCodec;
+    this.expireAfterWriteMillis = config.expireAfterWrite().toMillis();
+    this.clock = clock;
+    this.dataSize = (int) config.maxBytes();
+    try {
+      if (path.getParent() != null) {
+        Files.createDirectories(path.getParent());
+      }
+      this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+          StandardOpenOption.WRITE);
+      FileLock acquired;
+      try {
+        acquired = channel.tryLock();
+      } catch (OverlappingFileLockException e) {
+        acquired = null;
+      }
+      this.fileLock = acquired;
+      if (fileLock == null) {
+        channel.close();
+        throw new CacheException("L2 cache file is already in use: " + path);
+      }
+      this.file = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_HEADER + (long) dataSize);
+      this.ring = file.slice(FILE_HEADER, dataSize);
+    } catch (IOException e) {
+      throw new CacheException("Could not open L2 cache file " + path, e);
+    }
+    open();
+  }
+
+  @Override
+  public void save(K k, V v) {
+    if (k == null) {
+      throw new CacheException("Cache key cannot be null");
+    }
+    if (v == null) {
+      throw new CacheException("Cache value cannot be null");
+    }
+    byte[] key = keyCodec.encode(k);
+    byte[] value = valueCodec.encode(v);
+    lock.lock();
+    try {
+      long position = append(PUT, key, value, clock.getAsLong());
+      if (position < 0) {
+        // The older value is stale now, so drop it rather than keep serving it
+        removeEntry(k);
+        logger.debug("Value too large for the L2 cache file, not cached for key: {}", k);
+        return;
+      }
+      index.put(k, position);
+    } finally {
+      lock.unlock();
+    }
+    logger.debug("Stored value in L2 cache for key: {}", k);
+  }
+
+  @Override
+  public Optional<V> fetch(K k) {
+    if (k == null) {
+      logger.warn("Attempted to fetch with null key");
+      return Optional.empty();
+    }
+    byte[] value = null;
+    lock.lock();
+    try {
+      Long position = index.get(k);
+      if (position != null) {
+        int offset = physical(position);
+        if (clock.getAsLong() - ring.getLong(offset + WRITE_TIME) >= expireAfterWriteMillis) {
+          index.remove(k);
+          statsCounter.recordEvictions(1);
+        } else {
+          value = new byte[ring.getInt(offset + VALUE_LENGTH)];
+          ring.get(offset + RECORD_HEADER + ring.getInt(offset + KEY_LENGTH), value);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (value == null) {
+      statsCounter.recordMiss();
+      logger.debug("L2 cache miss for key: {}", k);
+      return Optional.empty();
+    }
+    statsCounter.recordHit();
+    logger.debug("L2 cache hit for key: {}", k);
+    return Optional.of(valueCodec.decode(ByteBuffer.wrap(value)));
+  }
+
+  @Override
+  public Map<K, V> fetchAll(Collection<? extends K> keys) {
+    lock.lock();
+    try {
+      return Cache.super.fetchAll(keys);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void saveAll(Map<? extends K, ? extends V> entries) {
+    lock.lock();
+    try {
+      Cache.super.saveAll(entries);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Optional<V> fetchOrLoad(K k, Function<? super K, ? extends V> loader) {
+    Optional<V> cached = fetch(k);
+    if (cached.isPresent() || k == null) {
+      return cached;
+    }
+    return Optional.ofNullable(inFlightLoads.load(k, loader));
+  }
+
+  @Override
+  public Map<K, V> fetchAllOrLoad(Collection<? extends K> keys,
+                                  Function<? super List<K>, ? extends Map<K, V>> loader) {
+    return inFlightLoads.loadMissing(keys, fetchAll(keys), loader);
+  }
+
+  @Override
+  public void invalidate(K k) {
+    if (k == null) {
+      return;
+    }
+    inFlightLoads.discard(k);
+    removeEntry(k);
+    logger.debug("Invalidated L2 cache entry for key: {}", k);
+  }
+
+  @Override
+  public int size() {
+    lock.lock();
+    try {
+      return index.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public CacheStats stats() {
+    lock.lock();
+    try {
+      return statsCounter.snapshot(index.size(), head - tail);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Flushes the mapped pages to disk and releases the file. */
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      file.force();
+      fileLock.release();
+      channel.close();
+    } catch (IOException e) {
+      logger.warn("Failed to close L2 cache file {}", path, e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Appends a tombstone so the removal also holds after a restart. */
+  private void removeEntry(K k) {
+    lock.lock();
+    try {
+      if (index.remove(k) != null) {
+        append(REMOVE, keyCodec.encode(k), new byte[0], clock.getAsLong());
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Validates the header, or formats a new file, and rebuilds the index from the log. */
+  private void open() {
+    if (file.getLong(MAGIC_OFFSET) != MAGIC || file.getInt(VERSION_OFFSET) != VERSION
+        || file.getLong(DATA_SIZE_OFFSET) != dataSize) {
+      file.putLong(MAGIC_OFFSET, MAGIC);
+      file.putInt(VERSION_OFFSET, VERSION);
+      file.putLong(DATA_SIZE_OFFSET, dataSize);
+      head = 0;
+      tail = 0;
+      writePositions();
+      logger.info("Formatted L2 cache file {} with {} bytes", path, dataSize);
+      return;
+    }
+    head = file.getLong(HEAD_OFFSET);
+    tail = file.getLong(TAIL_OFFSET);
+    long position = tail;
+    while (position < head) {
+      int offset = physical(position);
+      if (dataSize - offset < RECORD_HEADER || ring.getInt(offset + TYPE) == WRAP) {
+        position += dataSize - offset;
+        continue;
+      }
+      byte[] key = readValidKey(offset);
+      if (key == null) {
+        logger.warn("L2 cache file {} has a corrupt record, dropping it and everything after it", path);
+        head = position;
+        writePositions();
+        break;
+      }
+      K k = keyCodec.decode(ByteBuffer.wrap(key));
+      if (ring.getInt(offset + TYPE) == PUT) {
+        index.put(k, position);
+      } else {
+        index.remove(k);
+      }
+      position += RECORD_HEADER + key.length + ring.getInt(offset + VALUE_LENGTH);
+    }
+    logger.info("Opened L2 cache file {} with {} entries", path, index.size());
+  }
+
+  /** Returns the key of a well-formed record whose checksum matches, or {@code null}. */
+  private byte[] readValidKey(int offset) {
+    int type = ring.getInt(offset + TYPE);
+    int keyLength = ring.getInt(offset + KEY_LENGTH);
+    int valueLength = ring.getInt(offset + VALUE_LENGTH);
+    if ((type != PUT && type != REMOVE) || keyLength < 0 || valueLength < 0
+        || (long) RECORD_HEADER + keyLength + valueLength > dataSize - offset) {
+      return null;
+    }
+    byte[] key = new byte[keyLength];
+    byte[] value = new byte[valueLength];
+    ring.get(offset + RECORD_HEADER, key);
+    ring.get(offset + RECORD_HEADER + keyLength, value);
+    if (checksum(type, key, value, ring.getLong(offset + WRITE_TIME)) != ring.getInt(offset + CHECKSUM)) {
+      return null;
+    }
+    return key;
+  }
+
+  /**
+   * Writes a record at the head and returns its position, or -1 for a record larger than half
+   * the ring, which keeps the space skipped at a wrap plus the record within one ring length.
+   */
+  private long append(int type, byte[] key, byte[] value, long writeTime) {
+    int size = RECORD_HEADER + key.length + value.length;
+    if (size > dataSize / 2) {
+      return -1;
+    }
+    int offset = physical(head);
+    if (dataSize - offset < size) {
+      // Records never straddle the end of the ring; skip the remainder and start over at zero
+      reclaim(head + (dataSize - offset) + size - dataSize);
+      if (dataSize - offset >= RECORD_HEADER) {
+        ring.putInt(offset + TYPE, WRAP);
+      }
+      head += dataSize - offset;
+      offset = 0;
+    }
+    reclaim(head + size - dataSize);
+    ring.putInt(offset + KEY_LENGTH, key.length);
+    ring.putInt(offset + VALUE_LENGTH, value.length);
+    ring.putLong(offset + WRITE_TIME, writeTime);
+    ring.putInt(offset + CHECKSUM, checksum(type, key, value, writeTime));
+    ring.put(offset + RECORD_HEADER, key);
+    ring.put(offset + RECORD_HEADER + key.length, value);
+    ring.putInt(offset + TYPE, type);
+    long position = head;
+    head += size;
+    writePositions();
+    return position;
+  }
+
+  /** Advances the tail past every record that starts before {@code minTail}. */
+  private void reclaim(long minTail) {
+    while (tail < minTail) {
+      int offset = physical(tail);
+      if (dataSize - offset < RECORD_HEADER || ring.getInt(offset + TYPE) == WRAP) {
+        tail += dataSize - offset;
+        continue;
+      }
+      int keyLength = ring.getInt(offset + KEY_LENGTH);
+      if (ring.getInt(offset + TYPE) == PUT) {
+        byte[] key = new byte[keyLength];
+        ring.get(offset + RECORD_HEADER, key);
+        if (index.remove(keyCodec.decode(ByteBuffer.wrap(key)), tail)) {
+          statsCounter.recordEvictions(1);
+        }
+      }
+      tail += RECORD_HEADER + keyLength + ring.getInt(offset + VALUE_LENGTH);
+    }
+  }
+
+  private void writePositions() {
+    file.putLong(TAIL_OFFSET, tail);
+    file.putLong(HEAD_OFFSET, head);
+  }
+
+  private int physical(long position) {
+    return (int) (position % dataSize);
+  }
+
+  private static int checksum(int type, byte[] key, byte[] value, long writeTime) {
+    CRC32 crc = new CRC32();
+    crc.update(type);
+    crc.update(key);
+    crc.update(value);
+    crc.update(ByteBuffer.allocate(Long.BYTES).putLong(writeTime).array());
+    return (int) crc.getValue();
+  }
+}
@@ -0,0 +1,677 @@
+package com.example.ps.cache.strategy;
+
+import com.example.ps.config.CacheConfig;
+import com.example.ps.config.ExpiryConfig;
+import com.example.ps.exception.CacheException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache that keeps its entries in direct memory, so a large catalog adds neither objects nor
+ * old-gen pressure to the heap. Keys and values are stored in their {@link BinaryCodec} form and
+ * decoded on every hit.
+ * <p>
+ * The cache is split into lock-striped segments. Each segment carves 64 KiB to 1 MiB direct
+ * slabs into chunks of about 40 size classes, each 1.25 times larger than the last, and keeps an
+ * LRU list per size class whose links live in the chunk headers. A full segment makes room by
+ * evicting the least recently used entry of the size class it needs; a size class with no
+ * entries to evict takes a slab back from the class holding the most slabs, evicting the entries
+ * in it, so every size stays cacheable however the others filled the budget. Lookups go through an
+ * open-addressing table of chunk addresses, a single {@code long[]} per segment.
+ * <p>
+ * {@code max-weight-bytes} sets the direct memory budget (64 MiB when unset) and {@code capacity}
+ * the number of entries; both are split evenly across segments. Expiry is checked lazily on read.
+ */
+public class OffHeapCache<K, V> implements Cache<K, V> {
+
+  private static final Logger logger = LoggerFactory.getLogger(OffHeapCache.class);
+
+  static final long DEFAULT_BUDGET_BYTES = 64L << 20;
+  private static final int MAX_SEGMENTS = 16;
+  private static final long MIN_SEGMENT_BYTES = 512L << 10;
+  private static final int MIN_SLAB_BYTES = 64 << 10;
+  private static final int MAX_SLAB_BYTES = 1 << 20;
+  private static final int MIN_CHUNK_BYTES = 64;
+
+  // Chunk header layout
+  private static final int PREV = 0;
+  private static final int NEXT = 8;
+  private static final int WRITE_TIME = 16;
+  private static final int ACCESS_TIME = 24;
+  private static final int HASH = 32;
+  private static final int KEY_LENGTH = 36;
+  private static final int VALUE_LENGTH = 40;
+  private static final int SIZE_CLASS = 44;
+  private static final int HEADER = 48;
+
+  private static final long NIL = -1L;
+
+  private final Segment[] segments;
+  private final BinaryCodec<K> keyCodec;
+  private final BinaryCodec<V> valueCodec;
+  private final long expireAfterWriteNanos;
+  private final long expireAfterAccessNanos;
+  private final long refreshAfterWriteNanos;
+  private final LongSupplier ticker;
+  private final CacheLoader<K, V> refresher;
+  private final Executor refreshExecutor;
+  private final Set<K> refreshing = ConcurrentHashMap.newKeySet();
+  private final StatsCounter statsCounter = new StatsCounter();
+  private final SingleFlight<K, V> inFlightLoads = new SingleFlight<>(statsCounter, this::save, this::removeEntry);
+
+  public OffHeapCache(CacheConfig cacheConfig, BinaryCodec<K> keyCodec, BinaryCodec<V> valueCodec) {
+    this(cacheConfig, keyCodec, valueCodec, null);
+  }
+
+  public OffHeapCache(CacheConfig cacheConfig, BinaryCodec<K> keyCodec, BinaryCodec<V> valueCodec,
+                      CacheLoader<K, V> refresher) {
+    this(cacheConfig, keyCodec, valueCodec, refresher, System::nanoTime, ForkJoinPool.commonPool());
+  }
+
+  OffHeapCache(CacheConfig cacheConfig, BinaryCodec<K> keyCodec, BinaryCodec<V> valueCodec,
+               CacheLoader<K, V> refresher, LongSupplier ticker, Executor refreshExecutor) {
+    this.keyCodec = keyCodec;
+    this.valueCodec = valueCodec;
+    this.refresher = refresher;
+    this.refreshExecutor = refreshExecutor;
+    this.ticker = ticker;
+    ExpiryConfig expiry = cacheConfig.expiry();
+    this.expireAfterWriteNanos = toNanos(expiry.expireAfterWrite());
+    this.expireAfterAccessNanos = toNanos(expiry.expireAfterAccess());
+    this.refreshAfterWriteNanos = toNanos(expiry.refreshAfterWrite());
+
+    long budget = (cacheConfig.maxWeightBytes() > 0) ? cacheConfig.maxWeightBytes() : DEFAULT_BUDGET_BYTES;
+    int capacity = Math.max(1, cacheConfig.capacity());
+    int segmentCount = (int) Math.min(MAX_SEGMENTS, Math.max(1, budget / MIN_SEGMENT_BYTES));
+    segmentCount = Integer.highestOneBit(Math.min(segmentCount, capacity));
+    long segmentBudget = budget / segmentCount;
+    long slabSize = Math.min(MAX_SLAB_BYTES, Math.max(MIN_SLAB_BYTES, Long.highestOneBit(segmentBudget / 8)));
+    slabSize = Math.min(slabSize, segmentBudget);
+    int maxSlabs = (int) Math.max(1, segmentBudget / slabSize);
+    int segmentCapacity = (capacity + segmentCount - 1) / segmentCount;
+
+    this.segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] = new Segment((int) slabSize, maxSlabs, segmentCapacity,
+          expireAfterWriteNanos, expireAfterAccessNanos, statsCounter);
+    }
+  }
+
+  @Override
+  public void save(K k, V v) {
+    if (k == null) {
+      throw new CacheException("Cache key cannot be null");
+    }
+    if (v == null) {
+      throw new CacheException("Cache value cannot be null");
+    }
+    int hash = hash(k);
+    if (segmentFor(hash).put(hash, keyCodec.encode(k), valueCodec.encode(v), now())) {
+      logger.debug("Stored value in cache for key: {}", k);
+    } else {
+      logger.debug("Value too large for an off-heap slab, not cached for key: {}", k);
+    }
+  }
+
+  @Override
+  public Optional<V> fetch(K k) {
+    if (k == null) {
+      logger.warn("Attempted to fetch with null key");
+      return Optional.empty();
+    }
+    int hash = hash(k);
+    long now = now();
+    Hit hit = segmentFor(hash).get(hash, keyCodec.encode(k), now);
+    if (hit == null) {
+      statsCounter.recordMiss();
+      logger.debug("Cache miss for key: {}", k);
+      return Optional.empty();
+    }
+    if (refresher != null && refreshAfterWriteNanos > 0 && now - hit.writeTime() >= refreshAfterWriteNanos
+        && refreshing.add(k)) {
+      refreshAsync(k, hit.writeTime());
+    }
+    statsCounter.recordHit();
+    logger.debug("Cache hit for key: {}", k);
+    return Optional.of(valueCodec.decode(ByteBuffer.wrap(hit.value())));
+  }
+
+  @Override
+  public Optional<V> fetchOrLoad(K k, Function<? super K, ? extends V> loader) {
+    Optional<V> cached = fetch(k);
+    if (cached.isPresent() || k == null) {
+      return cached;
+    }
+    return Optional.ofNullable(inFlightLoads.load(k, loader));
+  }
+
+  @Override
+  public Map<K, V> fetchAllOrLoad(Collection<? extends K> keys,
+                                  Function<? super List<K>, ? extends Map<K, V>> loader) {
+    return inFlightLoads.loadMissing(keys, fetchAll(keys), loader);
+  }
+
+  @Override
+  public void invalidate(K k) {
+    if (k == null) {
+      return;
+    }
+    inFlightLoads.discard(k);
+    removeEntry(k);
+    logger.debug("Invalidated cache entry for key: {}", k);
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      size += segment.count;
+    }
+    return size;
+  }
+
+  @Override
+  public CacheStats stats() {
+    return statsCounter.snapshot(size(), weightedSize());
+  }
+
+  /** Direct memory held by live entries, counted in whole chunks. */
+  long weightedSize() {
+    long used = 0;
+    for (Segment segment : segments) {
+      used += segment.usedBytes();
+    }
+    return used;
+  }
+
+  private void removeEntry(K k) {
+    int hash = hash(k);
+    segmentFor(hash).remove(hash, keyCodec.encode(k));
+  }
+
+  private long now() {
+    boolean timed = expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0 || refreshAfterWriteNanos > 0;
+    return timed ? ticker.getAsLong() : 0L;
+  }
+
+  private Segment segmentFor(int hash) {
+    return segments[((hash * 0x9E3779B9) >>> 16) & (segments.length - 1)];
+  }
+
+  private static int hash(Object key) {
+    int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private void refreshAsync(K k, long writeTime) {
+    try {
+      refreshExecutor.execute(() -> {
+        try {
+          V refreshed = statsCounter.recordLoad(() -> refresher.load(k));
+          int hash = hash(k);
+          // Skipped when the entry was rewritten or removed while it was reloading
+          if (refreshed == null) {
+            // The key no longer loads, so the stale value must not outlive its refresh
+            if (segmentFor(hash).remove(hash, keyCodec.encode(k), writeTime)) {
+              logger.debug("Removed cache entry for key that no longer loads: {}", k);
+            }
+          } else if (segmentFor(hash).replace(hash, keyCodec.encode(k), valueCodec.encode(refreshed), writeTime, now())) {
+            logger.debug("Refreshed cache entry for key: {}", k);
+          }
+        } catch (RuntimeException e) {
+          logger.warn("Failed to refresh cache entry for key: {}", k, e);
+        } finally {
+          refreshing.remove(k);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      refreshing.remove(k);
+      logger.warn("Refresh rejected for key: {}", k);
+    }
+  }
+
+  private static long toNanos(Duration duration) {
+    return (duration == null || duration.isNegative()) ? 0L : duration.toNanos();
+  }
+
+  /** Value bytes copied out of a slab, with the entry's write time for refresh-ahead. */
+  private record Hit(byte[] value, long writeTime) {
+  }
+
+  /**
+   * One lock stripe: its slabs, per size class LRU lists and free lists, and its hash index.
+   * Chunk addresses pack the slab number into the high and the offset into the low 32 bits.
+   */
+  private static final class Segment {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int slabSize;
+    private final ByteBuffer[] slabs;
+    private final int[] slabClasses; // size class each slab is carved into
+    private int slabCount;
+
+    private final int[] chunkSizes;
+    private final long[] lruHead;   // most recently used chunk of each size class
+    private final long[] lruTail;
+    private final long[] freeList;
+    private final int[] currentSlab;
+    private final int[] bump;
+
+    private final long[] table;
+    private final int mask;
+    private final int capacity;
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+    private final StatsCounter statsCounter;
+    private volatile int count;
+    private long usedBytes;
+
+    Segment(int slabSize, int maxSlabs, int capacity, long expireAfterWriteNanos, long expireAfterAccessNanos,
+            StatsCounter statsCounter) {
+      this.slabSize = slabSize;
+      this.statsCounter = statsCounter;
+      this.expireAfterWriteNanos = expireAfterWriteNanos;
+      this.expireAfterAccessNanos = expireAfterAccessNanos;
+      this.slabs = new ByteBuffer[maxSlabs];
+      this.slabClasses = new int[maxSlabs];
+      this.capacity = capacity;
+      this.chunkSizes = chunkSizes(slabSize);
+      int classes = chunkSizes.length;
+      this.lruHead = filled(classes);
+      this.lruTail = filled(classes);
+      this.freeList = filled(classes);
+      this.currentSlab = new int[classes];
+      Arrays.fill(currentSlab, -1);
+      this.bump = new int[classes];
+      int tableSize = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) * 2;
+      this.table = filled(tableSize);
+      this.mask = tableSize - 1;
+    }
+
+    Hit get(int hash, byte[] key, long now) {
+      lock.lock();
+      try {
+        int slot = find(hash, key);
+        if (slot < 0) {
+          return null;
+        }
+        long addr = table[slot];
+        if (hasExpired(addr, now)) {
+          removeAt(slot);
+          statsCounter.recordEvictions(1);
+          return null;
+        }
+        slab(addr).putLong(offset(addr) + ACCESS_TIME, now);
+        int sizeClass = slab(addr).getInt(offset(addr) + SIZE_CLASS);
+        unlink(sizeClass, addr);
+        linkHead(sizeClass, addr);
+        byte[] value = new byte[slab(addr).getInt(offset(addr) + VALUE_LENGTH)];
+        slab(addr).get(offset(addr) + HEADER + key.length, value);
+        return new Hit(value, slab(addr).getLong(offset(addr) + WRITE_TIME));
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    boolean put(int hash, byte[] key, byte[] value, long now) {
+      int sizeClass = sizeClass(HEADER + key.length + value.length);
+      lock.lock();
+      try {
+        int slot = find(hash, key);
+        if (slot >= 0) {
+          removeAt(slot);
+        }
+        if (sizeClass < 0) {
+          return false;
+        }
+        if (count >= capacity) {
+          evictFor(sizeClass);
+        }
+        long addr = allocate(sizeClass);
+        if (addr == NIL) {
+          return false;
+        }
+        ByteBuffer slab = slab(addr);
+        int offset = offset(addr);
+        slab.putLong(offset + WRITE_TIME, now);
+        slab.putLong(offset + ACCESS_TIME, now);
+        slab.putInt(offset + HASH, hash);
+        slab.putInt(offset + KEY_LENGTH, key.length);
+        slab.putInt(offset + VALUE_LENGTH, value.length);
+        slab.putInt(offset + SIZE_CLASS, sizeClass);
+        slab.put(offset + HEADER, key);
+        slab.put(offset + HEADER + key.length, value);
+        linkHead(sizeClass, addr);
+        insert(hash, addr);
+        count++;
+        usedBytes += chunkSizes[sizeClass];
+        return true;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void remove(int hash, byte[] key) {
+      lock.lock();
+      try {
+        int slot = find(hash, key);
+        if (slot >= 0) {
+          removeAt(slot);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /** Like {@link #remove(int, byte[])}, but only while the entry still carries the given write time. */
+    boolean remove(int hash, byte[] key, long writeTime) {
+      lock.lock();
+      try {
+        int slot = find(hash, key);
+        if (slot < 0 || slab(table[slot]).getLong(offset(table[slot]) + WRITE_TIME) != writeTime) {
+          return false;
+        }
+        removeAt(slot);
+        return true;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /** Like {@link #put}, but only while the entry still carries the given write time. */
+    boolean replace(int hash, byte[] key, byte[] value, long writeTime, long now) {
+      lock.lock();
+      try {
+        int slot = find(hash, key);
+        if (slot < 0 || slab(table[slot]).getLong(offset(table[slot]) + WRITE_TIME) != writeTime) {
+          return false;
+        }
+        return put(hash, key, value, now);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    long usedBytes() {
+      lock.lock();
+      try {
+        return usedBytes;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private boolean hasExpired(long addr, long now) {
+      ByteBuffer slab = slab(addr);
+      int offset = offset(addr);
+      return (expireAfterWriteNanos > 0 && now - slab.getLong(offset + WRITE_TIME) >= expireAfterWriteNanos)
+          || (expireAfterAccessNanos > 0 && now - slab.getLong(offset + ACCESS_TIME) >= expireAfterAccessNanos);
+    }
+
+    /**
+     * Evicts an entry to stay within {@code capacity}: of the given class, or of the largest
+     * non-empty one if that class is empty. Memory for the new chunk is found by {@link #allocate}.
+     */
+    private void evictFor(int sizeClass) {
+      if (lruTail[sizeClass] != NIL) {
+        evict(lruTail[sizeClass]);
+        return;
+      }
+      for (int c = chunkSizes.length - 1; c >= 0; c--) {
+        if (lruTail[c] != NIL) {
+          evict(lruTail[c]);
+          return;
+        }
+      }
+    }
+
+    private void evict(long addr) {
+      int length = slab(addr).getInt(offset(addr) + KEY_LENGTH);
+      byte[] key = new byte[length];
+      slab(addr).get(offset(addr) + HEADER, key);
+      removeAt(find(slab(addr).getInt(offset(addr) + HASH), key));
+      statsCounter.recordEvictions(1);
+    }
+
+    private long allocate(int sizeClass) {
+      if (freeList[sizeClass] != NIL) {
+        long addr = freeList[sizeClass];
+        freeList[sizeClass] = slab(addr).getLong(offset(addr) + NEXT);
+        return addr;
+      }
+      int chunkSize = chunkSizes[sizeClass];
+      if (currentSlab[sizeClass] >= 0 && bump[sizeClass] + chunkSize <= slabSize) {
+        long addr = address(currentSlab[sizeClass], bump[sizeClass]);
+        bump[sizeClass] += chunkSize;
+        return addr;
+      }
+      if (slabCount < slabs.length) {
+        int slab = slabCount++;
+        slabs[slab] = ByteBuffer.allocateDirect(slabSize);
+        return carve(slab, sizeClass);
+      }
+      if (lruTail[sizeClass] != NIL) {
+        evict(lruTail[sizeClass]);
+        return allocate(sizeClass);
+      }
+      int slab = reclaimSlab(sizeClass);
+      return (slab < 0) ? NIL : carve(slab, sizeClass);
+    }
+
+    private long carve(int slab, int sizeClass) {
+      slabClasses[slab] = sizeClass;
+      currentSlab[sizeClass] = slab;
+      bump[sizeClass] = chunkSizes[sizeClass];
+      return address(slab, 0);
+    }
+
+    /**
+     * Takes a slab away from the size class holding the most slabs: the slab of its least
+     * recently used entry, or any of its slabs when it has no entries. Every entry in the slab is
+     * evicted and its free chunks are dropped from the class's free list. Returns -1 when no other
+     * class holds a slab.
+     */
+    private int reclaimSlab(int sizeClass) {
+      int[] slabsPerClass = new int[chunkSizes.length];
+      for (int slab = 0; slab < slabCount; slab++) {
+        slabsPerClass[slabClasses[slab]]++;
+      }
+      int donor = -1;
+      for (int c = 0; c < chunkSizes.length; c++) {
+        if (c != sizeClass && slabsPerClass[c] > 0 && (donor < 0 || slabsPerClass[c] > slabsPerClass[donor])) {
+          donor = c;
+        }
+      }
+      if (donor < 0) {
+        return -1;
+      }
+      int victim = -1;
+      if (lruTail[donor] != NIL) {
+        victim = (int) (lruTail[donor] >>> 32);
+      } else {
+        for (int slab = 0; slab < slabCount && victim < 0; slab++) {
+          if (slabClasses[slab] == donor) {
+            victim = slab;
+          }
+        }
+      }
+
+      int chunkSize = chunkSizes[donor];
+      int end = (currentSlab[donor] == victim) ? bump[donor] : slabSize - slabSize % chunkSize;
+      for (int offset = 0; offset + chunkSize <= end; offset += chunkSize) {
+        long addr = address(victim, offset);
+        if (isLive(addr)) {
+          evict(addr);
+        }
+      }
+      dropFreeChunks(donor, victim);
+      if (currentSlab[donor] == victim) {
+        currentSlab[donor] = -1;
+      }
+      logger.debug("Moved an off-heap slab from chunk size {} to {}", chunkSize, chunkSizes[sizeClass]);
+      return victim;
+    }
+
+    /** Whether the carved chunk at {@code addr} holds an entry rather than sitting on a free list. */
+    private boolean isLive(long addr) {
+      ByteBuffer slab = slab(addr);
+      int offset = offset(addr);
+      byte[] key = new byte[slab.getInt(offset + KEY_LENGTH)];
+      slab.get(offset + HEADER, key);
+      int slot = find(slab.getInt(offset + HASH), key);
+      return slot >= 0 && table[slot] == addr;
+    }
+
+    private void dropFreeChunks(int sizeClass, int slab) {
+      long kept = NIL;
+      long addr = freeList[sizeClass];
+      while (addr != NIL) {
+        long next = slab(addr).getLong(offset(addr) + NEXT);
+        if ((int) (addr >>> 32) != slab) {
+          slab(addr).putLong(offset(addr) + NEXT, kept);
+          kept = addr;
+        }
+        addr = next;
+      }
+      freeList[sizeClass] = kept;
+    }
+
+    private void removeAt(int slot) {
+      long addr = table[slot];
+      deleteSlot(slot);
+      int sizeClass = slab(addr).getInt(offset(addr) + SIZE_CLASS);
+      unlink(sizeClass, addr);
+      slab(addr).putLong(offset(addr) + NEXT, freeList[sizeClass]);
+      freeList[sizeClass] = addr;
+      count--;
+      usedBytes -= chunkSizes[sizeClass];
+    }
+
+    private int find(int hash, byte[] key) {
+      for (int i = hash & mask; table[i] != NIL; i = (i + 1) & mask) {
+        long addr = table[i];
+        if (slab(addr).getInt(offset(addr) + HASH) == hash && keyEquals(addr, key)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private boolean keyEquals(long addr, byte[] key) {
+      ByteBuffer slab = slab(addr);
+      int offset = offset(addr);
+      if (slab.getInt(offset + KEY_LENGTH) != key.length) {
+        return false;
+      }
+      for (int i = 0; i < key.length; i++) {
+        if (slab.get(offset + HEADER + i) != key[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private void insert(int hash, long addr) {
+      int i = hash & mask;
+      while (table[i] != NIL) {
+        i = (i + 1) & mask;
+      }
+      table[i] = addr;
+    }
+
+    /** Linear-probing delete that shifts later entries back instead of leaving tombstones. */
+    private void deleteSlot(int slot) {
+      int hole = slot;
+      for (int j = (slot + 1) & mask; table[j] != NIL; j = (j + 1) & mask) {
+        int ideal = slab(table[j]).getInt(offset(table[j]) + HASH) & mask;
+        if (((j - ideal) & mask) >= ((j - hole) & mask)) {
+          table[hole] = table[j];
+          hole = j;
+        }
+      }
+      table[hole] = NIL;
+    }
+
+    private void linkHead(int sizeClass, long addr) {
+      long head = lruHead[sizeClass];
+      slab(addr).putLong(offset(addr) + PREV, NIL);
+      slab(addr).putLong(offset(addr) + NEXT, head);
+      if (head == NIL) {
+        lruTail[sizeClass] = addr;
+      } else {
+        slab(head).putLong(offset(head) + PREV, addr);
+      }
+      lruHead[sizeClass] = addr;
+    }
+
+    private void unlink(int sizeClass, long addr) {
+      long prev = slab(addr).getLong(offset(addr) + PREV);
+      long next = slab(addr).getLong(offset(addr) + NEXT);
+      if (prev == NIL) {
+        lruHead[sizeClass] = next;
+      } else {
+        slab(prev).putLong(offset(prev) + NEXT, next);
+      }
+      if (next == NIL) {
+        lruTail[sizeClass] = prev;
+      } else {
+        slab(next).putLong(offset(next) + PREV, prev);
+      }
+    }
+
+    private int sizeClass(int size) {
+      for (int i = 0; i < chunkSizes.length; i++) {
+        if (chunkSizes[i] >= size) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private ByteBuffer slab(long addr) {
+      return slabs[(int) (addr >>> 32)];
+    }
+  }
+
+  private static int offset(long addr) {
+    return (int) addr;
+  }
+
+  private static long address(int slab, int offset) {
+    return ((long) slab << 32) | offset;
+  }
+
+  private static int[] chunkSizes(int slabSize) {
+    List<Integer> sizes = new ArrayList<>();
+    int size = Math.min(MIN_CHUNK_BYTES, slabSize);
+    while (size < slabSize) {
+      sizes.add(size);
+      size = Math.max(size + 8, (size * 5 / 4 + 7) & ~7);
+    }
+    sizes.add(slabSize);
+    return sizes.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private static long[] filled(int length) {
+    long[] array = new long[length];
+    Arrays.fill(array, NIL);
+    return array;
+  }
+}
@@ -0,0 +1,128 @@
+package com.example.ps.cache.strategy;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader and stores the
+ * result, and callers that arrive while it is running wait for that result instead of loading
+ * again. Failures are handed to every waiter and nothing is stored.
+ * <p>
+ * A load that is {@linkplain #discard discarded} while running may have read data that was
+ * already stale; its result is still returned to its callers, but removed again from the cache
+ * right after it is stored, and the next caller starts a fresh load.
+ */
+final class SingleFlight<K, R> {
+
+  private final ConcurrentHashMap<K, CompletableFuture<R>> inFlight = new ConcurrentHashMap<>();
+  private final StatsCounter statsCounter;
+  private final BiConsumer<K, R> store;
+  private final Consumer<K> evict;
+
+  SingleFlight(StatsCounter statsCounter, BiConsumer<K, R> store, Consumer<K> evict) {
+    this.statsCounter = statsCounter;
+    this.store = store;
+    this.evict = evict;
+  }
+
+  R load(K key, Function<? super K, ? extends R> loader) {
+    CompletableFuture<R> load = new CompletableFuture<>();
+    CompletableFuture<R> existing = inFlight.putIfAbsent(key, load);
+    if (existing != null) {
+      return await(existing);
+    }
+    try {
+      R result = statsCounter.recordLoad(() -> loader.apply(key));
+      if (result != null) {
+        store.accept(key, result);
+        if (inFlight.get(key) != load) {
+          evict.accept(key);
+        }
+      }
+      load.complete(result);
+      return result;
+    } catch (RuntimeException e) {
+      load.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, load);
+    }
+  }
+
+  /**
+   * Like {@link #load}, for every key of {@code keys} not in {@code found}: the keys no other
+   * caller is loading are loaded with one call to {@code loader}, and the rest are awaited.
+   * Returns {@code found} together with every non-null value loaded or awaited.
+   */
+  Map<K, R> loadMissing(Collection<? extends K> keys, Map<K, R> found,
+                        Function<? super List<K>, ? extends Map<K, R>> loader) {
+    Map<K, R> result = new LinkedHashMap<>(found);
+    Map<K, CompletableFuture<R>> owned = new LinkedHashMap<>();
+    Map<K, CompletableFuture<R>> awaited = new LinkedHashMap<>();
+    for (K key : keys) {
+      if (key == null || result.containsKey(key) || owned.containsKey(key) || awaited.containsKey(key)) {
+        continue;
+      }
+      CompletableFuture<R> load = new CompletableFuture<>();
+      CompletableFuture<R> existing = inFlight.putIfAbsent(key, load);
+      if (existing == null) {
+        owned.put(key, load);
+      } else {
+        awaited.put(key, existing);
+      }
+    }
+    if (!owned.isEmpty()) {
+      try {
+        Map<K, R> loaded = statsCounter.recordLoad(() -> loader.apply(List.copyOf(owned.keySet())));
+        owned.forEach((key, load) -> {
+          R value = (loaded == null) ? null : loaded.get(key);
+          if (value != null) {
+            store.accept(key, value);
+            if (inFlight.get(key) != load) {
+              evict.accept(key);
+            }
+            result.put(key, value);
+          }
+          load.complete(value);
+        });
+      } catch (RuntimeException e) {
+        owned.values().forEach(load -> load.completeExceptionally(e));
+        throw e;
+      } finally {
+        owned.forEach(inFlight::remove);
+      }
+    }
+    // Own loads finish before any wait, so two batches waiting on each other cannot deadlock
+    awaited.forEach((key, load) -> {
+      R value = await(load);
+      if (value != null) {
+        result.put(key, value);
+      }
+    });
+    return result;
+  }
+
+  /** Detaches the running load of a key, if any, so its result does not stay cached. */
+  void discard(K key) {
+    inFlight.remove(key);
+  }
+
+  private R await(CompletableFuture<R> load) {
+    try {
+      return load.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,292 @@
+package com.example.ps.cache.strategy;
+
+import com.example.ps.config.TypeCacheConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Type-aware cache whose reads never lock. Writers update the per-type and global LRU
+ * bookkeeping (see {@link TypeRecencyIndex}) under a lock and then publish an immutable snapshot
+ * of every type they changed, or withdraw it for types they evicted. Types are evicted whole, so
+ * a published snapshot is always a complete list. A reader gets the
+ * latest published list with a single map lookup and may iterate it while other threads keep
+ * writing.
+ * <p>
+ * Reads of a type are recorded in a {@link StripedReadBuffer} and replayed into the recency
+ * order by the next writer, or by the reader that fills a buffer stripe.
+ */
+public class SnapshotTypeCache<T, K> implements TypeAwareCache<T, K> {
+
+  private static final Logger logger = LoggerFactory.getLogger(SnapshotTypeCache.class);
+
+  private final TypeCacheConfig cacheConfig;
+  private final ConcurrentHashMap<T, Snapshot<T, K>> snapshots = new ConcurrentHashMap<>();
+  private final StripedReadBuffer<T> readBuffer = new StripedReadBuffer<>();
+  private final Expiration<T> expiration;
+  private final CacheLoader<T, Iterable<K>> refresher;
+  private final Executor refreshExecutor;
+  private final StatsCounter statsCounter = new StatsCounter();
+  private final SingleFlight<T, Iterable<K>> inFlightLoads =
+      new SingleFlight<>(statsCounter, this::save, this::removeEntry);
+  private volatile int totalItems;
+
+  // Guarded by writeLock
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final TypeRecencyIndex<T, K> index;
+  private final Map<T, TimerWheel.Timer<T>> typeTimers = new HashMap<>();
+  private final Set<T> changedTypes = new HashSet<>();
+
+  public SnapshotTypeCache(TypeCacheConfig cacheConfig) {
+    this(cacheConfig, null);
+  }
+
+  public SnapshotTypeCache(TypeCacheConfig cacheConfig, CacheLoader<T, Iterable<K>> refresher) {
+    this(cacheConfig, refresher, Weigher.singleton());
+  }
+
+  public SnapshotTypeCache(TypeCacheConfig cacheConfig, CacheLoader<T, Iterable<K>> refresher,
+                           Weigher<T, K> weigher) {
+    this(cacheConfig, refresher, weigher, System::nanoTime, ForkJoinPool.commonPool());
+  }
+
+  SnapshotTypeCache(TypeCacheConfig cacheConfig, CacheLoader<T, Iterable<K>> refresher, LongSupplier ticker,
+                    Executor refreshExecutor) {
+    this(cacheConfig, refresher, Weigher.singleton(), ticker, refreshExecutor);
+  }
+
+  SnapshotTypeCache(TypeCacheConfig cacheConfig, CacheLoader<T, Iterable<K>> refresher, Weigher<T, K> weigher,
+                    LongSupplier ticker, Executor refreshExecutor) {
+    this.cacheConfig = cacheConfig;
+    this.index = new TypeRecencyIndex<>(cacheConfig.capacity(), cacheConfig.count(), weigher,
+        cacheConfig.maxWeightBytes(), this::onTypeEvicted);
+    this.expiration = new Expiration<>(cacheConfig.expiry(), ticker);
+    this.refresher = refresher;
+    this.refreshExecutor = refreshExecutor;
+  }
+
+  @Override
+  public void save(T type, Iterable<K> items) {
+    writeLock.lock();
+    try {
+      drainReads();
+      index.addAll(type, items);
+      changedTypes.add(type);
+      onWrite(type);
+      publish();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the latest published items of a type, or {@code null} when the type is not cached
+   * (or has expired) so callers know to load it. The returned list is immutable.
+   */
+  @Override
+  public Iterable<K> fetch(T type) {
+    Snapshot<T, K> snapshot = snapshots.get(type);
+    if (snapshot == null) {
+      statsCounter.recordMiss();
+      return null;
+    }
+    if (expiration.enabled()) {
+      long now = expiration.now();
+      if (expiration.hasExpired(snapshot.timer(), now)) {
+        statsCounter.recordMiss();
+        logger.debug("Cached items expired for type: {}", type);
+        return null;
+      }
+      expiration.onAccess(snapshot.timer(), now);
+      if (refresher != null && expiration.startRefresh(snapshot.timer(), now)) {
+        refreshAsync(type, snapshot.timer());
+      }
+    }
+    statsCounter.recordHit();
+    if (readBuffer.offer(type)) {
+      tryDrainReads();
+    }
+    return snapshot.items();
+  }
+
+  @Override
+  public Iterable<K> fetchOrLoad(T type, Function<? super T, ? extends Iterable<K>> loader) {
+    Iterable<K> cached = fetch(type);
+    if (cached != null || type == null) {
+      return cached;
+    }
+    return inFlightLoads.load(type, loader);
+  }
+
+  @Override
+  public void invalidate(T type) {
+    if (type == null) {
+      return;
+    }
+    inFlightLoads.discard(type);
+    removeEntry(type);
+    logger.debug("Invalidated cached items for type: {}", type);
+  }
+
+  @Override
+  public int totalSize() {
+    return totalItems;
+  }
+
+  @Override
+  public int typeSize(T type) {
+    Snapshot<T, K> snapshot = snapshots.get(type);
+    return (snapshot == null) ? 0 : snapshot.items().size();
+  }
+
+  @Override
+  public CacheStats stats() {
+    return statsCounter.snapshot(totalItems, weightedSize());
+  }
+
+  /** Total weight of the cached items; zero when the cache has no weight budget. */
+  long weightedSize() {
+    writeLock.lock();
+    try {
+      return index.totalWeight();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private void onWrite(T type) {
+    if (!expiration.enabled() || !index.contains(type)) {
+      return;
+    }
+    long now = expiration.now();
+    TimerWheel.Timer<T> timer = typeTimers.get(type);
+    if (timer == null) {
+      timer = expiration.newTimer(type, now);
+      typeTimers.put(type, timer);
+      expiration.schedule(timer);
+    } else {
+      expiration.onWrite(timer, now);
+    }
+  }
+
+  private void onTypeEvicted(T type, int items) {
+    statsCounter.recordEvictions(items);
+    changedTypes.add(type);
+  }
+
+  private void tryDrainReads() {
+    if (writeLock.tryLock()) {
+      try {
+        drainReads();
+        publish();
+      } finally {
+        writeLock.unlock();
+      }
+    }
+  }
+
+  private void drainReads() {
+    readBuffer.drainTo(index::touch);
+    expiration.expireEntries(expiration.now(), timer -> {
+      typeTimers.remove(timer.key);
+      statsCounter.recordEvictions(index.typeSize(timer.key));
+      index.removeType(timer.key);
+      changedTypes.add(timer.key);
+      logger.debug("Expired cached items for type: {}", timer.key);
+    });
+  }
+
+  /** Replaces the snapshot of every changed type, or withdraws it when the type is gone. */
+  private void publish() {
+    for (T type : changedTypes) {
+      Set<K> items = index.items(type);
+      if (items == null) {
+        snapshots.remove(type);
+        expiration.cancel(typeTimers.remove(type));
+      } else {
+        snapshots.put(type, new Snapshot<>(List.copyOf(items), typeTimers.get(type)));
+      }
+    }
+    changedTypes.clear();
+    totalItems = index.totalSize();
+  }
+
+  /** Drops a type's items without counting evictions. */
+  private void removeEntry(T type) {
+    writeLock.lock();
+    try {
+      drainReads();
+      index.removeType(type);
+      changedTypes.add(type);
+      publish();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Swaps in refreshed items, or drops the type when it no longer loads, unless the type was
+   * replaced or removed while it was reloading.
+   */
+  private void replaceIfCurrent(T type, Iterable<K> items, TimerWheel.Timer<T> timer) {
+    writeLock.lock();
+    try {
+      drainReads();
+      if (typeTimers.get(type) == timer) {
+        index.removeType(type);
+        if (items != null) {
+          index.addAll(type, items);
+        }
+        changedTypes.add(type);
+        onWrite(type);
+      }
+      publish();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private void refreshAsync(T type, TimerWheel.Timer<T> timer) {
+    try {
+      refreshExecutor.execute(() -> {
+        try {
+          Iterable<K> items = statsCounter.recordLoad(() -> refresher.load(type));
+          replaceIfCurrent(type, items, timer);
+          logger.debug("Refreshed cached items for type: {}", type);
+        } catch (RuntimeException e) {
+          logger.warn("Failed to refresh cached items for type: {}", type, e);
+        } finally {
+          expiration.endRefresh(timer);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      expiration.endRefresh(timer);
+      logger.warn("Refresh rejected for type: {}", type);
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("SnapshotTypeCache:\n");
+    snapshots.forEach((type, snapshot) ->
+        sb.append("  ").append(type).append(" -> ").append(snapshot.items()).append("\n"));
+    sb.append("Total: ").append(totalItems).append("/").append(cacheConfig.count());
+    return sb.toString();
+  }
+
+  /** Published state of one type: its items, in the order they were saved, and its expiry timer. */
+  private record Snapshot<T, K>(List<K> items, TimerWheel.Timer<T> timer) {
+  }
+}
@@ -0,0 +1,53 @@
+package com.example.ps.cache.strategy;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Counters behind {@link CacheStats}. Each one is a {@link LongAdder}, whose cells are striped
+ * across threads, so recording a hit on the read path does not contend on a shared cache line.
+ */
+final class StatsCounter {
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder loadSuccesses = new LongAdder();
+  private final LongAdder loadFailures = new LongAdder();
+  private final LongAdder totalLoadTime = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  void recordHit() {
+    hits.increment();
+  }
+
+  void recordMiss() {
+    misses.increment();
+  }
+
+  void recordEvictions(long count) {
+    evictions.add(count);
+  }
+
+  /** Runs a load, counting it as a success or (when it throws) a failure along with its duration. */
+  <R> R recordLoad(Supplier<R> loader) {
+    long start = System.nanoTime();
+    try {
+      R result = loader.get();
+      loadSuccesses.increment();
+      return result;
+    } catch (RuntimeException e) {
+      loadFailures.increment();
+      throw e;
+    } finally {
+      totalLoadTime.add(System.nanoTime() - start);
+    }
+  }
+
+  CacheStats snapshot(long size, long weightedSize) {
+    long hitCount = hits.sum();
+    long missCount = misses.sum();
+    long requests = hitCount + missCount;
+    return new CacheStats(hitCount, missCount, (requests == 0) ? 1.0 : (double) hitCount / requests,
+        loadSuccesses.sum(), loadFailures.sum(), totalLoadTime.sum(), evictions.sum(), size, weightedSize);
+  }
+}
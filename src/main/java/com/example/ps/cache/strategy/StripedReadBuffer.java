@@ -0,0 +1,76 @@
+package com.example.ps.cache.strategy;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Lossy, striped ring buffers that record cache reads so the recency order can be replayed in
+ * batches instead of being rewritten on every hit. Threads are spread over stripes by id, so
+ * readers rarely contend on the same counter. When a stripe is full the oldest unread slots are
+ * overwritten: a dropped access only makes the LRU order slightly less precise.
+ */
+final class StripedReadBuffer<E> {
+
+  private static final int STRIPE_CAPACITY = 64;
+  private static final int STRIPE_MASK = STRIPE_CAPACITY - 1;
+  private static final int DRAIN_THRESHOLD = STRIPE_CAPACITY / 2;
+  private static final int MAX_STRIPES = 64;
+
+  private final Stripe<E>[] stripes;
+  private final int stripeMask;
+
+  @SuppressWarnings("unchecked")
+  StripedReadBuffer() {
+    int count = Integer.highestOneBit(Math.min(MAX_STRIPES, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+    stripes = new Stripe[count];
+    for (int i = 0; i < count; i++) {
+      stripes[i] = new Stripe<>();
+    }
+    stripeMask = count - 1;
+  }
+
+  /**
+   * Records an element. Returns {@code true} when the caller's stripe has enough pending
+   * elements that the owner should try to drain.
+   */
+  boolean offer(E e) {
+    Stripe<E> stripe = stripes[stripeIndex()];
+    long tail = stripe.writeCounter.getAndIncrement();
+    stripe.slots.lazySet((int) (tail & STRIPE_MASK), e);
+    return tail + 1 - stripe.readCounter >= DRAIN_THRESHOLD;
+  }
+
+  /**
+   * Hands every pending element to the consumer. Must be called by one thread at a time,
+   * normally while holding the owning cache's eviction lock.
+   */
+  void drainTo(Consumer<E> consumer) {
+    for (Stripe<E> stripe : stripes) {
+      long head = stripe.readCounter;
+      long tail = stripe.writeCounter.get();
+      if (tail - head > STRIPE_CAPACITY) {
+        head = tail - STRIPE_CAPACITY;
+      }
+      for (; head < tail; head++) {
+        E e = stripe.slots.getAndSet((int) (head & STRIPE_MASK), null);
+        if (e != null) {
+          consumer.accept(e);
+        }
+      }
+      stripe.readCounter = tail;
+    }
+  }
+
+  private int stripeIndex() {
+    long id = Thread.currentThread().getId();
+    int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & stripeMask;
+  }
+
+  private static final class Stripe<E> {
+    final AtomicLong writeCounter = new AtomicLong();
+    final AtomicReferenceArray<E> slots = new AtomicReferenceArray<>(STRIPE_CAPACITY);
+    volatile long readCounter;
+  }
+}
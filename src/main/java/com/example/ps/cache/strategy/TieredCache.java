@@ -0,0 +1,121 @@
+package com.example.ps.cache.strategy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * An in-memory cache in front of a persistent {@link MappedFileCache}. Writes go to both tiers;
+ * a miss in the first tier is served from the second and promoted, and only a miss in both runs
+ * the loader.
+ * <p>
+ * {@link #stats()} reports the first tier, where second-tier hits count as loads; the second
+ * tier's own statistics are available through {@link #secondTier()}.
+ */
+public class TieredCache<K, V> implements Cache<K, V>, AutoCloseable {
+
+  private final Cache<K, V> firstTier;
+  private final MappedFileCache<K, V> secondTier;
+
+  public TieredCache(Cache<K, V> firstTier, MappedFileCache<K, V> secondTier) {
+    this.firstTier = firstTier;
+    this.secondTier = secondTier;
+  }
+
+  @Override
+  public void save(K k, V v) {
+    firstTier.save(k, v);
+    secondTier.save(k, v);
+  }
+
+  @Override
+  public Optional<V> fetch(K k) {
+    Optional<V> cached = firstTier.fetch(k);
+    if (cached.isPresent() || k == null) {
+      return cached;
+    }
+    Optional<V> persisted = secondTier.fetch(k);
+    persisted.ifPresent(v -> firstTier.save(k, v));
+    return persisted;
+  }
+
+  @Override
+  public Map<K, V> fetchAll(Collection<? extends K> keys) {
+    Map<K, V> found = firstTier.fetchAll(keys);
+    if (found.size() == keys.size()) {
+      return found;
+    }
+    List<K> misses = new ArrayList<>();
+    for (K k : keys) {
+      if (!found.containsKey(k)) {
+        misses.add(k);
+      }
+    }
+    Map<K, V> persisted = secondTier.fetchAll(misses);
+    firstTier.saveAll(persisted);
+    if (persisted.isEmpty()) {
+      return found;
+    }
+    // Rebuild in the keys' order
+    Map<K, V> merged = new LinkedHashMap<>();
+    for (K k : keys) {
+      V v = found.containsKey(k) ? found.get(k) : persisted.get(k);
+      if (v != null) {
+        merged.put(k, v);
+      }
+    }
+    return merged;
+  }
+
+  @Override
+  public void saveAll(Map<? extends K, ? extends V> entries) {
+    firstTier.saveAll(entries);
+    secondTier.saveAll(entries);
+  }
+
+  /**
+   * Each tier coalesces its own misses, and an invalidation that lands mid-load keeps the loaded
+   * value out of both.
+   */
+  @Override
+  public Optional<V> fetchOrLoad(K k, Function<? super K, ? extends V> loader) {
+    return firstTier.fetchOrLoad(k, key -> secondTier.fetchOrLoad(key, loader).orElse(null));
+  }
+
+  /** Batch form of {@link #fetchOrLoad}: first-tier misses are looked up, and loaded, in the second tier. */
+  @Override
+  public Map<K, V> fetchAllOrLoad(Collection<? extends K> keys,
+                                  Function<? super List<K>, ? extends Map<K, V>> loader) {
+    return firstTier.fetchAllOrLoad(keys, misses -> secondTier.fetchAllOrLoad(misses, loader));
+  }
+
+  /** Invalidates the second tier first so a concurrent first-tier miss cannot promote the old value. */
+  @Override
+  public void invalidate(K k) {
+    secondTier.invalidate(k);
+    firstTier.invalidate(k);
+  }
+
+  @Override
+  public int size() {
+    return firstTier.size();
+  }
+
+  @Override
+  public CacheStats stats() {
+    return firstTier.stats();
+  }
+
+  public MappedFileCache<K, V> secondTier() {
+    return secondTier;
+  }
+
+  @Override
+  public void close() {
+    secondTier.close();
+  }
+}
@@ -0,0 +1,136 @@
+package com.example.ps.cache.strategy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timer wheel. Timers are hashed into buckets of roughly one second, one minute,
+ * one hour and one day resolution (plus an overflow bucket), so scheduling and cancelling are
+ * O(1). Advancing the clock only visits the buckets whose time span has passed; timers found in
+ * a coarse bucket that are not yet due cascade down into a finer wheel. Not thread-safe: callers
+ * guard it with their own lock.
+ */
+final class TimerWheel<K> {
+
+  private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+  private static final long[] SPANS = {
+      Long.highestOneBit(TimeUnit.SECONDS.toNanos(1)) << 1,
+      Long.highestOneBit(TimeUnit.MINUTES.toNanos(1)) << 1,
+      Long.highestOneBit(TimeUnit.HOURS.toNanos(1)) << 1,
+      Long.highestOneBit(TimeUnit.DAYS.toNanos(1)) << 1,
+      BUCKETS[3] * (Long.highestOneBit(TimeUnit.DAYS.toNanos(1)) << 1),
+      BUCKETS[3] * (Long.highestOneBit(TimeUnit.DAYS.toNanos(1)) << 1),
+  };
+  private static final long[] SHIFT = {
+      Long.numberOfTrailingZeros(SPANS[0]),
+      Long.numberOfTrailingZeros(SPANS[1]),
+      Long.numberOfTrailingZeros(SPANS[2]),
+      Long.numberOfTrailingZeros(SPANS[3]),
+      Long.numberOfTrailingZeros(SPANS[4]),
+  };
+
+  private final Timer<K>[][] wheel;
+  private long nanos;
+
+  @SuppressWarnings("unchecked")
+  TimerWheel(long now) {
+    nanos = now;
+    wheel = new Timer[BUCKETS.length][];
+    for (int i = 0; i < BUCKETS.length; i++) {
+      wheel[i] = new Timer[BUCKETS[i]];
+      for (int j = 0; j < BUCKETS[i]; j++) {
+        Timer<K> sentinel = new Timer<>(null);
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        wheel[i][j] = sentinel;
+      }
+    }
+  }
+
+  void schedule(Timer<K> timer) {
+    Timer<K> sentinel = findBucket(timer.deadline);
+    timer.prev = sentinel.prev;
+    timer.next = sentinel;
+    sentinel.prev.next = timer;
+    sentinel.prev = timer;
+  }
+
+  void deschedule(Timer<K> timer) {
+    if (timer.next != null) {
+      timer.next.prev = timer.prev;
+      timer.prev.next = timer.next;
+      timer.next = null;
+      timer.prev = null;
+    }
+  }
+
+  /**
+   * Moves the clock to {@code currentTime} and hands every timer whose bucket has passed to the
+   * consumer. The consumer either drops the timer or schedules it again.
+   */
+  void advance(long currentTime, Consumer<Timer<K>> onDue) {
+    long previousTime = nanos;
+    nanos = currentTime;
+    for (int i = 0; i < SHIFT.length; i++) {
+      long previousTicks = previousTime >>> SHIFT[i];
+      long currentTicks = currentTime >>> SHIFT[i];
+      long delta = currentTicks - previousTicks;
+      if (delta <= 0L) {
+        break;
+      }
+      expire(i, previousTicks, delta, onDue);
+    }
+  }
+
+  private void expire(int index, long previousTicks, long delta, Consumer<Timer<K>> onDue) {
+    Timer<K>[] timerWheel = wheel[index];
+    int mask = timerWheel.length - 1;
+    int steps = (int) Math.min(1 + delta, timerWheel.length);
+    int start = (int) (previousTicks & mask);
+    int end = start + steps;
+    for (int i = start; i < end; i++) {
+      Timer<K> sentinel = timerWheel[i & mask];
+      Timer<K> timer = sentinel.next;
+      sentinel.prev = sentinel;
+      sentinel.next = sentinel;
+      while (timer != sentinel) {
+        Timer<K> next = timer.next;
+        timer.prev = null;
+        timer.next = null;
+        if (timer.deadline - nanos > 0) {
+          schedule(timer);
+        } else {
+          onDue.accept(timer);
+        }
+        timer = next;
+      }
+    }
+  }
+
+  private Timer<K> findBucket(long time) {
+    long duration = time - nanos;
+    int length = wheel.length - 1;
+    for (int i = 0; i < length; i++) {
+      if (duration < SPANS[i + 1]) {
+        long ticks = time >>> SHIFT[i];
+        return wheel[i][(int) (ticks & (wheel[i].length - 1))];
+      }
+    }
+    return wheel[length][0];
+  }
+
+  /** Per-entry timestamps plus the links that place the entry in a wheel bucket. */
+  static final class Timer<K> {
+    final K key;
+    volatile long writeTime;
+    volatile long accessTime;
+    volatile boolean refreshing;
+    long deadline;
+    Timer<K> prev;
+    Timer<K> next;
+
+    Timer(K key) {
+      this.key = key;
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package com.example.ps.cache.strategy;
+
+import com.example.ps.config.CacheConfig;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongSupplier;
+
+/**
+ * W-TinyLFU cache. New entries land in a small LRU admission window (1% of capacity); when they
+ * age out of it they compete with the main region's LRU victim, and only the one the
+ * {@link FrequencySketch} estimates as more popular is kept. The main region is a segmented LRU:
+ * entries start in probation and move to the protected segment (80% of the main region) when
+ * they are read again. One-off keys therefore cannot flush out frequently requested ones.
+ * <p>
+ * Reads are lock-free and buffered (see {@link BufferedCache}); misses are buffered too so a key
+ * requested again and again wins admission once it is loaded.
+ * <p>
+ * Admission is decided per entry. A weight budget, when configured, is enforced afterwards by
+ * evicting from the head of probation, then protected, then the window.
+ */
+public class TinyLfuCache<K, V> extends BufferedCache<K, V> {
+
+  private static final int WINDOW = 0;
+  private static final int PROBATION = 1;
+  private static final int PROTECTED = 2;
+
+  private final int windowMax;
+  private final int mainMax;
+  private final int protectedMax;
+
+  private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+  private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+  private final AccessOrderDeque<K, V> protectedSegment = new AccessOrderDeque<>();
+  private final FrequencySketch<K> sketch;
+
+  public TinyLfuCache(CacheConfig cacheConfig) {
+    this(cacheConfig, null);
+  }
+
+  public TinyLfuCache(CacheConfig cacheConfig, CacheLoader<K, V> refresher) {
+    this(cacheConfig, refresher, Weigher.singleton());
+  }
+
+  public TinyLfuCache(CacheConfig cacheConfig, CacheLoader<K, V> refresher, Weigher<K, V> weigher) {
+    this(cacheConfig, refresher, weigher, System::nanoTime, ForkJoinPool.commonPool());
+  }
+
+  TinyLfuCache(CacheConfig cacheConfig, CacheLoader<K, V> refresher, LongSupplier ticker,
+               Executor refreshExecutor) {
+    this(cacheConfig, refresher, Weigher.singleton(), ticker, refreshExecutor);
+  }
+
+  TinyLfuCache(CacheConfig cacheConfig, CacheLoader<K, V> refresher, Weigher<K, V> weigher,
+               LongSupplier ticker, Executor refreshExecutor) {
+    super(cacheConfig, refresher, weigher, ticker, refreshExecutor, true);
+    this.windowMax = Math.max(1, cacheConfig.capacity() / 100);
+    this.mainMax = Math.max(0, cacheConfig.capacity() - windowMax);
+    this.protectedMax = mainMax * 80 / 100;
+    this.sketch = new FrequencySketch<>(cacheConfig.capacity());
+  }
+
+  @Override
+  void onAdd(CacheNode<K, V> node) {
+    sketch.increment(node.key);
+    node.region = WINDOW;
+    window.addLast(node);
+  }
+
+  @Override
+  void onMiss(K key) {
+    sketch.increment(key);
+  }
+
+  @Override
+  void onAccess(CacheNode<K, V> node) {
+    if (!queueOf(node).contains(node)) {
+      return;
+    }
+    sketch.increment(node.key);
+    switch (node.region) {
+      case WINDOW -> window.moveToLast(node);
+      case PROBATION -> {
+        probation.remove(node);
+        node.region = PROTECTED;
+        protectedSegment.addLast(node);
+        if (protectedSegment.size() > protectedMax) {
+          CacheNode<K, V> demoted = protectedSegment.pollFirst();
+          demoted.region = PROBATION;
+          probation.addLast(demoted);
+        }
+      }
+      default -> protectedSegment.moveToLast(node);
+    }
+  }
+
+  @Override
+  void onRemove(CacheNode<K, V> node) {
+    AccessOrderDeque<K, V> queue = queueOf(node);
+    if (queue.contains(node)) {
+      queue.remove(node);
+    }
+  }
+
+  @Override
+  void evictIfNeeded() {
+    while (window.size() > windowMax) {
+      CacheNode<K, V> candidate = window.pollFirst();
+      if (probation.size() + protectedSegment.size() < mainMax) {
+        candidate.region = PROBATION;
+        probation.addLast(candidate);
+        continue;
+      }
+      CacheNode<K, V> victim = probation.isEmpty() ? protectedSegment.peekFirst() : probation.peekFirst();
+      if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+        queueOf(victim).remove(victim);
+        retire(victim);
+        candidate.region = PROBATION;
+        probation.addLast(candidate);
+      } else {
+        retire(candidate);
+      }
+    }
+    // Over the weight budget: shed main-region victims first, the window last
+    while (exceedsMaxWeight()) {
+      CacheNode<K, V> victim = !probation.isEmpty() ? probation.peekFirst()
+          : !protectedSegment.isEmpty() ? protectedSegment.peekFirst() : window.peekFirst();
+      if (victim == null) {
+        break;
+      }
+      queueOf(victim).remove(victim);
+      retire(victim);
+    }
+  }
+
+  private AccessOrderDeque<K, V> queueOf(CacheNode<K, V> node) {
+    return switch (node.region) {
+      case WINDOW -> window;
+      case PROBATION -> probation;
+      default -> protectedSegment;
+    };
+  }
+}
@@ -1,11 +1,34 @@
 package com.example.ps.cache.strategy;
 
-import java.util.Optional;
-import java.util.Set;
+import java.util.function.Function;
 
 public interface TypeAwareCache<T, K> {
     void save(T type, Iterable<K> items);
     Iterable<K> fetch(T type);
     int totalSize();
     int typeSize(T type);
+    CacheStats stats();
+
+    /**
+     * Removes every cached item of a type, if present, and keeps a load of it that is already
+     * running from caching its result.
+     */
+    void invalidate(T type);
+
+    /**
+     * Returns the cached items of a type, or on a miss calls {@code loader}, caches a non-null
+     * result and returns it. The cache strategies coalesce concurrent misses for one type into a
+     * single call to {@code loader}; this default does not.
+     */
+    default Iterable<K> fetchOrLoad(T type, Function<? super T, ? extends Iterable<K>> loader) {
+        Iterable<K> cached = fetch(type);
+        if (cached != null || type == null) {
+            return cached;
+        }
+        Iterable<K> loaded = loader.apply(type);
+        if (loaded != null) {
+            save(type, loaded);
+        }
+        return loaded;
+    }
 }
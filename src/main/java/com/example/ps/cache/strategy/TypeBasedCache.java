@@ -1,87 +1,261 @@
 package com.example.ps.cache.strategy;
 
-import com.example.ps.config.CacheConfig;
 import com.example.ps.config.TypeCacheConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
+/**
+ * Lock-guarded type-aware LRU cache. Items are bounded per type by {@code capacity} and globally
+ * by {@code count}; eviction removes the least recently used type, with all its items, in O(1)
+ * (see {@link TypeRecencyIndex}), so a hit always returns a type's complete list. Saving items
+ * of a type or fetching it marks it as recently used.
+ */
 public class TypeBasedCache<T, K> implements TypeAwareCache<T, K> {
 
   private static final Logger logger = LoggerFactory.getLogger(TypeBasedCache.class);
 
   private TypeCacheConfig cacheConfig;
-  private final Map<T, KeyValueCache<K, Long>> typeCaches = new HashMap<>();
-  private int totalItems = 0;
+  private final TypeRecencyIndex<T, K> index;
+  private final Expiration<T> expiration;
+  private final Map<T, TimerWheel.Timer<T>> typeTimers = new HashMap<>();
+  private final CacheLoader<T, Iterable<K>> refresher;
+  private final Executor refreshExecutor;
+  private final StatsCounter statsCounter = new StatsCounter();
+  // Guards the index and timers; a lock rather than a monitor so virtual threads that wait for
+  // it unmount instead of pinning their carrier thread
+  private final ReentrantLock lock = new ReentrantLock();
+  private final SingleFlight<T, Iterable<K>> inFlightLoads =
+      new SingleFlight<>(statsCounter, this::save, this::removeEntry);
 
   public TypeBasedCache(TypeCacheConfig cacheConfig) {
-    this.cacheConfig = cacheConfig;
+    this(cacheConfig, null);
   }
 
-  @Override
-  public synchronized void save(T type, Iterable<K> items) {
-    items.forEach(item -> {
-      save(type, item, System.currentTimeMillis());
-    });
+  public TypeBasedCache(TypeCacheConfig cacheConfig, CacheLoader<T, Iterable<K>> refresher) {
+    this(cacheConfig, refresher, Weigher.singleton());
   }
 
-  private synchronized void save(T type, K key, Long value) {
-    KeyValueCache<K, Long> cache = typeCaches.computeIfAbsent(
-        type, t -> new KeyValueCache<>(new CacheConfig(this.cacheConfig.name(), this.cacheConfig.capacity(), this.cacheConfig.enabled()))
-    );
+  public TypeBasedCache(TypeCacheConfig cacheConfig, CacheLoader<T, Iterable<K>> refresher,
+                        Weigher<T, K> weigher) {
+    this(cacheConfig, refresher, weigher, System::nanoTime, ForkJoinPool.commonPool());
+  }
 
-    int before = cache.size();
-    cache.save(key, value);
-    int after = cache.size();
+  TypeBasedCache(TypeCacheConfig cacheConfig, CacheLoader<T, Iterable<K>> refresher, LongSupplier ticker,
+                 Executor refreshExecutor) {
+    this(cacheConfig, refresher, Weigher.singleton(), ticker, refreshExecutor);
+  }
 
-    // Only count if new item added
-    if (after > before) totalItems++;
+  TypeBasedCache(TypeCacheConfig cacheConfig, CacheLoader<T, Iterable<K>> refresher, Weigher<T, K> weigher,
+                 LongSupplier ticker, Executor refreshExecutor) {
+    this.cacheConfig = cacheConfig;
+    this.index = new TypeRecencyIndex<>(cacheConfig.capacity(), cacheConfig.count(), weigher,
+        cacheConfig.maxWeightBytes(), this::onTypeEvicted);
+    this.expiration = new Expiration<>(cacheConfig.expiry(), ticker);
+    this.refresher = refresher;
+    this.refreshExecutor = refreshExecutor;
+  }
 
-    evictGloballyIfNeeded();
+  @Override
+  public void save(T type, Iterable<K> items) {
+    lock.lock();
+    try {
+      index.addAll(type, items);
+      if (expiration.enabled() && index.contains(type)) {
+        long now = expiration.now();
+        TimerWheel.Timer<T> timer = typeTimers.get(type);
+        if (timer == null) {
+          timer = expiration.newTimer(type, now);
+          typeTimers.put(type, timer);
+          expiration.schedule(timer);
+        } else {
+          expiration.onWrite(timer, now);
+        }
+        expireTypes(now);
+      }
+    } finally {
+      lock.unlock();
+    }
   }
 
+  /**
+   * Returns the cached items of a type, or {@code null} when the type is not cached (or has
+   * expired) so callers know to load it.
+   */
   @Override
   public Iterable<K> fetch(T type) {
-    KeyValueCache<K, Long> cache = typeCaches.get(type);
-    if (cache == null) return Collections.emptySet();
-    return cache.keySet();
+    lock.lock();
+    try {
+      if (expiration.enabled()) {
+        long now = expiration.now();
+        expireTypes(now);
+        TimerWheel.Timer<T> timer = typeTimers.get(type);
+        expiration.onAccess(timer, now);
+        if (refresher != null && expiration.startRefresh(timer, now)) {
+          refreshAsync(type, timer);
+        }
+      }
+      index.touch(type);
+      Set<K> items = index.items(type);
+      if (items == null) {
+        statsCounter.recordMiss();
+        return null;
+      }
+      statsCounter.recordHit();
+      // Copied while locked: callers iterate after unlocking, while writes reorder the live set
+      return List.copyOf(items);
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
-  public synchronized int totalSize() {
-    return totalItems;
+  public Iterable<K> fetchOrLoad(T type, Function<? super T, ? extends Iterable<K>> loader) {
+    Iterable<K> cached = fetch(type);
+    if (cached != null || type == null) {
+      return cached;
+    }
+    return inFlightLoads.load(type, loader);
   }
 
   @Override
-  public synchronized int typeSize(T type) {
-    KeyValueCache<K, Long> cache = typeCaches.get(type);
-    return (cache == null) ? 0 : cache.size();
-  }
-
-  private void evictGloballyIfNeeded() {
-    while (totalItems > this.cacheConfig.count()) {
-      // Remove oldest across all caches
-      for (Iterator<Map.Entry<T, KeyValueCache<K, Long>>> it = typeCaches.entrySet().iterator(); it.hasNext(); ) {
-        Map.Entry<T, KeyValueCache<K, Long>> entry = it.next();
-        KeyValueCache<K, Long> cache = entry.getValue();
-        if (!cache.isEmpty()) {
-          K oldestKey = cache.keySet().iterator().next();
-          cache.remove(oldestKey);
-          totalItems--;
-          if (cache.isEmpty()) it.remove();
-          break;
-        }
+  public void invalidate(T type) {
+    if (type == null) {
+      return;
+    }
+    inFlightLoads.discard(type);
+    removeEntry(type);
+    logger.debug("Invalidated cached items for type: {}", type);
+  }
+
+  @Override
+  public int totalSize() {
+    lock.lock();
+    try {
+      return index.totalSize();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int typeSize(T type) {
+    lock.lock();
+    try {
+      return index.typeSize(type);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public CacheStats stats() {
+    lock.lock();
+    try {
+      return statsCounter.snapshot(index.totalSize(), index.totalWeight());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Total weight of the cached items; zero when the cache has no weight budget. */
+  long weightedSize() {
+    lock.lock();
+    try {
+      return index.totalWeight();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void onTypeEvicted(T type, int items) {
+    statsCounter.recordEvictions(items);
+    cancelTimerIfGone(type);
+  }
+
+  private void cancelTimerIfGone(T type) {
+    if (!index.contains(type)) {
+      expiration.cancel(typeTimers.remove(type));
+    }
+  }
+
+  private void expireTypes(long now) {
+    expiration.expireEntries(now, timer -> {
+      typeTimers.remove(timer.key);
+      statsCounter.recordEvictions(index.typeSize(timer.key));
+      index.removeType(timer.key);
+      logger.debug("Expired cached items for type: {}", timer.key);
+    });
+  }
+
+  /** Drops a type's items without counting evictions. */
+  private void removeEntry(T type) {
+    lock.lock();
+    try {
+      index.removeType(type);
+      expiration.cancel(typeTimers.remove(type));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Swaps in refreshed items, or drops the type when it no longer loads, unless the type was
+   * replaced or removed while it was reloading.
+   */
+  private void replaceIfCurrent(T type, Iterable<K> items, TimerWheel.Timer<T> timer) {
+    lock.lock();
+    try {
+      if (typeTimers.get(type) != timer) {
+        return;
       }
+      index.removeType(type);
+      if (items != null) {
+        save(type, items);
+      }
+      cancelTimerIfGone(type);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void refreshAsync(T type, TimerWheel.Timer<T> timer) {
+    try {
+      refreshExecutor.execute(() -> {
+        try {
+          Iterable<K> items = statsCounter.recordLoad(() -> refresher.load(type));
+          replaceIfCurrent(type, items, timer);
+          logger.debug("Refreshed cached items for type: {}", type);
+        } catch (RuntimeException e) {
+          logger.warn("Failed to refresh cached items for type: {}", type, e);
+        } finally {
+          expiration.endRefresh(timer);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      expiration.endRefresh(timer);
+      logger.warn("Refresh rejected for type: {}", type);
     }
   }
 
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder("TypeBasedCache:\n");
-    typeCaches.forEach((type, cache) ->
-        sb.append("  ").append(type).append(" -> ").append(cache.keySet()).append("\n"));
-    sb.append("Total: ").append(totalItems).append("/").append(cacheConfig.count());
+    lock.lock();
+    try {
+      index.forEachType((type, items) ->
+          sb.append("  ").append(type).append(" -> ").append(items).append("\n"));
+      sb.append("Total: ").append(index.totalSize()).append("/").append(cacheConfig.count());
+    } finally {
+      lock.unlock();
+    }
     return sb.toString();
   }
 }
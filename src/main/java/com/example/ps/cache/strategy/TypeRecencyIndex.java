@@ -0,0 +1,129 @@
+package com.example.ps.cache.strategy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Bookkeeping shared by the type-aware caches. A type's items are kept or evicted together, so
+ * a cached type is always the complete list that was saved, in the order it was saved, and
+ * never a part of it. Types sit in one global recency order: when the total number of items
+ * exceeds the global count, or their total weight exceeds a positive weight budget, the least
+ * recently used type is evicted in O(1). A type with more items than the per-type capacity
+ * cannot be held whole and is evicted at once. Not thread-safe: owners guard it with their lock.
+ */
+final class TypeRecencyIndex<T, K> {
+
+  private final int typeCapacity;
+  private final int count;
+  private final Weigher<T, K> weigher;
+  private final long maxWeight;
+  private final ObjIntConsumer<T> onTypeEvicted;
+  // Least recently used type first; a type is moved to the end when used, so lookups that are
+  // not uses, such as sizes, leave the order alone
+  private final LinkedHashMap<T, Items<K>> types = new LinkedHashMap<>();
+  private int totalItems;
+  private long totalWeight;
+
+  /**
+   * @param maxWeight     weight budget across all types, or zero for none
+   * @param onTypeEvicted told about every type evicted, with the number of items it held
+   */
+  TypeRecencyIndex(int typeCapacity, int count, Weigher<T, K> weigher, long maxWeight,
+                   ObjIntConsumer<T> onTypeEvicted) {
+    this.typeCapacity = typeCapacity;
+    this.count = count;
+    this.weigher = weigher;
+    this.maxWeight = maxWeight;
+    this.onTypeEvicted = onTypeEvicted;
+  }
+
+  /**
+   * Appends the items a type does not hold yet and marks the type recently used, then evicts
+   * whole types as needed, which may include this one.
+   */
+  void addAll(T type, Iterable<K> keys) {
+    touch(type);
+    Items<K> items = types.get(type);
+    for (K key : keys) {
+      if (items == null) {
+        items = new Items<>();
+        types.put(type, items);
+      }
+      if (!items.weights.containsKey(key)) {
+        int weight = (maxWeight > 0) ? weigher.weigh(type, key) : 0;
+        items.weights.put(key, weight);
+        items.weight += weight;
+        totalItems++;
+        totalWeight += weight;
+      }
+    }
+    if (items != null && items.weights.size() > typeCapacity) {
+      evict(type);
+    }
+    while (!types.isEmpty() && (totalItems > count || (maxWeight > 0 && totalWeight > maxWeight))) {
+      evict(types.keySet().iterator().next());
+    }
+  }
+
+  /** Marks the type as recently used. */
+  void touch(T type) {
+    Items<K> items = types.remove(type);
+    if (items != null) {
+      types.put(type, items);
+    }
+  }
+
+  void removeType(T type) {
+    Items<K> items = types.remove(type);
+    if (items != null) {
+      totalItems -= items.weights.size();
+      totalWeight -= items.weight;
+    }
+  }
+
+  boolean contains(T type) {
+    return types.containsKey(type);
+  }
+
+  /**
+   * Live view of the type's items in the order they were saved, or {@code null}; it changes
+   * with every write, so callers copy it before releasing their lock.
+   */
+  Set<K> items(T type) {
+    Items<K> items = types.get(type);
+    return (items == null) ? null : items.weights.keySet();
+  }
+
+  int typeSize(T type) {
+    Items<K> items = types.get(type);
+    return (items == null) ? 0 : items.weights.size();
+  }
+
+  int totalSize() {
+    return totalItems;
+  }
+
+  long totalWeight() {
+    return totalWeight;
+  }
+
+  /** Passes each type with a live view of its items; only valid while the caller's lock is held. */
+  void forEachType(BiConsumer<T, Set<K>> action) {
+    types.forEach((type, items) -> action.accept(type, items.weights.keySet()));
+  }
+
+  private void evict(T type) {
+    int evicted = typeSize(type);
+    removeType(type);
+    onTypeEvicted.accept(type, evicted);
+  }
+
+  /** The items of one type, each with its weight, in the order they were saved. */
+  private static final class Items<K> {
+    final Map<K, Integer> weights = new LinkedHashMap<>();
+    long weight;
+  }
+}
@@ -0,0 +1,16 @@
+package com.example.ps.cache.strategy;
+
+/**
+ * Estimates how many bytes of heap an entry retains, so a cache with {@code max-weight-bytes}
+ * configured can stay within a memory budget rather than an entry count. Weights must be
+ * non-negative and must not change while the entry is cached.
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+  int weigh(K key, V value);
+
+  /** Gives every entry a weight of one, so a weight bound is simply another entry bound. */
+  static <K, V> Weigher<K, V> singleton() {
+    return (key, value) -> 1;
+  }
+}
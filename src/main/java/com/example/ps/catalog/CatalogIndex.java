@@ -0,0 +1,140 @@
+package com.example.ps.catalog;
+
+import com.example.ps.domain.Product;
+import com.example.ps.domain.ProductChangedEvent;
+import com.example.ps.domain.RecommendationQuery;
+import com.example.ps.repository.ProductRepository;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * In-memory columnar copy of the catalog that recommendation queries scan instead of reading
+ * every product from MongoDB. It is built from the repository at startup and then patched
+ * product by product: from the {@link ProductChangedEvent} of every write through
+ * {@code ProductService}, and from MongoDB's save and delete events for writes that bypass it. A
+ * delete by anything other than a single ID, such as {@code deleteAll}, rebuilds it.
+ * <p>
+ * Until the first build finishes, {@link #isReady()} is false and callers read the repository.
+ */
+@Component
+public class CatalogIndex extends AbstractMongoEventListener<Product> implements ApplicationRunner {
+
+  private static final Logger logger = LoggerFactory.getLogger(CatalogIndex.class);
+
+  private final ProductRepository productRepository;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private ProductColumns columns = new ProductColumns(); // guarded by lock
+  private volatile boolean ready;
+
+  public CatalogIndex(ProductRepository productRepository) {
+    this.productRepository = productRepository;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    rebuild();
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Products matching every filter of the query, at most its limit of them: in price order when
+   * the query is sorted, otherwise the highest-scored by {@code relevance} first.
+   */
+  public List<Product> find(RecommendationQuery query, ToDoubleFunction<Product> relevance) {
+    lock.readLock().lock();
+    try {
+      return columns.select(query, relevance);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return columns.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Replaces the index with a fresh copy of the repository. */
+  public void rebuild() {
+    lock.writeLock().lock();
+    try {
+      ProductColumns rebuilt = ProductColumns.of(productRepository.findAll());
+      columns = rebuilt;
+      ready = true;
+      logger.info("Catalog index built with {} products", rebuilt.size());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Applies a write made through {@code ProductService}. Its find-and-replace and find-and-remove
+   * raise no MongoDB event for the new version, so this is what keeps the index current. It runs
+   * before the other listeners, so recommendations they drop are recomputed from the new version.
+   */
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onProductChanged(ProductChangedEvent event) {
+    lock.writeLock().lock();
+    try {
+      if (event.after() == null) {
+        columns.remove(event.productId());
+      } else {
+        columns.put(event.after());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void onAfterSave(AfterSaveEvent<Product> event) {
+    Product product = event.getSource();
+    if (product.id() == null) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      columns.put(product);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void onAfterDelete(AfterDeleteEvent<Product> event) {
+    Document query = event.getSource();
+    if (query.get("_id") instanceof String productId && query.size() == 1) {
+      lock.writeLock().lock();
+      try {
+        columns.remove(productId);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    } else if (ready) {
+      rebuild();
+    }
+  }
+}
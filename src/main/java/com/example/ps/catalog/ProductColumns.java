@@ -0,0 +1,444 @@
+package com.example.ps.catalog;
+
+import com.example.ps.domain.PriceSort;
+import com.example.ps.domain.Product;
+import com.example.ps.domain.RecommendationQuery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The catalog stored column by column: one slot per product, with its price, age bounds and
+ * dictionary-encoded type and category in primitive arrays, so a query is a scan over those
+ * arrays that touches no product object until it matches. A removed product's slot is reused by
+ * the next product added.
+ * <p>
+ * The slots are also kept sorted by price, products of equal price in the order they were added.
+ * A query with a price bound scans only the slice of that order inside its bounds, found by
+ * binary search, and a query sorted by price walks the slice in order, so its results never need
+ * sorting. Keeping the order costs a binary search and an array shift per write.
+ * <p>
+ * Each type, each category and each age from 0 to {@value #MAX_BUCKETED_AGE} also has a posting
+ * list: a {@link SlotBitmap} of the slots that have that type or category or suit that age. A
+ * query intersects the lists of its filters, smallest first, and visits only the slots left, or
+ * walks its price slice and skips slots not in the intersection when that is shorter. Latency
+ * then follows the number of matches rather than the size of the catalog.
+ * <p>
+ * Not thread-safe; {@link CatalogIndex} guards it.
+ */
+final class ProductColumns {
+
+  static final int NO_CODE = -1;
+  /** Highest age with a posting list; the API accepts ages up to 120. */
+  static final int MAX_BUCKETED_AGE = 120;
+
+  private static final int INITIAL_CAPACITY = 64;
+  private static final SlotBitmap EMPTY = new SlotBitmap();
+
+  private final Map<String, Integer> slotsById = new HashMap<>();
+  private final Dictionary types = new Dictionary();
+  private final Dictionary categories = new Dictionary();
+  private final List<SlotBitmap> typePostings = new ArrayList<>();
+  private final List<SlotBitmap> categoryPostings = new ArrayList<>();
+  private final SlotBitmap[] agePostings = new SlotBitmap[MAX_BUCKETED_AGE + 1];
+  private Product[] products = new Product[INITIAL_CAPACITY];
+  private long[] prices = new long[INITIAL_CAPACITY];
+  private int[] minAges = new int[INITIAL_CAPACITY];
+  private int[] maxAges = new int[INITIAL_CAPACITY];
+  private int[] typeCodes = new int[INITIAL_CAPACITY];
+  private int[] categoryCodes = new int[INITIAL_CAPACITY];
+  private long[] sortedPrices = new long[INITIAL_CAPACITY];
+  private int[] sortedSlots = new int[INITIAL_CAPACITY];
+  private int sortedCount;
+  private int[] freeSlots = new int[0];
+  private int freeCount;
+  private int slotCount;
+
+  ProductColumns() {
+    Arrays.setAll(agePostings, age -> new SlotBitmap());
+  }
+
+  /** Builds the columns of a whole catalog, sorting the price order once at the end. */
+  static ProductColumns of(Iterable<Product> catalog) {
+    ProductColumns columns = new ProductColumns();
+    for (Product product : catalog) {
+      Integer existing = columns.slotsById.get(product.id());
+      if (existing != null) {
+        columns.removeFromPostings(existing);
+      }
+      int slot = (existing != null) ? existing : columns.newSlot(product.id());
+      columns.write(slot, product);
+      columns.addToPostings(slot);
+    }
+    columns.sortPriceOrder();
+    return columns;
+  }
+
+  /** Adds the product, or overwrites the slot of the product with the same ID. */
+  void put(Product product) {
+    long price = price(product);
+    Integer existing = slotsById.get(product.id());
+    if (existing == null) {
+      int slot = newSlot(product.id());
+      write(slot, product);
+      addToPostings(slot);
+      insertIntoPriceOrder(slot, price);
+    } else {
+      removeFromPostings(existing);
+      if (prices[existing] != price) {
+        removeFromPriceOrder(existing);
+        write(existing, product);
+        insertIntoPriceOrder(existing, price);
+      } else {
+        write(existing, product);
+      }
+      addToPostings(existing);
+    }
+  }
+
+  private int newSlot(String productId) {
+    int slot = allocateSlot();
+    slotsById.put(productId, slot);
+    return slot;
+  }
+
+  private void write(int slot, Product product) {
+    products[slot] = product;
+    prices[slot] = price(product);
+    typeCodes[slot] = types.encode(product.type());
+    categoryCodes[slot] = categories.encode(product.category());
+    setAgeBounds(slot, product);
+  }
+
+  void remove(String productId) {
+    Integer slot = slotsById.remove(productId);
+    if (slot == null) {
+      return;
+    }
+    removeFromPriceOrder(slot);
+    removeFromPostings(slot);
+    products[slot] = null;
+    if (freeCount == freeSlots.length) {
+      freeSlots = Arrays.copyOf(freeSlots, Math.max(16, freeCount * 2));
+    }
+    freeSlots[freeCount++] = slot;
+  }
+
+  int size() {
+    return slotsById.size();
+  }
+
+  /**
+   * Products matching every filter of the query: in price order when the query is sorted,
+   * otherwise in no particular order, and at most the query's limit of them.
+   */
+  List<Product> select(RecommendationQuery query) {
+    return select(query, null);
+  }
+
+  /**
+   * Products matching every filter of the query, at most the query's limit of them: in price order
+   * when the query is sorted, otherwise the most relevant first by {@code relevance}, or in no
+   * particular order when that is null. A ranked scan holds only the best {@code limit} matches
+   * in a {@link TopK} heap; a scan already in the wanted order stops at the limit.
+   */
+  List<Product> select(RecommendationQuery query, ToDoubleFunction<Product> relevance) {
+    int typeCode = NO_CODE;
+    if (query.type() != null && (typeCode = types.lookup(query.type())) == NO_CODE) {
+      return List.of();
+    }
+    int categoryCode = NO_CODE;
+    if (query.category() != null && (categoryCode = categories.lookup(query.category())) == NO_CODE) {
+      return List.of();
+    }
+    boolean anyAge = query.age() == null;
+    int age = anyAge ? 0 : query.age();
+    int limit = (query.limit() == null) ? Integer.MAX_VALUE : query.limit();
+    SlotBitmap candidates = candidates(typeCode, categoryCode, anyAge, age);
+
+    if (candidates == null && query.minPrice() == null && query.maxPrice() == null && query.sort() == null) {
+      Results results = new Results(limit, relevance);
+      for (int slot = 0; slot < slotCount && !results.full(); slot++) {
+        if (products[slot] != null && matches(slot, typeCode, categoryCode, anyAge, age)) {
+          results.add(products[slot]);
+        }
+      }
+      return results.toList();
+    }
+    int from = (query.minPrice() == null) ? 0 : firstAtLeast(query.minPrice());
+    int to = (query.maxPrice() == null) ? sortedCount : firstAbove(query.maxPrice());
+    if (from >= to) {
+      return List.of();
+    }
+
+    // Visit the candidates when there are fewer of them than products in the price slice; for a
+    // sorted query, only when so much fewer that ranking the matches by price beats walking the slice
+    if (candidates != null
+        && (long) candidates.cardinality() * (query.sort() == null ? 1 : 16) < to - from) {
+      long minPrice = sortedPrices[from];
+      long maxPrice = sortedPrices[to - 1];
+      int type = typeCode;
+      int category = categoryCode;
+      Results results = new Results(limit, ranking(query.sort(), relevance));
+      candidates.forEach(slot -> {
+        if (prices[slot] >= minPrice && prices[slot] <= maxPrice && matches(slot, type, category, anyAge, age)) {
+          results.add(products[slot]);
+        }
+      });
+      return results.toList();
+    }
+    // The walk itself is in price order, so a sorted query needs no ranking
+    Results results = new Results(limit, (query.sort() == null) ? relevance : null);
+    if (query.sort() == PriceSort.PRICE_DESC) {
+      for (int i = to - 1; i >= from && !results.full(); i--) {
+        int slot = sortedSlots[i];
+        if ((candidates == null || candidates.contains(slot)) && matches(slot, typeCode, categoryCode, anyAge, age)) {
+          results.add(products[slot]);
+        }
+      }
+    } else {
+      for (int i = from; i < to && !results.full(); i++) {
+        int slot = sortedSlots[i];
+        if ((candidates == null || candidates.contains(slot)) && matches(slot, typeCode, categoryCode, anyAge, age)) {
+          results.add(products[slot]);
+        }
+      }
+    }
+    return results.toList();
+  }
+
+  /** Score that puts matches in the query's order: by price when sorted, else by relevance. */
+  private static ToDoubleFunction<Product> ranking(PriceSort sort, ToDoubleFunction<Product> relevance) {
+    if (sort == PriceSort.PRICE_ASC) {
+      return product -> -price(product);
+    }
+    if (sort == PriceSort.PRICE_DESC) {
+      return product -> price(product);
+    }
+    return relevance;
+  }
+
+  /**
+   * Intersection of the posting lists of the query's type, category and age, smallest first;
+   * null when the query filters on none of them.
+   */
+  private SlotBitmap candidates(int typeCode, int categoryCode, boolean anyAge, int age) {
+    List<SlotBitmap> postings = new ArrayList<>(3);
+    if (typeCode != NO_CODE) {
+      postings.add(posting(typePostings, typeCode));
+    }
+    if (categoryCode != NO_CODE) {
+      postings.add(posting(categoryPostings, categoryCode));
+    }
+    if (!anyAge && age >= 0 && age <= MAX_BUCKETED_AGE) {
+      postings.add(agePostings[age]);
+    }
+    if (postings.isEmpty()) {
+      return null;
+    }
+    postings.sort(Comparator.comparingInt(SlotBitmap::cardinality));
+    SlotBitmap result = postings.get(0);
+    for (int i = 1; i < postings.size() && result.cardinality() > 0; i++) {
+      result = result.and(postings.get(i));
+    }
+    return result;
+  }
+
+  private void addToPostings(int slot) {
+    if (typeCodes[slot] != NO_CODE) {
+      postingForUpdate(typePostings, typeCodes[slot]).add(slot);
+    }
+    if (categoryCodes[slot] != NO_CODE) {
+      postingForUpdate(categoryPostings, categoryCodes[slot]).add(slot);
+    }
+    for (int age = Math.max(0, minAges[slot]); age <= Math.min(MAX_BUCKETED_AGE, maxAges[slot]); age++) {
+      agePostings[age].add(slot);
+    }
+  }
+
+  private void removeFromPostings(int slot) {
+    if (typeCodes[slot] != NO_CODE) {
+      postingForUpdate(typePostings, typeCodes[slot]).remove(slot);
+    }
+    if (categoryCodes[slot] != NO_CODE) {
+      postingForUpdate(categoryPostings, categoryCodes[slot]).remove(slot);
+    }
+    for (int age = Math.max(0, minAges[slot]); age <= Math.min(MAX_BUCKETED_AGE, maxAges[slot]); age++) {
+      agePostings[age].remove(slot);
+    }
+  }
+
+  private static SlotBitmap posting(List<SlotBitmap> postings, int code) {
+    return (code < postings.size()) ? postings.get(code) : EMPTY;
+  }
+
+  private static SlotBitmap postingForUpdate(List<SlotBitmap> postings, int code) {
+    while (postings.size() <= code) {
+      postings.add(new SlotBitmap());
+    }
+    return postings.get(code);
+  }
+
+  private boolean matches(int slot, int typeCode, int categoryCode, boolean anyAge, int age) {
+    return (typeCode == NO_CODE || typeCodes[slot] == typeCode)
+        && (categoryCode == NO_CODE || categoryCodes[slot] == categoryCode)
+        && (anyAge || (minAges[slot] <= age && age <= maxAges[slot]));
+  }
+
+  /** Index of the first entry of the price order priced at least {@code price}. */
+  private int firstAtLeast(long price) {
+    int low = 0;
+    int high = sortedCount;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (sortedPrices[mid] < price) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /** Index of the first entry of the price order priced above {@code price}. */
+  private int firstAbove(long price) {
+    int low = 0;
+    int high = sortedCount;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (sortedPrices[mid] <= price) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private void insertIntoPriceOrder(int slot, long price) {
+    if (sortedCount == sortedSlots.length) {
+      sortedPrices = Arrays.copyOf(sortedPrices, sortedCount * 2);
+      sortedSlots = Arrays.copyOf(sortedSlots, sortedCount * 2);
+    }
+    int index = firstAbove(price);
+    System.arraycopy(sortedPrices, index, sortedPrices, index + 1, sortedCount - index);
+    System.arraycopy(sortedSlots, index, sortedSlots, index + 1, sortedCount - index);
+    sortedPrices[index] = price;
+    sortedSlots[index] = slot;
+    sortedCount++;
+  }
+
+  /** Called while {@code prices} still holds the slot's price as entered in the order. */
+  private void removeFromPriceOrder(int slot) {
+    int index = firstAtLeast(prices[slot]);
+    while (sortedSlots[index] != slot) {
+      index++;
+    }
+    sortedCount--;
+    System.arraycopy(sortedPrices, index + 1, sortedPrices, index, sortedCount - index);
+    System.arraycopy(sortedSlots, index + 1, sortedSlots, index, sortedCount - index);
+  }
+
+  private void sortPriceOrder() {
+    List<Integer> order = new ArrayList<>(size());
+    for (int slot = 0; slot < slotCount; slot++) {
+      if (products[slot] != null) {
+        order.add(slot);
+      }
+    }
+    // Stable, so equal prices keep slot order
+    order.sort((a, b) -> Long.compare(prices[a], prices[b]));
+    sortedPrices = new long[Math.max(INITIAL_CAPACITY, order.size())];
+    sortedSlots = new int[sortedPrices.length];
+    for (int i = 0; i < order.size(); i++) {
+      sortedSlots[i] = order.get(i);
+      sortedPrices[i] = prices[order.get(i)];
+    }
+    sortedCount = order.size();
+  }
+
+  private static long price(Product product) {
+    return (product.price() == null) ? 0 : product.price();
+  }
+
+  private int allocateSlot() {
+    if (freeCount > 0) {
+      return freeSlots[--freeCount];
+    }
+    if (slotCount == products.length) {
+      int capacity = slotCount * 2;
+      products = Arrays.copyOf(products, capacity);
+      prices = Arrays.copyOf(prices, capacity);
+      minAges = Arrays.copyOf(minAges, capacity);
+      maxAges = Arrays.copyOf(maxAges, capacity);
+      typeCodes = Arrays.copyOf(typeCodes, capacity);
+      categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+    }
+    return slotCount++;
+  }
+
+  /** A product whose age group could not be parsed has no bounds and suits no age. */
+  private void setAgeBounds(int slot, Product product) {
+    boolean bounded = product.minAge() != null && product.maxAge() != null;
+    minAges[slot] = bounded ? product.minAge() : Integer.MAX_VALUE;
+    maxAges[slot] = bounded ? product.maxAge() : Integer.MIN_VALUE;
+  }
+
+  /**
+   * Matches of one scan, up to a limit: the highest-ranked in a {@link TopK} heap when there is a
+   * ranking, otherwise the first found, in scan order.
+   */
+  private static final class Results {
+
+    private final int limit;
+    private final ToDoubleFunction<Product> ranking;
+    private final TopK<Product> top;
+    private final List<Product> found = new ArrayList<>();
+
+    Results(int limit, ToDoubleFunction<Product> ranking) {
+      this.limit = limit;
+      this.ranking = ranking;
+      this.top = (ranking == null) ? null : new TopK<>(limit);
+    }
+
+    /** Whether further matches can no longer change the results. */
+    boolean full() {
+      return top == null && found.size() >= limit;
+    }
+
+    void add(Product product) {
+      if (top != null) {
+        top.offer(product, ranking.applyAsDouble(product));
+      } else if (found.size() < limit) {
+        found.add(product);
+      }
+    }
+
+    List<Product> toList() {
+      return (top == null) ? found : top.toList();
+    }
+  }
+
+  /** Case-insensitive codes for the distinct values of a column; codes are never reused. */
+  private static final class Dictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    int encode(String value) {
+      if (value == null) {
+        return NO_CODE;
+      }
+      return codes.computeIfAbsent(value.toUpperCase(Locale.ROOT), key -> codes.size());
+    }
+
+    int lookup(String value) {
+      return codes.getOrDefault(value.toUpperCase(Locale.ROOT), NO_CODE);
+    }
+  }
+}
@@ -0,0 +1,304 @@
+package com.example.ps.catalog;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of slot numbers, laid out like a Roaring bitmap: slots are grouped by their high
+ * 16 bits, and each group of up to 65536 slots is stored as a sorted {@code char[]} while it
+ * holds at most 4096 slots and as a 65536-bit {@code long[]} once it holds more. Sparse posting
+ * lists thus cost two bytes per slot and dense ones one bit per slot, and intersections work a
+ * group at a time, word by word where both groups are dense.
+ * <p>
+ * Not thread-safe.
+ */
+final class SlotBitmap {
+
+  private static final int ARRAY_LIMIT = 4096;
+  private static final int WORDS = 1024;
+
+  private int[] keys = new int[4];
+  private Container[] containers = new Container[4];
+  private int groupCount;
+
+  void add(int slot) {
+    int index = groupIndex(slot >>> 16);
+    if (index < 0) {
+      index = -index - 1;
+      insertGroup(index, slot >>> 16, new ArrayContainer());
+    }
+    containers[index] = containers[index].add((char) slot);
+  }
+
+  void remove(int slot) {
+    int index = groupIndex(slot >>> 16);
+    if (index < 0) {
+      return;
+    }
+    Container container = containers[index].remove((char) slot);
+    if (container.cardinality() == 0) {
+      System.arraycopy(keys, index + 1, keys, index, groupCount - index - 1);
+      System.arraycopy(containers, index + 1, containers, index, groupCount - index - 1);
+      containers[--groupCount] = null;
+    } else {
+      containers[index] = container;
+    }
+  }
+
+  boolean contains(int slot) {
+    int index = groupIndex(slot >>> 16);
+    return index >= 0 && containers[index].contains((char) slot);
+  }
+
+  int cardinality() {
+    int cardinality = 0;
+    for (int i = 0; i < groupCount; i++) {
+      cardinality += containers[i].cardinality();
+    }
+    return cardinality;
+  }
+
+  /** Slots in both bitmaps, as a new bitmap. */
+  SlotBitmap and(SlotBitmap other) {
+    SlotBitmap result = new SlotBitmap();
+    int i = 0;
+    int j = 0;
+    while (i < groupCount && j < other.groupCount) {
+      if (keys[i] < other.keys[j]) {
+        i++;
+      } else if (keys[i] > other.keys[j]) {
+        j++;
+      } else {
+        Container container = containers[i].and(other.containers[j]);
+        if (container.cardinality() > 0) {
+          result.insertGroup(result.groupCount, keys[i], container);
+        }
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  /** Calls {@code action} with each slot in ascending order. */
+  void forEach(IntConsumer action) {
+    for (int i = 0; i < groupCount; i++) {
+      containers[i].forEach(keys[i] << 16, action);
+    }
+  }
+
+  private int groupIndex(int key) {
+    return Arrays.binarySearch(keys, 0, groupCount, key);
+  }
+
+  private void insertGroup(int index, int key, Container container) {
+    if (groupCount == keys.length) {
+      keys = Arrays.copyOf(keys, groupCount * 2);
+      containers = Arrays.copyOf(containers, groupCount * 2);
+    }
+    System.arraycopy(keys, index, keys, index + 1, groupCount - index);
+    System.arraycopy(containers, index, containers, index + 1, groupCount - index);
+    keys[index] = key;
+    containers[index] = container;
+    groupCount++;
+  }
+
+  /** The slots of one group, by their low 16 bits; updates return the container to keep. */
+  private interface Container {
+
+    Container add(char value);
+
+    Container remove(char value);
+
+    boolean contains(char value);
+
+    int cardinality();
+
+    Container and(Container other);
+
+    void forEach(int base, IntConsumer action);
+  }
+
+  private static final class ArrayContainer implements Container {
+
+    private char[] values;
+    private int cardinality;
+
+    ArrayContainer() {
+      this(new char[4], 0);
+    }
+
+    ArrayContainer(char[] values, int cardinality) {
+      this.values = values;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    public Container add(char value) {
+      int index = Arrays.binarySearch(values, 0, cardinality, value);
+      if (index >= 0) {
+        return this;
+      }
+      if (cardinality == ARRAY_LIMIT) {
+        return toBitmap().add(value);
+      }
+      index = -index - 1;
+      if (cardinality == values.length) {
+        values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, Math.max(4, cardinality * 2)));
+      }
+      System.arraycopy(values, index, values, index + 1, cardinality - index);
+      values[index] = value;
+      cardinality++;
+      return this;
+    }
+
+    @Override
+    public Container remove(char value) {
+      int index = Arrays.binarySearch(values, 0, cardinality, value);
+      if (index >= 0) {
+        System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+        cardinality--;
+      }
+      return this;
+    }
+
+    @Override
+    public boolean contains(char value) {
+      return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+    }
+
+    @Override
+    public int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    public Container and(Container other) {
+      char[] result = new char[cardinality];
+      int count = 0;
+      if (other instanceof ArrayContainer array) {
+        int i = 0;
+        int j = 0;
+        while (i < cardinality && j < array.cardinality) {
+          if (values[i] < array.values[j]) {
+            i++;
+          } else if (values[i] > array.values[j]) {
+            j++;
+          } else {
+            result[count++] = values[i];
+            i++;
+            j++;
+          }
+        }
+      } else {
+        for (int i = 0; i < cardinality; i++) {
+          if (other.contains(values[i])) {
+            result[count++] = values[i];
+          }
+        }
+      }
+      return new ArrayContainer(result, count);
+    }
+
+    @Override
+    public void forEach(int base, IntConsumer action) {
+      for (int i = 0; i < cardinality; i++) {
+        action.accept(base | values[i]);
+      }
+    }
+
+    private BitmapContainer toBitmap() {
+      BitmapContainer bitmap = new BitmapContainer();
+      for (int i = 0; i < cardinality; i++) {
+        bitmap.add(values[i]);
+      }
+      return bitmap;
+    }
+  }
+
+  private static final class BitmapContainer implements Container {
+
+    private final long[] words;
+    private int cardinality;
+
+    BitmapContainer() {
+      this(new long[WORDS], 0);
+    }
+
+    BitmapContainer(long[] words, int cardinality) {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    public Container add(char value) {
+      long word = words[value >>> 6];
+      long updated = word | (1L << value);
+      if (updated != word) {
+        words[value >>> 6] = updated;
+        cardinality++;
+      }
+      return this;
+    }
+
+    @Override
+    public Container remove(char value) {
+      long word = words[value >>> 6];
+      long updated = word & ~(1L << value);
+      if (updated != word) {
+        words[value >>> 6] = updated;
+        cardinality--;
+      }
+      return (cardinality <= ARRAY_LIMIT) ? toArray() : this;
+    }
+
+    @Override
+    public boolean contains(char value) {
+      return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    public int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    public Container and(Container other) {
+      if (!(other instanceof BitmapContainer bitmap)) {
+        return other.and(this);
+      }
+      long[] result = new long[WORDS];
+      int count = 0;
+      for (int i = 0; i < WORDS; i++) {
+        result[i] = words[i] & bitmap.words[i];
+        count += Long.bitCount(result[i]);
+      }
+      BitmapContainer intersection = new BitmapContainer(result, count);
+      return (count <= ARRAY_LIMIT) ? intersection.toArray() : intersection;
+    }
+
+    @Override
+    public void forEach(int base, IntConsumer action) {
+      for (int i = 0; i < WORDS; i++) {
+        long word = words[i];
+        while (word != 0) {
+          action.accept(base | (i << 6) | Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+    }
+
+    private ArrayContainer toArray() {
+      char[] values = new char[Math.max(4, cardinality)];
+      int count = 0;
+      for (int i = 0; i < WORDS; i++) {
+        long word = words[i];
+        while (word != 0) {
+          values[count++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+      return new ArrayContainer(values, count);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.example.ps.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The {@code k} highest-scored of the items offered to it, kept in a min-heap of at most
+ * {@code k} entries, so ranking n items costs O(n log k) time and O(k) memory however large n is.
+ * Of items with equal scores, the one offered first ranks higher.
+ * <p>
+ * Not thread-safe.
+ */
+public final class TopK<T> {
+
+  // Worst entry on top: lowest score, then latest offered
+  private static final Comparator<Entry<?>> WORST_FIRST = Comparator
+      .comparingDouble((Entry<?> entry) -> entry.score())
+      .thenComparing(Comparator.comparingLong((Entry<?> entry) -> entry.sequence()).reversed());
+
+  private final int k;
+  private final PriorityQueue<Entry<T>> heap;
+  private long sequence;
+
+  public TopK(int k) {
+    if (k <= 0) {
+      throw new IllegalArgumentException("k must be positive: " + k);
+    }
+    this.k = k;
+    this.heap = new PriorityQueue<>(Math.min(k, 1024), WORST_FIRST);
+  }
+
+  public void offer(T item, double score) {
+    long order = sequence++;
+    if (heap.size() < k) {
+      heap.add(new Entry<>(item, score, order));
+    } else if (score > heap.peek().score()) {
+      heap.poll();
+      heap.add(new Entry<>(item, score, order));
+    }
+  }
+
+  /** The items kept, highest score first. */
+  public List<T> toList() {
+    List<Entry<T>> entries = new ArrayList<>(heap);
+    entries.sort(WORST_FIRST);
+    List<T> items = new ArrayList<>(entries.size());
+    for (Entry<T> entry : entries) {
+      items.add(entry.item());
+    }
+    Collections.reverse(items);
+    return items;
+  }
+
+  private record Entry<T>(T item, double score, long sequence) {
+  }
+}
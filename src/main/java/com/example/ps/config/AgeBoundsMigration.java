@@ -0,0 +1,67 @@
+package com.example.ps.config;
+
+import com.example.ps.domain.Product;
+import com.example.ps.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Stream;
+
+/**
+ * Backfills the numeric {@code minAge}/{@code maxAge} fields on product documents written before
+ * they existed, so age range queries can use them. Products saved since carry them already,
+ * because {@link Product} derives them from {@code recommendedAgeGroup} on construction; once
+ * every document has them the backfill finds nothing to do.
+ */
+@Component
+public class AgeBoundsMigration implements ApplicationRunner {
+
+  private static final Logger logger = LoggerFactory.getLogger(AgeBoundsMigration.class);
+  private static final int BATCH_SIZE = 1000;
+
+  private final MongoTemplate mongoTemplate;
+  private final ProductRepository productRepository;
+
+  public AgeBoundsMigration(MongoTemplate mongoTemplate, ProductRepository productRepository) {
+    this.mongoTemplate = mongoTemplate;
+    this.productRepository = productRepository;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    long migrated = 0;
+    int pending = 0;
+    BulkOperations updates = newBatch();
+    try (Stream<Product> products = productRepository.streamWithoutAgeBounds()) {
+      for (Product product : (Iterable<Product>) products::iterator) {
+        updates.updateOne(Query.query(Criteria.where("_id").is(product.id())),
+            new Update().set("minAge", product.minAge()).set("maxAge", product.maxAge()));
+        if (++pending == BATCH_SIZE) {
+          updates.execute();
+          migrated += pending;
+          pending = 0;
+          updates = newBatch();
+        }
+      }
+    }
+    if (pending > 0) {
+      updates.execute();
+      migrated += pending;
+    }
+    if (migrated > 0) {
+      logger.info("Backfilled age bounds on {} products", migrated);
+    }
+  }
+
+  private BulkOperations newBatch() {
+    return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+  }
+}
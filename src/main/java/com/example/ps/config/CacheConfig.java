@@ -1,10 +1,46 @@
 package com.example.ps.config;
 
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+
+/**
+ * Settings of one key-value cache. {@code capacity} bounds the number of entries;
+ * {@code maxWeightBytes}, when positive, additionally bounds their estimated heap size.
+ * {@code l2}, when set, adds a persistent tier behind the cache.
+ */
 public record CacheConfig(
     String name,
     int capacity,
-    boolean enabled
+    boolean enabled,
+    CacheStrategy strategy,
+    ExpiryConfig expiry,
+    long maxWeightBytes,
+    L2Config l2
 ) {
-}
 
+  @ConstructorBinding
+  public CacheConfig {
+    if (strategy == null) {
+      strategy = CacheStrategy.LRU;
+    }
+    if (expiry == null) {
+      expiry = ExpiryConfig.NONE;
+    }
+  }
+
+  public CacheConfig(String name, int capacity, boolean enabled) {
+    this(name, capacity, enabled, CacheStrategy.LRU, ExpiryConfig.NONE, 0L, null);
+  }
 
+  public CacheConfig(String name, int capacity, boolean enabled, CacheStrategy strategy) {
+    this(name, capacity, enabled, strategy, ExpiryConfig.NONE, 0L, null);
+  }
+
+  public CacheConfig(String name, int capacity, boolean enabled, CacheStrategy strategy, ExpiryConfig expiry) {
+    this(name, capacity, enabled, strategy, expiry, 0L, null);
+  }
+
+  public CacheConfig(String name, int capacity, boolean enabled, CacheStrategy strategy, ExpiryConfig expiry,
+                     long maxWeightBytes) {
+    this(name, capacity, enabled, strategy, expiry, maxWeightBytes, null);
+  }
+}
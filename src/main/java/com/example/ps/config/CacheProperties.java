@@ -12,6 +12,8 @@ public class CacheProperties {
 
   private Map<String, CacheConfig> simpleCacheConfigs;
   private Map<String, TypeCacheConfig> typeCacheConfigs;
+  private ProductIdFilterConfig productIdFilter = ProductIdFilterConfig.DEFAULT;
+  private WarmUpConfig warmUp = WarmUpConfig.DISABLED;
 
   @PostConstruct
   public void init(){
@@ -37,4 +39,20 @@ public class CacheProperties {
   public Map<String, CacheConfig> getSimpleCacheConfigs() {
     return simpleCacheConfigs;
   }
+
+  public ProductIdFilterConfig getProductIdFilter() {
+    return productIdFilter;
+  }
+
+  public void setProductIdFilter(ProductIdFilterConfig productIdFilter) {
+    this.productIdFilter = productIdFilter;
+  }
+
+  public WarmUpConfig getWarmUp() {
+    return warmUp;
+  }
+
+  public void setWarmUp(WarmUpConfig warmUp) {
+    this.warmUp = warmUp;
+  }
 }
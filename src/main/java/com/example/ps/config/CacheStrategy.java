@@ -0,0 +1,16 @@
+package com.example.ps.config;
+
+/**
+ * Eviction strategy used by {@link com.example.ps.cache.factory.CacheFactory} when building a
+ * key-value cache. Bound from {@code app.cache.simple-cache-configs.<name>.strategy}.
+ */
+public enum CacheStrategy {
+  /** Synchronized access-ordered {@code LinkedHashMap} ({@code KeyValueCache}). */
+  LRU,
+  /** Lock-free reads with buffered recency updates ({@code ConcurrentLruCache}). */
+  CONCURRENT_LRU,
+  /** Frequency-based admission in front of a segmented LRU ({@code TinyLfuCache}). */
+  TINY_LFU,
+  /** Entries encoded into direct memory slabs ({@code OffHeapCache}); needs key and value codecs. */
+  OFF_HEAP
+}
@@ -0,0 +1,22 @@
+package com.example.ps.config;
+
+import java.time.Duration;
+
+/**
+ * Time-based policy for one named cache. A duration that is not set disables that rule.
+ * <ul>
+ *   <li>{@code expireAfterWrite}: entries disappear this long after they were stored.</li>
+ *   <li>{@code expireAfterAccess}: entries disappear after being idle this long.</li>
+ *   <li>{@code refreshAfterWrite}: the first read after this age reloads the entry in the
+ *   background while still returning the current value. Keep it below the expiry so hot entries
+ *   are refreshed before they expire.</li>
+ * </ul>
+ */
+public record ExpiryConfig(
+    Duration expireAfterWrite,
+    Duration expireAfterAccess,
+    Duration refreshAfterWrite
+) {
+
+  public static final ExpiryConfig NONE = new ExpiryConfig(null, null, null);
+}
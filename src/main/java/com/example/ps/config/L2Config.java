@@ -0,0 +1,31 @@
+package com.example.ps.config;
+
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+
+import java.time.Duration;
+
+/**
+ * Settings of a cache's persistent second tier: a memory-mapped file of at most {@code maxBytes}
+ * at {@code path}. The file outlives the process, so entries older than
+ * {@code expireAfterWrite} are ignored to bound how stale a restarted instance can serve data
+ * changed while it was down. Each instance needs its own path.
+ */
+public record L2Config(
+    String path,
+    long maxBytes,
+    Duration expireAfterWrite
+) {
+
+  public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+  public static final Duration DEFAULT_EXPIRE_AFTER_WRITE = Duration.ofHours(1);
+
+  @ConstructorBinding
+  public L2Config {
+    if (maxBytes <= 0) {
+      maxBytes = DEFAULT_MAX_BYTES;
+    }
+    if (expireAfterWrite == null) {
+      expireAfterWrite = DEFAULT_EXPIRE_AFTER_WRITE;
+    }
+  }
+}
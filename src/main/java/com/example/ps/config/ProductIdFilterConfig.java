@@ -0,0 +1,27 @@
+package com.example.ps.config;
+
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+
+/**
+ * Sizing of the Bloom filter of known product IDs. The filter cannot grow, so
+ * {@code expectedInsertions} should cover the catalog with room for new products; past that the
+ * false-positive rate climbs above {@code falsePositiveProbability} and more unknown IDs reach
+ * the database.
+ */
+public record ProductIdFilterConfig(
+    long expectedInsertions,
+    double falsePositiveProbability
+) {
+
+  public static final ProductIdFilterConfig DEFAULT = new ProductIdFilterConfig(100_000, 0.01);
+
+  @ConstructorBinding
+  public ProductIdFilterConfig {
+    if (expectedInsertions <= 0) {
+      expectedInsertions = 100_000;
+    }
+    if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+      falsePositiveProbability = 0.01;
+    }
+  }
+}
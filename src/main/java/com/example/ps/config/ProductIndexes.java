@@ -0,0 +1,99 @@
+package com.example.ps.config;
+
+import com.example.ps.domain.Product;
+import com.example.ps.repository.ProductQueryPlans;
+import com.example.ps.repository.ProductQueryPlans.QueryPlan;
+import com.example.ps.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the indexes the product queries rely on at startup, checks that MongoDB reports every
+ * one of them, and then explains each repository query shape, warning about any that would
+ * still scan the whole collection.
+ * <p>
+ * {@code type_category_price_ci} serves type lookups through its prefix as well as
+ * type-and-category and filtered recommendation queries; {@code category_price_ci} and
+ * {@code price} serve the category and price lookups; {@code minAge_maxAge} serves age filters.
+ * The two {@code _ci} indexes use {@link ProductRepository#CASE_INSENSITIVE}, as the queries on
+ * type and category do. They replace {@code type_category_price} and {@code category_price},
+ * built without a collation, which are dropped where an older version created them.
+ */
+@Component
+public class ProductIndexes implements ApplicationRunner {
+
+  private static final Collation CASE_INSENSITIVE = Collation.parse(ProductRepository.CASE_INSENSITIVE);
+
+  static final List<Index> INDEXES = List.of(
+      new Index().on("type", Sort.Direction.ASC).on("category", Sort.Direction.ASC)
+          .on("price", Sort.Direction.ASC).named("type_category_price_ci")
+          .collation(CASE_INSENSITIVE),
+      new Index().on("category", Sort.Direction.ASC).on("price", Sort.Direction.ASC)
+          .named("category_price_ci").collation(CASE_INSENSITIVE),
+      new Index().on("price", Sort.Direction.ASC).named("price"),
+      new Index().on("minAge", Sort.Direction.ASC).on("maxAge", Sort.Direction.ASC)
+          .named("minAge_maxAge"));
+
+  static final List<String> RETIRED_INDEXES = List.of("type_category_price", "category_price");
+
+  private static final Logger logger = LoggerFactory.getLogger(ProductIndexes.class);
+
+  private final MongoTemplate mongoTemplate;
+  private final ProductQueryPlans queryPlans;
+
+  public ProductIndexes(MongoTemplate mongoTemplate, ProductQueryPlans queryPlans) {
+    this.mongoTemplate = mongoTemplate;
+    this.queryPlans = queryPlans;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    IndexOperations indexOps = mongoTemplate.indexOps(Product.class);
+    Set<String> existing = indexNames(indexOps);
+    for (String retired : RETIRED_INDEXES) {
+      if (existing.contains(retired)) {
+        indexOps.dropIndex(retired);
+        logger.info("Dropped product index {}", retired);
+      }
+    }
+    List<String> expected = INDEXES.stream()
+        .map(indexOps::createIndex)
+        .toList();
+
+    Set<String> present = indexNames(indexOps);
+    List<String> missing = expected.stream()
+        .filter(name -> !present.contains(name))
+        .toList();
+    if (!missing.isEmpty()) {
+      throw new IllegalStateException("Product indexes missing after creation: " + missing);
+    }
+    logger.info("Product indexes in place: {}", present);
+
+    for (QueryPlan plan : queryPlans.explainAll()) {
+      if (plan.collectionScan()) {
+        logger.warn("Query {} scans the whole products collection: {}", plan.query(), plan.stages());
+      } else {
+        logger.debug("Query {} runs as {}", plan.query(), plan.stages());
+      }
+    }
+  }
+
+  private static Set<String> indexNames(IndexOperations indexOps) {
+    return indexOps.getIndexInfo().stream()
+        .map(IndexInfo::getName)
+        .collect(Collectors.toSet());
+  }
+}
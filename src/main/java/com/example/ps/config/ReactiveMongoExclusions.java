@@ -0,0 +1,45 @@
+package com.example.ps.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Leaves out the reactive MongoDB client, template and repositories unless
+ * {@code app.reactive.enabled} is true. The reactive driver is always on the classpath for the
+ * reactive mode, so without this every deployment would open a second MongoDB client. Adds the
+ * auto-configurations to any {@code spring.autoconfigure.exclude} already set.
+ */
+public class ReactiveMongoExclusions implements EnvironmentPostProcessor {
+
+  static final String EXCLUDE_PROPERTY = "spring.autoconfigure.exclude";
+  static final List<String> REACTIVE_AUTO_CONFIGURATIONS = Stream.of(
+      MongoReactiveAutoConfiguration.class,
+      MongoReactiveDataAutoConfiguration.class,
+      MongoReactiveRepositoriesAutoConfiguration.class
+  ).map(Class::getName).toList();
+
+  @Override
+  public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+    if (environment.getProperty("app.reactive.enabled", Boolean.class, false)) {
+      return;
+    }
+    List<String> excluded = new ArrayList<>(Binder.get(environment)
+        .bind(EXCLUDE_PROPERTY, String[].class)
+        .map(List::of)
+        .orElse(List.of()));
+    excluded.addAll(REACTIVE_AUTO_CONFIGURATIONS);
+    environment.getPropertySources().addFirst(new MapPropertySource("reactiveMongoExclusions",
+        Map.of(EXCLUDE_PROPERTY, String.join(",", excluded))));
+  }
+}
@@ -1,7 +1,45 @@
 package com.example.ps.config;
 
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+
+/**
+ * Settings of one type-aware cache. {@code capacity} bounds the items per type and {@code count}
+ * the items across all types; {@code maxWeightBytes}, when positive, additionally bounds the
+ * estimated heap size of all items. Types are evicted whole, so a type with more items than
+ * {@code capacity} is not cached.
+ */
 public record TypeCacheConfig(  String name,
                                 int capacity,
                                 int count,
-                                boolean enabled) {
+                                boolean enabled,
+                                TypeCacheStrategy strategy,
+                                ExpiryConfig expiry,
+                                long maxWeightBytes) {
+
+  @ConstructorBinding
+  public TypeCacheConfig {
+    if (strategy == null) {
+      strategy = TypeCacheStrategy.LRU;
+    }
+    if (expiry == null) {
+      expiry = ExpiryConfig.NONE;
+    }
+  }
+
+  public TypeCacheConfig(String name, int capacity, int count, boolean enabled) {
+    this(name, capacity, count, enabled, TypeCacheStrategy.LRU, ExpiryConfig.NONE, 0L);
+  }
+
+  public TypeCacheConfig(String name, int capacity, int count, boolean enabled, TypeCacheStrategy strategy) {
+    this(name, capacity, count, enabled, strategy, ExpiryConfig.NONE, 0L);
+  }
+
+  public TypeCacheConfig(String name, int capacity, int count, boolean enabled, ExpiryConfig expiry) {
+    this(name, capacity, count, enabled, TypeCacheStrategy.LRU, expiry, 0L);
+  }
+
+  public TypeCacheConfig(String name, int capacity, int count, boolean enabled, TypeCacheStrategy strategy,
+                         ExpiryConfig expiry) {
+    this(name, capacity, count, enabled, strategy, expiry, 0L);
+  }
 }
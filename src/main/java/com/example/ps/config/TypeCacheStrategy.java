@@ -0,0 +1,12 @@
+package com.example.ps.config;
+
+/**
+ * Implementation used by {@link com.example.ps.cache.factory.CacheFactory} when building a
+ * type-aware cache. Bound from {@code app.cache.type-cache-configs.<name>.strategy}.
+ */
+public enum TypeCacheStrategy {
+  /** Synchronized per-type and global LRU ({@code TypeBasedCache}). */
+  LRU,
+  /** Writes publish immutable per-type snapshots that readers get without locking ({@code SnapshotTypeCache}). */
+  SNAPSHOT
+}
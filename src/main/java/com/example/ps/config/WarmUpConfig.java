@@ -0,0 +1,60 @@
+package com.example.ps.config;
+
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+
+import java.time.Duration;
+
+/**
+ * Settings of the startup cache warm-up. The hottest {@code maxProductIds} product IDs,
+ * {@code maxTypes} types and {@code maxQueries} recommendation queries are written to
+ * {@code hotKeysFile} every {@code saveInterval} and on shutdown; the next start preloads them
+ * with {@code parallelism} threads, {@code batchSize} keys per repository query, and reports
+ * ready once that finishes or {@code timeBudget} runs out. Without a {@code hotKeysFile} nothing
+ * is saved or preloaded; product IDs are still counted, up to {@code maxProductIds}, for
+ * recommendation popularity.
+ */
+public record WarmUpConfig(
+    String hotKeysFile,
+    int maxProductIds,
+    int maxTypes,
+    int maxQueries,
+    Duration saveInterval,
+    Duration timeBudget,
+    int parallelism,
+    int batchSize
+) {
+
+  public static final WarmUpConfig DISABLED = new WarmUpConfig(null, 0, 0, 0, null, null, 0, 0);
+
+  @ConstructorBinding
+  public WarmUpConfig {
+    if (hotKeysFile != null && hotKeysFile.isBlank()) {
+      hotKeysFile = null;
+    }
+    if (maxProductIds <= 0) {
+      maxProductIds = 1000;
+    }
+    if (maxTypes <= 0) {
+      maxTypes = 100;
+    }
+    if (maxQueries <= 0) {
+      maxQueries = 200;
+    }
+    if (saveInterval == null || saveInterval.isZero() || saveInterval.isNegative()) {
+      saveInterval = Duration.ofMinutes(5);
+    }
+    if (timeBudget == null || timeBudget.isNegative()) {
+      timeBudget = Duration.ofSeconds(30);
+    }
+    if (parallelism <= 0) {
+      parallelism = 4;
+    }
+    if (batchSize <= 0) {
+      batchSize = 100;
+    }
+  }
+
+  public boolean enabled() {
+    return hotKeysFile != null;
+  }
+}
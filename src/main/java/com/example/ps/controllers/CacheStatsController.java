@@ -0,0 +1,34 @@
+package com.example.ps.controllers;
+
+import com.example.ps.cache.provider.CacheProvider;
+import com.example.ps.cache.strategy.CacheStats;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache/stats")
+public class CacheStatsController {
+
+    private final CacheProvider cacheProvider;
+
+    public CacheStatsController(CacheProvider cacheProvider) {
+        this.cacheProvider = cacheProvider;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, CacheStats>> getAllStats() {
+        return ResponseEntity.ok(cacheProvider.getCacheRegistry().snapshot());
+    }
+
+    @GetMapping("/{cacheName}")
+    public ResponseEntity<CacheStats> getStats(@PathVariable String cacheName) {
+        return cacheProvider.getCacheRegistry().stats(cacheName)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
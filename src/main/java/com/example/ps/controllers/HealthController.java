@@ -1,5 +1,8 @@
 package com.example.ps.controllers;
 
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -13,6 +16,12 @@ import java.util.Map;
 @RequestMapping("/health")
 public class HealthController {
 
+    private final ApplicationAvailability applicationAvailability;
+
+    public HealthController(ApplicationAvailability applicationAvailability) {
+        this.applicationAvailability = applicationAvailability;
+    }
+
     @GetMapping
     public ResponseEntity<Map<String, Object>> health() {
         Map<String, Object> response = new HashMap<>();
@@ -21,4 +30,17 @@ public class HealthController {
         
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Readiness for load balancers: 503 until startup, including the cache warm-up, has finished.
+     */
+    @GetMapping("/ready")
+    public ResponseEntity<Map<String, Object>> ready() {
+        boolean ready = applicationAvailability.getReadinessState() == ReadinessState.ACCEPTING_TRAFFIC;
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", ready ? "READY" : "WARMING_UP");
+        response.put("timestamp", Instant.now().toString());
+
+        return ResponseEntity.status(ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
 }
@@ -0,0 +1,27 @@
+package com.example.ps.controllers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/** Opaque keyset cursor handed to clients of paginated listings: the URL-safe Base64 of an ID. */
+final class PageCursor {
+
+    private PageCursor() {
+    }
+
+    static String encode(String productId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(productId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** The ID a cursor stands for, or null for no cursor, meaning the first page. */
+    static String decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -1,20 +1,32 @@
 package com.example.ps.controllers;
 
+import com.example.ps.domain.PriceSort;
 import com.example.ps.domain.Product;
+import com.example.ps.domain.ProductPage;
 import com.example.ps.domain.RecommendationQuery;
 import com.example.ps.exception.InvalidRecommendationQueryException;
 import com.example.ps.exception.ProductNotFoundException;
 import com.example.ps.service.ProductService;
 import com.example.ps.service.RecommendationService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/products")
@@ -22,13 +34,28 @@ import java.util.List;
 public class ProductController {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
+    private static final int MAX_BATCH_SIZE = 100;
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_RECOMMENDATIONS = 20;
+    static final int MAX_RECOMMENDATIONS = 1000;
+    static final Duration EXPORT_TIMEOUT = Duration.ofMinutes(30);
     
     private final ProductService productService;
     private final RecommendationService recommendationService;
+    private final ObjectWriter productWriter;
 
-    public ProductController(ProductService productService, RecommendationService recommendationService) {
+    public ProductController(ProductService productService, RecommendationService recommendationService,
+                             ObjectMapper objectMapper) {
         this.productService = productService;
         this.recommendationService = recommendationService;
+        // For the export: one product per line, flushed by the export rather than after every
+        // product, and the response stream left for the servlet container to close
+        this.productWriter = objectMapper.writerFor(Product.class)
+            .withRootValueSeparator("")
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
     @GetMapping("/{productId}")
@@ -44,6 +71,29 @@ public class ProductController {
         return ResponseEntity.ok(product);
     }
 
+    /**
+     * Fetches up to {@value #MAX_BATCH_SIZE} products in one call, e.g.
+     * {@code GET /api/products/batch?ids=P10023,P10024}. Unknown IDs are left out of the result.
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<List<Product>> getProductsByIds(@RequestParam List<String> ids) {
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " product IDs per request");
+        }
+
+        logger.info("Received request to get {} products by ID", ids.size());
+
+        List<Product> products = productService.findAllById(ids);
+
+        if (products.isEmpty()) {
+            logger.info("None of the {} requested products found", ids.size());
+            return ResponseEntity.noContent().build();
+        }
+
+        logger.info("Found {} of {} requested products", products.size(), ids.size());
+        return ResponseEntity.ok(products);
+    }
+
     @GetMapping("/type/{type}")
     public ResponseEntity<List<Product>> getProductsByType(
             @PathVariable @NotBlank(message = "Product type cannot be blank") String type) {
@@ -61,11 +111,23 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    /**
+     * Lists products in ID order, {@code limit} at a time (at most {@value #MAX_PAGE_SIZE}). When
+     * more follow, the {@value #NEXT_CURSOR_HEADER} response header holds an opaque cursor to pass
+     * back as {@code cursor} for the next page.
+     */
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        logger.info("Received request to get all products");
+    public ResponseEntity<List<Product>> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) @Positive(message = "Limit must be positive") int limit) {
+        if (limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_PAGE_SIZE + " products per page");
+        }
+
+        logger.info("Received request to get {} products after cursor: {}", limit, cursor);
         
-        List<Product> products = productService.findAll();
+        ProductPage page = productService.findPage(PageCursor.decode(cursor), limit);
+        List<Product> products = page.products();
         
         if (products.isEmpty()) {
             logger.info("No products found");
@@ -73,17 +135,62 @@ public class ProductController {
         }
         
         logger.info("Found {} products", products.size());
+        if (page.hasNext()) {
+            return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, PageCursor.encode(page.nextAfterId()))
+                .body(products);
+        }
         return ResponseEntity.ok(products);
     }
 
+    /**
+     * Streams the whole catalog as newline-delimited JSON, one product per line in ID order. Each
+     * product is written as it comes off the database cursor, so the export runs in constant
+     * memory; a slow reader blocks the writes, and with them the cursor, instead of the response
+     * piling up in the heap. The export runs as an async task with its own timeout of
+     * {@link #EXPORT_TIMEOUT}, so other async requests keep the default one.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<ResponseEntity<Void>> exportProducts(HttpServletResponse response) {
+        logger.info("Received request to export all products");
+
+        Callable<ResponseEntity<Void>> export = () -> {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            long count = 0;
+            try (Stream<Product> products = productService.streamAll();
+                 JsonGenerator generator = productWriter.createGenerator(response.getOutputStream())) {
+                for (Product product : (Iterable<Product>) products::iterator) {
+                    productWriter.writeValue(generator, product);
+                    generator.writeRaw('\n');
+                    if (++count == 1) {
+                        // Sends the headers and first line without waiting for a full buffer
+                        generator.flush();
+                    }
+                }
+            }
+            logger.info("Exported {} products", count);
+            // The response is already written; no entity leaves it as it is
+            return null;
+        };
+        return new WebAsyncTask<>(EXPORT_TIMEOUT.toMillis(), export);
+    }
 
+    /**
+     * Recommends the {@code limit} (or {@code k}) best products matching the filters, at most
+     * {@value #MAX_RECOMMENDATIONS}: the most relevant first, or in price order with {@code sort}.
+     * Without either parameter only the best {@value #DEFAULT_RECOMMENDATIONS} are returned, not
+     * every match.
+     */
     @GetMapping("/recommendations")
     public ResponseEntity<List<Product>> getRecommendations(
             @RequestParam(required = false) @Positive(message = "Minimum price must be positive") Long minPrice,
             @RequestParam(required = false) @Positive(message = "Maximum price must be positive") Long maxPrice,
             @RequestParam(required = false) String type,
             @RequestParam(required = false) String category,
-            @RequestParam(required = false) @Positive(message = "Age must be positive") Integer age) {
+            @RequestParam(required = false) @Positive(message = "Age must be positive") Integer age,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) @Positive(message = "Limit must be positive") Integer limit,
+            @RequestParam(required = false) @Positive(message = "K must be positive") Integer k) {
         
         // Validate price range
         if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
@@ -95,8 +202,24 @@ public class ProductController {
             throw new InvalidRecommendationQueryException("Age must be between 0 and 120");
         }
 
+        PriceSort priceSort;
+        try {
+            priceSort = PriceSort.fromParameter(sort);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRecommendationQueryException(e.getMessage());
+        }
+
+        // k is an alias of limit
+        if (limit != null && k != null && !limit.equals(k)) {
+            throw new InvalidRecommendationQueryException("Limit and k must be equal when both are given");
+        }
+        int topK = (limit != null) ? limit : (k != null) ? k : DEFAULT_RECOMMENDATIONS;
+        if (topK > MAX_RECOMMENDATIONS) {
+            throw new InvalidRecommendationQueryException("At most " + MAX_RECOMMENDATIONS + " recommendations");
+        }
+
         List<Product> recommendations = recommendationService.getRecommendations(
-            new RecommendationQuery(minPrice, maxPrice, type, category, age));
+            new RecommendationQuery(minPrice, maxPrice, type, category, age, priceSort, topK));
         
         if (recommendations.isEmpty()) {
             logger.info("No product recommendations found with the specified filters");
@@ -0,0 +1,88 @@
+package com.example.ps.controllers;
+
+import com.example.ps.domain.Product;
+import com.example.ps.exception.ProductNotFoundException;
+import com.example.ps.service.ReactiveProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import java.util.List;
+
+/**
+ * Non-blocking variants of {@link ProductController}'s reads under {@code /api/reactive/products},
+ * with the same parameters and responses. Handlers return {@link Mono} or {@link Flux}, so the
+ * request thread goes back to the pool while MongoDB works and the response is written when the
+ * data arrives.
+ * <p>
+ * Only created when {@code app.reactive.enabled} is true.
+ */
+@RestController
+@RequestMapping("/api/reactive/products")
+@Validated
+@ConditionalOnProperty(prefix = "app.reactive", name = "enabled", havingValue = "true")
+public class ReactiveProductController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveProductController.class);
+
+    private final ReactiveProductService productService;
+
+    public ReactiveProductController(ReactiveProductService productService) {
+        this.productService = productService;
+    }
+
+    @GetMapping("/{productId}")
+    public Mono<Product> getProductById(
+            @PathVariable @NotBlank(message = "Product ID cannot be blank") String productId) {
+        logger.info("Received reactive request to get product with ID: {}", productId);
+        return productService.findById(productId)
+            .switchIfEmpty(Mono.error(() -> new ProductNotFoundException(productId)));
+    }
+
+    @GetMapping("/type/{type}")
+    public Mono<ResponseEntity<List<Product>>> getProductsByType(
+            @PathVariable @NotBlank(message = "Product type cannot be blank") String type) {
+        logger.info("Received reactive request to get products of type: {}", type);
+        return productService.findByType(type)
+            .map(products -> products.isEmpty()
+                ? ResponseEntity.noContent().<List<Product>>build()
+                : ResponseEntity.ok(products));
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<List<Product>>> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ProductController.DEFAULT_PAGE_SIZE) @Positive(message = "Limit must be positive") int limit) {
+        if (limit > ProductController.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("At most " + ProductController.MAX_PAGE_SIZE + " products per page");
+        }
+        logger.info("Received reactive request to get {} products after cursor: {}", limit, cursor);
+        return productService.findPage(PageCursor.decode(cursor), limit)
+            .map(page -> {
+                if (page.products().isEmpty()) {
+                    return ResponseEntity.noContent().<List<Product>>build();
+                }
+                if (page.hasNext()) {
+                    return ResponseEntity.ok()
+                        .header(ProductController.NEXT_CURSOR_HEADER, PageCursor.encode(page.nextAfterId()))
+                        .body(page.products());
+                }
+                return ResponseEntity.ok(page.products());
+            });
+    }
+
+    /** The catalog as newline-delimited JSON, written as the cursor delivers products. */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Product> exportProducts() {
+        logger.info("Received reactive request to export all products");
+        return productService.streamAll();
+    }
+}
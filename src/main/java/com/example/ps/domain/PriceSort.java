@@ -0,0 +1,21 @@
+package com.example.ps.domain;
+
+import java.util.Locale;
+
+/** Order of recommendation results by price, as requested with {@code sort=price_asc|price_desc}. */
+public enum PriceSort {
+  PRICE_ASC,
+  PRICE_DESC;
+
+  /** Parses a {@code sort} request parameter; null for null, and for any other value an exception. */
+  public static PriceSort fromParameter(String value) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Sort must be price_asc or price_desc: " + value);
+    }
+  }
+}
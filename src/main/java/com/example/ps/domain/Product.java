@@ -10,6 +10,8 @@ import jakarta.validation.constraints.Positive;
 
 import java.io.Serializable;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Product record representing a product in the catalog.
@@ -41,17 +43,72 @@ public record Product(
     String recommendedAgeGroup,
     
     @Field("attributes")
-    Map<String, String> attributes
+    Map<String, String> attributes,
+
+    @Field("minAge")
+    Integer minAge,
+
+    @Field("maxAge")
+    Integer maxAge
 ) implements Serializable {
 
+    /** Age bounds of a product without an age group, which suits every age. */
+    public static final int ANY_MIN_AGE = 0;
+    public static final int ANY_MAX_AGE = Integer.MAX_VALUE;
+
+    private static final Pattern AGE_GROUP_PATTERN = Pattern.compile("(\\d+)-(\\d+)");
+
     /**
      * Compact constructor with validation for required fields.
+     * <p>
+     * {@code minAge} and {@code maxAge} are kept when both are given, as when a stored product is
+     * read back, so reads do not parse the age group again. Otherwise they are derived from
+     * {@code recommendedAgeGroup}: a group such as "18-45" gives 18 and 45, no group gives
+     * {@link #ANY_MIN_AGE} and {@link #ANY_MAX_AGE}, and a group that cannot be parsed gives null
+     * for both, matching no age. Code that changes the age group should build the product without
+     * bounds, as the constructors without them do, so they are derived afresh.
+     * <p>
+     * {@code type} and {@code category} are kept in the case they are given; lookups ignore case.
      */
     public Product {
         // Validation can be added here if needed beyond annotations
         if (attributes == null) {
             attributes = Map.of(); // Default to empty map
         }
+        if (minAge == null || maxAge == null) {
+            int[] bounds = ageBounds(recommendedAgeGroup);
+            minAge = (bounds == null) ? null : bounds[0];
+            maxAge = (bounds == null) ? null : bounds[1];
+        }
+    }
+
+    /** Parses an age group into its bounds, or returns null when it cannot be parsed. */
+    private static int[] ageBounds(String ageGroup) {
+        if (ageGroup == null || ageGroup.trim().isEmpty()) {
+            return new int[] {ANY_MIN_AGE, ANY_MAX_AGE};
+        }
+        Matcher matcher = AGE_GROUP_PATTERN.matcher(ageGroup);
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            int parsedMin = Integer.parseInt(matcher.group(1));
+            int parsedMax = Integer.parseInt(matcher.group(2));
+            return (parsedMin <= parsedMax) ? new int[] {parsedMin, parsedMax} : null;
+        } catch (NumberFormatException e) {
+            // Out of int range; matches no age
+            return null;
+        }
+    }
+
+    public Product(String id, String name, String type, String category, Long price,
+                   String recommendedAgeGroup, Map<String, String> attributes) {
+        this(id, name, type, category, price, recommendedAgeGroup, attributes, null, null);
+    }
+
+    /** Whether the product suits the given age, by its numeric age bounds. */
+    public boolean suitsAge(int age) {
+        return minAge != null && minAge <= age && age <= maxAge;
     }
     
     /**
@@ -0,0 +1,9 @@
+package com.example.ps.domain;
+
+/**
+ * Published after a product is written. {@code before} is the stored product the write replaced
+ * ({@code null} for a new product) and {@code after} the one now stored ({@code null} after a
+ * delete), so listeners can find cache entries keyed by either version.
+ */
+public record ProductChangedEvent(String productId, Product before, Product after) {
+}
@@ -0,0 +1,26 @@
+package com.example.ps.domain;
+
+import java.util.List;
+
+/**
+ * One page of products in ID order. {@code nextAfterId} is the ID the next page starts after, or
+ * null when this is the last page.
+ */
+public record ProductPage(List<Product> products, String nextAfterId) {
+
+  /**
+   * The page for products read with a limit of {@code limit + 1}: the extra product, if there is
+   * one, only tells that another page follows.
+   */
+  public static ProductPage of(List<Product> products, int limit) {
+    if (products.size() <= limit) {
+      return new ProductPage(products, null);
+    }
+    List<Product> page = products.subList(0, limit);
+    return new ProductPage(page, page.get(limit - 1).id());
+  }
+
+  public boolean hasNext() {
+    return nextAfterId != null;
+  }
+}
@@ -1,6 +1,22 @@
 package com.example.ps.domain;
 
-public record RecommendationQuery(Long minPrice, Long maxPrice, String type, String category, Integer age) {
+/**
+ * Filters of a recommendation request. {@code sort} orders the results by price, and without it
+ * they are ranked by relevance; {@code limit} keeps only the first that many, and null keeps all.
+ */
+public record RecommendationQuery(Long minPrice, Long maxPrice, String type, String category, Integer age,
+                                  PriceSort sort, Integer limit) {
+
+  /** A query whose results are ranked by relevance, uncapped. */
+  public RecommendationQuery(Long minPrice, Long maxPrice, String type, String category, Integer age) {
+    this(minPrice, maxPrice, type, category, age, null, null);
+  }
+
+  /** A query sorted by price, or ranked by relevance when {@code sort} is null, uncapped. */
+  public RecommendationQuery(Long minPrice, Long maxPrice, String type, String category, Integer age,
+                             PriceSort sort) {
+    this(minPrice, maxPrice, type, category, age, sort, null);
+  }
 
   @Override
   public String toString() {
@@ -10,6 +26,8 @@ public record RecommendationQuery(Long minPrice, Long maxPrice, String type, Str
         ", type='" + type + '\'' +
         ", category='" + category + '\'' +
         ", age=" + age +
+        (sort == null ? "" : ", sort=" + sort) +
+        (limit == null ? "" : ", limit=" + limit) +
         '}';
   }
 }
@@ -2,8 +2,12 @@ package com.example.ps.exception;
 
 public class ProductNotFoundException extends RuntimeException {
     
+    /**
+     * Not-found is an expected outcome that anyone probing random IDs can trigger at will, so no
+     * stack trace is captured.
+     */
     public ProductNotFoundException(String productId) {
-        super("Product not found with ID: " + productId);
+        super("Product not found with ID: " + productId, null, false, false);
     }
     
     public ProductNotFoundException(String message, Throwable cause) {
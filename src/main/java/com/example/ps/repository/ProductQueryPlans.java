@@ -0,0 +1,105 @@
+package com.example.ps.repository;
+
+import com.example.ps.domain.PriceSort;
+import com.example.ps.domain.Product;
+import com.example.ps.domain.RecommendationQuery;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Asks MongoDB how it would run each query shape of {@link ProductRepository}, using
+ * {@code explain} with the query planner verbosity, and reports the plan stages. A plan with a
+ * {@code COLLSCAN} stage reads the whole collection, which means no index serves that shape.
+ * Shapes on {@code type} or {@code category} are explained with their collation, as they run.
+ * <p>
+ * Shapes that are meant to read every product, such as {@code findAll} and {@code streamAllIds},
+ * are not listed.
+ */
+@Component
+public class ProductQueryPlans {
+
+    static final String COLLECTION_SCAN = "COLLSCAN";
+
+    private final MongoTemplate mongoTemplate;
+
+    public ProductQueryPlans(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /** The winning plan of one repository query shape. */
+    public record QueryPlan(String query, List<String> stages) {
+
+        public boolean collectionScan() {
+            return stages.contains(COLLECTION_SCAN);
+        }
+    }
+
+    public List<QueryPlan> explainAll() {
+        List<QueryPlan> plans = new ArrayList<>();
+        shapes().forEach((name, query) -> plans.add(explain(name, query)));
+        return plans;
+    }
+
+    QueryPlan explain(String name, Query query) {
+        Document find = new Document("find", mongoTemplate.getCollectionName(Product.class))
+                .append("filter", query.getQueryObject());
+        if (!query.getSortObject().isEmpty()) {
+            find.append("sort", query.getSortObject());
+        }
+        query.getCollation().ifPresent(collation -> find.append("collation", collation.toDocument()));
+        Document result = mongoTemplate.executeCommand(
+                new Document("explain", find).append("verbosity", "queryPlanner"));
+        Document queryPlanner = result.get("queryPlanner", Document.class);
+        Set<String> stages = new LinkedHashSet<>();
+        collectStages(queryPlanner.get("winningPlan"), stages);
+        return new QueryPlan(name, List.copyOf(stages));
+    }
+
+    /** One representative query per repository method, with the filter its {@code @Query} runs. */
+    static Map<String, Query> shapes() {
+        Map<String, Query> shapes = new LinkedHashMap<>();
+        Collation caseInsensitive = Collation.parse(ProductRepository.CASE_INSENSITIVE);
+        shapes.put("findByType", Query.query(Criteria.where("type").is("ELECTRONICS"))
+                .collation(caseInsensitive));
+        shapes.put("findByTypeIn", Query.query(Criteria.where("type").in(List.of("ELECTRONICS", "BOOKS")))
+                .collation(caseInsensitive));
+        shapes.put("findByCategory", Query.query(Criteria.where("category").is("SMARTPHONE"))
+                .collation(caseInsensitive));
+        shapes.put("findByTypeAndCategory", Query.query(Criteria.where("type").is("ELECTRONICS")
+                .and("category").is("SMARTPHONE")).collation(caseInsensitive));
+        shapes.put("findByPriceBetween", Query.query(Criteria.where("price").gte(1000L).lte(50000L)));
+        shapes.put("streamWithoutAgeBounds", Query.query(Criteria.where("minAge").exists(false)));
+        shapes.put("findRecommendations(type, category, price, age)", ProductRepositoryCustomImpl.toMongoQuery(
+                new RecommendationQuery(1000L, 50000L, "ELECTRONICS", "SMARTPHONE", 25), 0));
+        shapes.put("findRecommendations(category, sort)", ProductRepositoryCustomImpl.toMongoQuery(
+                new RecommendationQuery(null, null, null, "SMARTPHONE", null, PriceSort.PRICE_ASC), 0));
+        shapes.put("findRecommendations(price)", ProductRepositoryCustomImpl.toMongoQuery(
+                new RecommendationQuery(1000L, 50000L, null, null, null), 0));
+        shapes.put("findRecommendations(age)", ProductRepositoryCustomImpl.toMongoQuery(
+                new RecommendationQuery(null, null, null, null, 25), 0));
+        return shapes;
+    }
+
+    /** Walks the plan tree, which nests differently across server versions, for stage names. */
+    private static void collectStages(Object node, Set<String> stages) {
+        if (node instanceof Map<?, ?> map) {
+            if (map.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            map.values().forEach(value -> collectStages(value, stages));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages));
+        }
+    }
+}
@@ -1,24 +1,67 @@
 package com.example.ps.repository;
 
 import com.example.ps.domain.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends MongoRepository<Product, String> {
+public interface ProductRepository extends MongoRepository<Product, String>, ProductRepositoryCustom {
 
-    @Query("{'type': ?0}")
+    /**
+     * Collation of every query and index on {@code type} or {@code category}: English at
+     * secondary strength, which ignores case but not accents. Stored values keep the case they
+     * were saved in and match a request in any case. A query only uses an index built with the
+     * same collation.
+     */
+    String CASE_INSENSITIVE = "{'locale': 'en', 'strength': 2}";
+
+    @Query(value = "{'type': ?0}", collation = CASE_INSENSITIVE)
     List<Product> findByType(String type);
 
-    @Query("{'category': ?0}")
+    @Query(value = "{'type': {$in: ?0}}", collation = CASE_INSENSITIVE)
+    List<Product> findByTypeIn(Collection<String> types);
+
+    @Query(value = "{'category': ?0}", collation = CASE_INSENSITIVE)
     List<Product> findByCategory(String category);
 
-    @Query("{'type': ?0, 'category': ?1}")
+    @Query(value = "{'type': ?0, 'category': ?1}", collation = CASE_INSENSITIVE)
     List<Product> findByTypeAndCategory(String type, String category);
 
     @Query(value = "{'price': {$gte: ?0, $lte: ?1}}")
     List<Product> findByPriceBetween(Long minPrice, Long maxPrice);
+
+    /** The first products in ID order, for keyset pagination. */
+    @Query(value = "{}", sort = "{'_id': 1}")
+    List<Product> findPage(Limit limit);
+
+    /** The products after the given ID in ID order; seeks on the {@code _id} index instead of skipping. */
+    @Query(value = "{'_id': {$gt: ?0}}", sort = "{'_id': 1}")
+    List<Product> findPageAfter(String id, Limit limit);
+
+    /**
+     * Streams every product in ID order from one cursor, fetching batches as the stream is
+     * consumed; close the stream when done.
+     */
+    @Meta(cursorBatchSize = 500)
+    @Query(value = "{}", sort = "{'_id': 1}")
+    Stream<Product> streamAll();
+
+    /** Streams every product with only its ID populated; close the stream when done. */
+    @Query(value = "{}", fields = "{'_id': 1}")
+    Stream<Product> streamAllIds();
+
+    /**
+     * Streams products stored before {@code minAge}/{@code maxAge} existed, with only the fields
+     * needed to derive them; close the stream when done.
+     */
+    @Query(value = "{'minAge': {$exists: false}}", fields = "{'_id': 1, 'recommendedAgeGroup': 1}")
+    Stream<Product> streamWithoutAgeBounds();
+
 }
@@ -0,0 +1,25 @@
+package com.example.ps.repository;
+
+import com.example.ps.domain.Product;
+import com.example.ps.domain.RecommendationQuery;
+
+import java.util.List;
+
+/** Repository queries built at runtime rather than declared with {@code @Query}. */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Products matching every filter of the query, found by MongoDB. {@code limit} caps the
+     * result, 0 meaning no cap.
+     */
+    List<Product> findRecommendations(RecommendationQuery query, int limit);
+
+    /**
+     * Stores the product, inserting it if its ID is new, and returns the product it replaced, or
+     * null if there was none, in one round trip.
+     */
+    Product replace(Product product);
+
+    /** Deletes the product and returns it, or null if there was none, in one round trip. */
+    Product removeById(String productId);
+}
@@ -0,0 +1,86 @@
+package com.example.ps.repository;
+
+import com.example.ps.domain.PriceSort;
+import com.example.ps.domain.Product;
+import com.example.ps.domain.RecommendationQuery;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+/**
+ * Queries and writes that need {@link MongoTemplate} directly. A {@link RecommendationQuery}
+ * becomes one MongoDB query, so only matching documents leave the database. Criteria are added
+ * only for the filters that are set. Types and categories are stored in the case they were
+ * saved in, so a query on either runs with {@link ProductRepository#CASE_INSENSITIVE}, the
+ * collation of the indexes that serve it.
+ */
+class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final Collation CASE_INSENSITIVE = Collation.parse(ProductRepository.CASE_INSENSITIVE);
+
+    private final MongoTemplate mongoTemplate;
+
+    ProductRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Product> findRecommendations(RecommendationQuery query, int limit) {
+        return mongoTemplate.find(toMongoQuery(query, limit), Product.class);
+    }
+
+    @Override
+    public Product replace(Product product) {
+        return mongoTemplate.findAndReplace(byId(product.id()), product,
+                FindAndReplaceOptions.options().upsert());
+    }
+
+    @Override
+    public Product removeById(String productId) {
+        return mongoTemplate.findAndRemove(byId(productId), Product.class);
+    }
+
+    private static Query byId(String productId) {
+        return Query.query(Criteria.where("_id").is(productId));
+    }
+
+    static Query toMongoQuery(RecommendationQuery query, int limit) {
+        Query mongoQuery = new Query();
+        if (query.type() != null) {
+            mongoQuery.addCriteria(Criteria.where("type").is(query.type()));
+        }
+        if (query.category() != null) {
+            mongoQuery.addCriteria(Criteria.where("category").is(query.category()));
+        }
+        if (query.type() != null || query.category() != null) {
+            mongoQuery.collation(CASE_INSENSITIVE);
+        }
+        if (query.minPrice() != null || query.maxPrice() != null) {
+            Criteria price = Criteria.where("price");
+            if (query.minPrice() != null) {
+                price.gte(query.minPrice());
+            }
+            if (query.maxPrice() != null) {
+                price.lte(query.maxPrice());
+            }
+            mongoQuery.addCriteria(price);
+        }
+        if (query.age() != null) {
+            // Unparseable age groups store null bounds, which no range matches
+            mongoQuery.addCriteria(Criteria.where("minAge").lte(query.age()));
+            mongoQuery.addCriteria(Criteria.where("maxAge").gte(query.age()));
+        }
+        if (query.sort() == PriceSort.PRICE_ASC) {
+            mongoQuery.with(Sort.by(Sort.Direction.ASC, "price"));
+        } else if (query.sort() == PriceSort.PRICE_DESC) {
+            mongoQuery.with(Sort.by(Sort.Direction.DESC, "price"));
+        }
+        mongoQuery.fields().exclude("_class");
+        return mongoQuery.limit(limit);
+    }
+}
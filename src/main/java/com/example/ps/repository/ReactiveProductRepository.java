@@ -0,0 +1,34 @@
+package com.example.ps.repository;
+
+import com.example.ps.domain.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking counterpart of {@link ProductRepository} for the reactive request path, with the
+ * same queries.
+ */
+@Repository
+public interface ReactiveProductRepository extends ReactiveMongoRepository<Product, String> {
+
+    @Query(value = "{'type': ?0}", collation = ProductRepository.CASE_INSENSITIVE)
+    Flux<Product> findByType(String type);
+
+    /** The first products in ID order, for keyset pagination. */
+    @Query(value = "{}", sort = "{'_id': 1}")
+    Flux<Product> findPage(Limit limit);
+
+    /** The products after the given ID in ID order. */
+    @Query(value = "{'_id': {$gt: ?0}}", sort = "{'_id': 1}")
+    Flux<Product> findPageAfter(String id, Limit limit);
+
+    /** Every product in ID order from one cursor, fetching batches as subscribers request them. */
+    @Meta(cursorBatchSize = 500)
+    @Query(value = "{}", sort = "{'_id': 1}")
+    Flux<Product> streamAll();
+}
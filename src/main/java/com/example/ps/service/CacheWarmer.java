@@ -0,0 +1,126 @@
+package com.example.ps.service;
+
+import com.example.ps.cache.provider.CacheProvider;
+import com.example.ps.cache.strategy.Cache;
+import com.example.ps.cache.strategy.TypeAwareCache;
+import com.example.ps.config.CacheProperties;
+import com.example.ps.config.WarmUpConfig;
+import com.example.ps.domain.Product;
+import com.example.ps.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Preloads the caches with the hot keys the previous run saved, so a new instance does not take
+ * full traffic with cold caches. Product IDs and types are read in batches of
+ * {@code batchSize} per repository query, and the batches run in parallel. Recommendation
+ * queries share a single catalog read.
+ * <p>
+ * Spring Boot reports the application ready only after every {@link ApplicationRunner} returns,
+ * so this runner waits for the warm-up up to the configured time budget. Batches still running
+ * after that finish in the background.
+ */
+@Component
+public class CacheWarmer implements ApplicationRunner {
+
+  private static final Logger logger = LoggerFactory.getLogger(CacheWarmer.class);
+
+  private final HotKeyTracker hotKeyTracker;
+  private final ProductRepository productRepository;
+  private final CacheProvider cacheProvider;
+  private final RecommendationService recommendationService;
+  private final WarmUpConfig config;
+
+  public CacheWarmer(HotKeyTracker hotKeyTracker, ProductRepository productRepository,
+                     CacheProvider cacheProvider, RecommendationService recommendationService,
+                     CacheProperties cacheProperties) {
+    this.hotKeyTracker = hotKeyTracker;
+    this.productRepository = productRepository;
+    this.cacheProvider = cacheProvider;
+    this.recommendationService = recommendationService;
+    this.config = cacheProperties.getWarmUp();
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    HotKeys hotKeys = hotKeyTracker.load();
+    if (hotKeys.isEmpty()) {
+      return;
+    }
+    long start = System.nanoTime();
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(config.parallelism(), task -> {
+      Thread thread = new Thread(task, "cache-warmer-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      List<CompletableFuture<Void>> tasks = new ArrayList<>();
+      for (List<String> batch : batches(hotKeys.productIds())) {
+        tasks.add(CompletableFuture.runAsync(() -> warmProducts(batch), executor));
+      }
+      for (List<String> batch : batches(hotKeys.types())) {
+        tasks.add(CompletableFuture.runAsync(() -> warmTypes(batch), executor));
+      }
+      if (!hotKeys.queries().isEmpty()) {
+        tasks.add(CompletableFuture.runAsync(() -> recommendationService.warmUp(hotKeys.queries()), executor));
+      }
+      CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new))
+          .get(config.timeBudget().toMillis(), TimeUnit.MILLISECONDS);
+      logger.info("Warmed caches with {} product IDs, {} types and {} queries in {} ms",
+          hotKeys.productIds().size(), hotKeys.types().size(), hotKeys.queries().size(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    } catch (TimeoutException e) {
+      logger.warn("Cache warm-up exceeded its {} budget; finishing in the background", config.timeBudget());
+    } catch (ExecutionException e) {
+      logger.warn("Cache warm-up failed; serving with partly cold caches", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  // Loads go through fetchOrLoad so entries live traffic already cached are kept, and an
+  // invalidation racing the warm-up discards the preloaded value as it would any other load
+
+  private void warmProducts(List<String> productIds) {
+    Cache<String, Product> productCache = cacheProvider.getProductIdCache();
+    Map<String, Product> products = new HashMap<>();
+    productRepository.findAllById(productIds).forEach(product -> products.put(product.id(), product));
+    products.keySet().forEach(id -> productCache.fetchOrLoad(id, products::get));
+  }
+
+  private void warmTypes(List<String> types) {
+    TypeAwareCache<String, Product> typeCache = cacheProvider.getTypeCache();
+    Map<String, List<Product>> productsByType = new HashMap<>();
+    for (Product product : productRepository.findByTypeIn(types)) {
+      productsByType.computeIfAbsent(product.type().toUpperCase(Locale.ROOT), type -> new ArrayList<>()).add(product);
+    }
+    productsByType.keySet().forEach(type -> typeCache.fetchOrLoad(type, productsByType::get));
+  }
+
+  private List<List<String>> batches(List<String> keys) {
+    List<List<String>> batches = new ArrayList<>();
+    for (int from = 0; from < keys.size(); from += config.batchSize()) {
+      batches.add(keys.subList(from, Math.min(keys.size(), from + config.batchSize())));
+    }
+    return batches;
+  }
+}
@@ -0,0 +1,84 @@
+package com.example.ps.service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Approximate access counts of the most requested keys. At most four times {@code limit} keys are
+ * tracked; past that the least requested are dropped and the survivors' counts are halved, so
+ * keys that were hot long ago give way to the current ones.
+ */
+final class HotKeyCounter<K> {
+
+  private final ConcurrentHashMap<K, AtomicLong> counts = new ConcurrentHashMap<>();
+  private final ReentrantLock pruneLock = new ReentrantLock();
+  private final int limit;
+  private final int maxTracked;
+
+  HotKeyCounter(int limit) {
+    this.limit = limit;
+    this.maxTracked = limit * 4;
+  }
+
+  void record(K key) {
+    AtomicLong count = counts.get(key);
+    if (count == null) {
+      count = counts.computeIfAbsent(key, k -> new AtomicLong());
+    }
+    count.incrementAndGet();
+    if (counts.size() > maxTracked) {
+      prune();
+    }
+  }
+
+  /** Approximate number of requests for the key; 0 when it is not tracked. */
+  long count(K key) {
+    AtomicLong count = counts.get(key);
+    return (count == null) ? 0 : count.get();
+  }
+
+  /** Up to {@code limit} keys, most requested first. */
+  List<K> top() {
+    return snapshot().stream().limit(limit).map(Tally::key).toList();
+  }
+
+  /**
+   * Runs on the request thread that overflowed the map; requests arriving while another thread
+   * prunes skip it rather than wait, since that prune makes room for them too.
+   */
+  private void prune() {
+    if (!pruneLock.tryLock()) {
+      return;
+    }
+    try {
+      if (counts.size() <= maxTracked) {
+        return;
+      }
+      List<Tally<K>> tallies = snapshot();
+      for (int i = 0; i < tallies.size(); i++) {
+        Tally<K> tally = tallies.get(i);
+        if (i < limit * 2) {
+          tally.counter().getAndUpdate(count -> count >>> 1);
+        } else {
+          counts.remove(tally.key(), tally.counter());
+        }
+      }
+    } finally {
+      pruneLock.unlock();
+    }
+  }
+
+  /** Counts are read once up front; sorting on live counters could see them change mid-sort. */
+  private List<Tally<K>> snapshot() {
+    return counts.entrySet().stream()
+        .map(entry -> new Tally<>(entry.getKey(), entry.getValue(), entry.getValue().get()))
+        .sorted(Comparator.comparingLong((Tally<K> tally) -> tally.count()).reversed())
+        .toList();
+  }
+
+  private record Tally<K>(K key, AtomicLong counter, long count) {
+  }
+}
@@ -0,0 +1,144 @@
+package com.example.ps.service;
+
+import com.example.ps.config.CacheProperties;
+import com.example.ps.config.WarmUpConfig;
+import com.example.ps.domain.RecommendationQuery;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts which product IDs, types and recommendation queries are requested most, and saves the
+ * hottest of each to the configured hot-keys file periodically and on shutdown, for
+ * {@link CacheWarmer} to preload on the next start. The file is replaced atomically, so a crash
+ * mid-save leaves the previous one intact.
+ * <p>
+ * Product IDs are counted even without a hot-keys file, because the counts also rank
+ * recommendations by popularity; nothing is saved or reported for warm-up then.
+ */
+@Component
+public class HotKeyTracker {
+
+  private static final Logger logger = LoggerFactory.getLogger(HotKeyTracker.class);
+
+  private final WarmUpConfig config;
+  private final ObjectMapper objectMapper;
+  private final HotKeyCounter<String> productIds;
+  private final HotKeyCounter<String> types;
+  private final HotKeyCounter<RecommendationQuery> queries;
+  private ScheduledExecutorService saver;
+
+  public HotKeyTracker(CacheProperties cacheProperties, ObjectMapper objectMapper) {
+    this.config = cacheProperties.getWarmUp();
+    this.objectMapper = objectMapper;
+    this.productIds = new HotKeyCounter<>(config.maxProductIds());
+    this.types = new HotKeyCounter<>(config.maxTypes());
+    this.queries = new HotKeyCounter<>(config.maxQueries());
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!config.enabled()) {
+      return;
+    }
+    saver = Executors.newSingleThreadScheduledExecutor(task -> {
+      Thread thread = new Thread(task, "hot-key-saver");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long intervalMillis = config.saveInterval().toMillis();
+    saver.scheduleWithFixedDelay(this::saveQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (saver != null) {
+      saver.shutdownNow();
+      saveQuietly();
+    }
+  }
+
+  public void recordProductId(String productId) {
+    productIds.record(productId);
+  }
+
+  public void recordType(String type) {
+    if (config.enabled()) {
+      types.record(type);
+    }
+  }
+
+  public void recordQuery(RecommendationQuery query) {
+    if (config.enabled()) {
+      queries.record(query);
+    }
+  }
+
+  /** How often the product was requested lately, as far as it is among the tracked IDs. */
+  public long productIdCount(String productId) {
+    return productIds.count(productId);
+  }
+
+  public HotKeys snapshot() {
+    if (!config.enabled()) {
+      return HotKeys.EMPTY;
+    }
+    return new HotKeys(productIds.top(), types.top(), queries.top());
+  }
+
+  /** Writes the current hot keys to the hot-keys file; does nothing when none is configured. */
+  public void save() throws IOException {
+    if (!config.enabled()) {
+      return;
+    }
+    HotKeys hotKeys = snapshot();
+    Path file = Path.of(config.hotKeysFile());
+    Path parent = file.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+    Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+    try {
+      objectMapper.writeValue(temp.toFile(), hotKeys);
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+    logger.debug("Saved {} product IDs, {} types and {} queries to {}",
+        hotKeys.productIds().size(), hotKeys.types().size(), hotKeys.queries().size(), file);
+  }
+
+  /** Reads the hot keys the last run saved; empty when there are none or the file is unreadable. */
+  public HotKeys load() {
+    if (!config.enabled()) {
+      return HotKeys.EMPTY;
+    }
+    Path file = Path.of(config.hotKeysFile());
+    if (!Files.exists(file)) {
+      return HotKeys.EMPTY;
+    }
+    try {
+      return objectMapper.readValue(file.toFile(), HotKeys.class);
+    } catch (IOException e) {
+      logger.warn("Ignoring unreadable hot-keys file {}", file, e);
+      return HotKeys.EMPTY;
+    }
+  }
+
+  private void saveQuietly() {
+    try {
+      save();
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Could not save hot keys to {}", config.hotKeysFile(), e);
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package com.example.ps.service;
+
+import com.example.ps.domain.RecommendationQuery;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+
+/** The most requested keys of each cache, most requested first, as saved for the next start. */
+public record HotKeys(List<String> productIds, List<String> types, List<RecommendationQuery> queries) {
+
+  public static final HotKeys EMPTY = new HotKeys(List.of(), List.of(), List.of());
+
+  public HotKeys {
+    productIds = (productIds == null) ? List.of() : List.copyOf(productIds);
+    types = (types == null) ? List.of() : List.copyOf(types);
+    queries = (queries == null) ? List.of() : List.copyOf(queries);
+  }
+
+  @JsonIgnore
+  public boolean isEmpty() {
+    return productIds.isEmpty() && types.isEmpty() && queries.isEmpty();
+  }
+}
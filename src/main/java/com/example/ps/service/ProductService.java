@@ -1,21 +1,31 @@
 package com.example.ps.service;
 
 import com.example.ps.cache.provider.CacheProvider;
+import com.example.ps.cache.provider.ProductIdFilter;
 import com.example.ps.cache.strategy.Cache;
 import com.example.ps.cache.strategy.TypeAwareCache;
 import com.example.ps.domain.Product;
+import com.example.ps.domain.ProductChangedEvent;
+import com.example.ps.domain.ProductPage;
+import com.example.ps.domain.RecommendationQuery;
 import com.example.ps.repository.ProductRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.Map;
+import java.util.stream.Stream;
 
 @Service
 public class ProductService {
@@ -24,12 +34,20 @@ public class ProductService {
 
   private final ProductRepository productRepository;
   private final CacheProvider cacheProvider;
+  private final ProductIdFilter productIdFilter;
+  private final ApplicationEventPublisher eventPublisher;
+  private final HotKeyTracker hotKeyTracker;
   // Dedicated cache for type-based product lists
   private final Map<String, List<Product>> typeBasedListCache = new ConcurrentHashMap<>();
 
-  public ProductService(ProductRepository productRepository, CacheProvider cacheProvider) {
+  public ProductService(ProductRepository productRepository, CacheProvider cacheProvider,
+                        ProductIdFilter productIdFilter, ApplicationEventPublisher eventPublisher,
+                        HotKeyTracker hotKeyTracker) {
     this.productRepository = productRepository;
     this.cacheProvider = cacheProvider;
+    this.productIdFilter = productIdFilter;
+    this.eventPublisher = eventPublisher;
+    this.hotKeyTracker = hotKeyTracker;
   }
 
   public Optional<Product> findById(String productId) {
@@ -39,27 +57,23 @@ public class ProductService {
 
     logger.debug("Fetching product with ID: {} (checking cache first)", productId);
 
+    if (!productIdFilter.mightExist(productId)) {
+      logger.debug("Product {} rejected by the ID filter", productId);
+      return Optional.empty();
+    }
+
     try {
       Cache<String, Product> productCache = cacheProvider.getProductIdCache();
-      Optional<Product> cachedProduct = productCache.fetch(productId);
-      if (cachedProduct.isPresent()) {
-        logger.debug("Product {} found in cache", productId);
-        return cachedProduct;
-      }
-
-      logger.debug("Product {} not in cache, fetching from database", productId);
-      Optional<Product> product = productRepository.findById(productId);
-
-      if (product.isPresent()) {
-        try {
-          productCache.save(productId, product.get());
-          logger.debug("Product {} cached after database fetch", productId);
-        } catch (Exception e) {
-          logger.warn("Failed to cache product {}: {}", productId, e.getMessage());
-          // Continue without caching - don't fail the request
-        }
+      // Concurrent misses for the same ID share one database read
+      Optional<Product> product = productCache.fetchOrLoad(productId, id -> {
+        logger.debug("Product {} not in cache, fetching from database", id);
+        return productRepository.findById(id).orElse(null);
+      });
+      if (product.isEmpty()) {
+        productIdFilter.recordMissing(productId);
+      } else {
+        hotKeyTracker.recordProductId(productId);
       }
-
       return product;
     } catch (Exception e) {
       logger.error("Error fetching product with ID: {}", productId, e);
@@ -67,31 +81,65 @@ public class ProductService {
     }
   }
 
-  public List<Product> findByType(String type) {
-    logger.debug("Fetching products of type: {} (checking type-based cache first)", type);
-
-    String typeKey = type.toUpperCase();
-
-    TypeAwareCache<String, Product> typeCache = cacheProvider.getTypeCache();
-
-    // First check our dedicated type-based list cache
-    Iterable<Product> cachedProducts = typeCache.fetch(typeKey);
-    if (cachedProducts != null) {
-      logger.debug("Found {} cached products for type: {}", typeCache.totalSize(), type);
-      List<Product> resultList = new ArrayList<>();
-      cachedProducts.forEach(resultList::add);
-      return resultList;
+  /**
+   * Looks up many products at once, in the order of the given IDs; unknown IDs are left out and
+   * duplicates returned once. Cached products are read in one pass over the cache, and all misses
+   * are read with a single repository query.
+   */
+  public List<Product> findAllById(Collection<String> productIds) {
+    Set<String> ids = new LinkedHashSet<>();
+    for (String productId : productIds) {
+      if (productId == null || productId.trim().isEmpty()) {
+        throw new IllegalArgumentException("Product ID cannot be null or empty");
+      }
+      if (productIdFilter.mightExist(productId)) {
+        ids.add(productId);
+      }
+    }
+    if (ids.isEmpty()) {
+      return List.of();
     }
 
-    logger.debug("Type {} not in list cache, fetching from database", type);
-    List<Product> products = productRepository.findByType(type);
+    Cache<String, Product> productCache = cacheProvider.getProductIdCache();
+    // Like findById's fetchOrLoad: misses being loaded by another request are shared, and a
+    // product invalidated while it is read is not left in the cache
+    Map<String, Product> found = productCache.fetchAllOrLoad(ids, misses -> {
+      logger.debug("{} of {} products not in cache, fetching from database", misses.size(), ids.size());
+      Map<String, Product> loaded = new HashMap<>();
+      productRepository.findAllById(misses).forEach(product -> loaded.put(product.id(), product));
+      return loaded;
+    });
+    ids.stream().filter(id -> !found.containsKey(id)).forEach(productIdFilter::recordMissing);
+
+    List<Product> products = new ArrayList<>(found.size());
+    for (String id : ids) {
+      Product product = found.get(id);
+      if (product != null) {
+        hotKeyTracker.recordProductId(id);
+        products.add(product);
+      }
+    }
+    return products;
+  }
 
-    // Cache each product individually for single product lookups
-    typeCache.save(type, products);
+  public List<Product> findByType(String type) {
+    logger.debug("Fetching products of type: {} (checking type-based cache first)", type);
 
-    logger.debug("Cached {} products for type: {}", products.size(), type);
+    String typeKey = type.toUpperCase(Locale.ROOT);
 
-    return products;
+    TypeAwareCache<String, Product> typeCache = cacheProvider.getTypeCache();
+    hotKeyTracker.recordType(typeKey);
+
+    // Cache under the normalized key so lookups and refresh-ahead reloads use the same key;
+    // concurrent misses for the same type share one database query
+    Iterable<Product> products = typeCache.fetchOrLoad(typeKey, key -> {
+      logger.debug("Type {} not in list cache, fetching from database", type);
+      return productRepository.findByType(key);
+    });
+
+    List<Product> resultList = new ArrayList<>();
+    products.forEach(resultList::add);
+    return resultList;
   }
 
 
@@ -101,9 +149,57 @@ public class ProductService {
     return products;
   }
 
+  /**
+   * Every product in ID order, read lazily from a database cursor and bypassing the caches;
+   * close the stream when done.
+   */
+  public Stream<Product> streamAll() {
+    logger.debug("Streaming all products from database");
+    return productRepository.streamAll();
+  }
+
+  /**
+   * Up to {@code limit} products in ID order, starting after {@code afterId}, or from the first
+   * product when it is null. One extra product is read to tell whether another page follows.
+   */
+  public ProductPage findPage(String afterId, int limit) {
+    logger.debug("Fetching {} products after ID: {}", limit, afterId);
+    Limit pageLimit = Limit.of(limit + 1);
+    List<Product> products = (afterId == null)
+        ? productRepository.findPage(pageLimit)
+        : productRepository.findPageAfter(afterId, pageLimit);
+    return ProductPage.of(products, limit);
+  }
+
+  /**
+   * Products matching the query, filtered and sorted by the database. A price-sorted query gets
+   * at most its limit of them; an unsorted one gets every match, for the caller to rank.
+   */
+  public List<Product> findMatching(RecommendationQuery query) {
+    logger.debug("Fetching products matching: {}", query);
+    int limit = (query.sort() != null && query.limit() != null) ? query.limit() : 0;
+    return productRepository.findRecommendations(query, limit);
+  }
+
   public Product save(Product product) {
     logger.debug("Saving product: {}", product.id());
-    Product savedProduct = productRepository.save(product);
+    // Replacing returns the previous version, so the event needs no extra read
+    Product before = null;
+    Product savedProduct;
+    if (product.id() == null) {
+      savedProduct = productRepository.save(product);
+    } else {
+      before = productRepository.replace(product);
+      savedProduct = product;
+    }
+    // Listeners update the caches before the caller sees the save complete
+    eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.id(), before, savedProduct));
     return savedProduct;
   }
+
+  public void deleteById(String productId) {
+    logger.debug("Deleting product: {}", productId);
+    Product before = productRepository.removeById(productId);
+    eventPublisher.publishEvent(new ProductChangedEvent(productId, before, null));
+  }
 }
@@ -0,0 +1,96 @@
+package com.example.ps.service;
+
+import com.example.ps.cache.provider.CacheProvider;
+import com.example.ps.cache.provider.ProductIdFilter;
+import com.example.ps.domain.Product;
+import com.example.ps.domain.ProductPage;
+import com.example.ps.repository.ReactiveProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Reactive counterpart of {@link ProductService}'s reads: the same ID filter and caches are
+ * consulted, but a miss goes to {@link ReactiveProductRepository}, so no thread waits on MongoDB.
+ * Misses are not cached: only the caches' own loads, which the blocking path uses, can tell that
+ * a product write invalidated a key while it was being read, so a result stored from here could
+ * stay stale until it expires.
+ * <p>
+ * Only created when {@code app.reactive.enabled} is true.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.reactive", name = "enabled", havingValue = "true")
+public class ReactiveProductService {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReactiveProductService.class);
+
+  private final ReactiveProductRepository productRepository;
+  private final CacheProvider cacheProvider;
+  private final ProductIdFilter productIdFilter;
+  private final HotKeyTracker hotKeyTracker;
+
+  public ReactiveProductService(ReactiveProductRepository productRepository, CacheProvider cacheProvider,
+                                ProductIdFilter productIdFilter, HotKeyTracker hotKeyTracker) {
+    this.productRepository = productRepository;
+    this.cacheProvider = cacheProvider;
+    this.productIdFilter = productIdFilter;
+    this.hotKeyTracker = hotKeyTracker;
+  }
+
+  public Mono<Product> findById(String productId) {
+    if (productId == null || productId.trim().isEmpty()) {
+      return Mono.error(new IllegalArgumentException("Product ID cannot be null or empty"));
+    }
+    if (!productIdFilter.mightExist(productId)) {
+      logger.debug("Product {} rejected by the ID filter", productId);
+      return Mono.empty();
+    }
+
+    Optional<Product> cached = cacheProvider.getProductIdCache().fetch(productId);
+    if (cached.isPresent()) {
+      hotKeyTracker.recordProductId(productId);
+      return Mono.just(cached.get());
+    }
+    logger.debug("Product {} not in cache, fetching from database", productId);
+    return productRepository.findById(productId)
+        .doOnNext(product -> hotKeyTracker.recordProductId(productId))
+        .switchIfEmpty(Mono.fromRunnable(() -> productIdFilter.recordMissing(productId)));
+  }
+
+  public Mono<List<Product>> findByType(String type) {
+    String typeKey = type.toUpperCase(Locale.ROOT);
+    hotKeyTracker.recordType(typeKey);
+
+    Iterable<Product> cached = cacheProvider.getTypeCache().fetch(typeKey);
+    if (cached != null) {
+      List<Product> products = new ArrayList<>();
+      cached.forEach(products::add);
+      return Mono.just(products);
+    }
+    logger.debug("Type {} not in list cache, fetching from database", type);
+    return productRepository.findByType(typeKey).collectList();
+  }
+
+  /** Same contract as {@link ProductService#findPage}. */
+  public Mono<ProductPage> findPage(String afterId, int limit) {
+    Limit pageLimit = Limit.of(limit + 1);
+    Flux<Product> products = (afterId == null)
+        ? productRepository.findPage(pageLimit)
+        : productRepository.findPageAfter(afterId, pageLimit);
+    return products.collectList().map(list -> ProductPage.of(list, limit));
+  }
+
+  /** Every product in ID order, read from the database as the subscriber requests them. */
+  public Flux<Product> streamAll() {
+    return productRepository.streamAll();
+  }
+}
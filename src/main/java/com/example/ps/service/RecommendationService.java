@@ -1,35 +1,48 @@
 package com.example.ps.service;
 
 import com.example.ps.cache.provider.CacheProvider;
-import com.example.ps.cache.strategy.Cache;
 import com.example.ps.cache.strategy.TypeAwareCache;
+import com.example.ps.catalog.CatalogIndex;
+import com.example.ps.catalog.TopK;
 import com.example.ps.domain.Product;
+import com.example.ps.domain.ProductChangedEvent;
 import com.example.ps.domain.RecommendationQuery;
-import com.example.ps.exception.CacheException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
 
 @Service
 public class RecommendationService {
 
   private static final Logger logger = LoggerFactory.getLogger(RecommendationService.class);
-  private static final Pattern AGE_RANGE_PATTERN = Pattern.compile("(\\d+)-(\\d+)");
+  private static final int MIN_PRUNE_THRESHOLD = 1024;
 
   private final ProductService productService;
   private final CacheProvider cacheProvider;
+  private final HotKeyTracker hotKeyTracker;
+  private final CatalogIndex catalogIndex;
+  private final RelevanceScorer relevanceScorer;
+  // Query behind each cached key, so a product change can find the entries it affects
+  private final Map<String, RecommendationQuery> cachedQueries = new ConcurrentHashMap<>();
+  private volatile int pruneThreshold = MIN_PRUNE_THRESHOLD;
 
   public RecommendationService(ProductService productService,
-                               CacheProvider cacheProvider) {
+                               CacheProvider cacheProvider,
+                               HotKeyTracker hotKeyTracker,
+                               CatalogIndex catalogIndex) {
     this.productService = productService;
     this.cacheProvider = cacheProvider;
-
+    this.hotKeyTracker = hotKeyTracker;
+    this.catalogIndex = catalogIndex;
+    this.relevanceScorer = new RelevanceScorer(hotKeyTracker);
   }
 
   public List<Product> getRecommendations(RecommendationQuery query) {
@@ -39,47 +52,88 @@ public class RecommendationService {
 
     try {
       TypeAwareCache<String, Product> recommendationCache = cacheProvider.getRecommendationCache();
+      hotKeyTracker.recordQuery(query);
 
-      // Check cache first
+      // Concurrent misses for the same query share one computation
       String cacheKey = query.toString();
-      Iterable<Product> cachedResult = recommendationCache.fetch(cacheKey);
-      if (cachedResult != null) {
-        logger.debug("Cache hit for recommendation key: {}", cacheKey);
-        List<Product> resultList = new ArrayList<>();
-        cachedResult.forEach(resultList::add);
-        return resultList;
-      }
-
-      logger.debug("Cache miss for recommendation key: {}", cacheKey);
+      Iterable<Product> recommendations = recommendationCache.fetchOrLoad(cacheKey, key -> {
+        logger.debug("Cache miss for recommendation key: {}", key);
+        trackQuery(key, query);
+        return computeRecommendations(query);
+      });
+
+      List<Product> resultList = new ArrayList<>();
+      recommendations.forEach(resultList::add);
+      return resultList;
+    } catch (Exception e) {
+      logger.error("Error processing recommendations for query: {}", query, e);
+      throw e; // Re-throw to be handled by global exception handler
+    }
+  }
 
-      // Compute recommendations
-      List<Product> recommendations = computeRecommendations(query);
+  /** Caches the recommendations of each query that is not cached yet. */
+  public void warmUp(Collection<RecommendationQuery> queries) {
+    TypeAwareCache<String, Product> recommendationCache = cacheProvider.getRecommendationCache();
+    for (RecommendationQuery query : queries) {
+      recommendationCache.fetchOrLoad(query.toString(), key -> {
+        trackQuery(key, query);
+        return computeRecommendations(query);
+      });
+    }
+  }
 
-      // Store in cache - don't fail if cache operation fails
-      try {
-        recommendationCache.save(cacheKey, recommendations);
-        logger.debug("Stored {} recommendations in cache for key: {}", recommendations.size(), cacheKey);
-      } catch (CacheException e) {
-        logger.warn("Failed to store recommendations in cache: {}", e.getMessage());
-        // Continue without caching - don't fail the request
+  /**
+   * Drops every cached recommendation list the changed product was in, or would now be in.
+   */
+  @EventListener
+  public void onProductChanged(ProductChangedEvent event) {
+    TypeAwareCache<String, Product> recommendationCache = cacheProvider.getRecommendationCache();
+    cachedQueries.forEach((key, query) -> {
+      if ((event.before() != null && matches(event.before(), query))
+          || (event.after() != null && matches(event.after(), query))) {
+        recommendationCache.invalidate(key);
+        cachedQueries.remove(key, query);
+        logger.debug("Invalidated recommendations for key: {}", key);
       }
+    });
+  }
 
-      return recommendations;
-    } catch (Exception e) {
-      logger.error("Error processing recommendations for query: {}", query, e);
-      throw e; // Re-throw to be handled by global exception handler
+  private void trackQuery(String key, RecommendationQuery query) {
+    cachedQueries.put(key, query);
+    if (cachedQueries.size() > pruneThreshold) {
+      // Forget keys the cache has since evicted; the threshold doubles so pruning stays amortized
+      TypeAwareCache<String, Product> recommendationCache = cacheProvider.getRecommendationCache();
+      cachedQueries.keySet().removeIf(cached -> recommendationCache.typeSize(cached) == 0 && !cached.equals(key));
+      pruneThreshold = Math.max(MIN_PRUNE_THRESHOLD, cachedQueries.size() * 2);
     }
   }
 
+  /**
+   * Scans the in-memory catalog index, or until the index is built, has MongoDB run the query so
+   * only matching products are read. Either way only the query's limit of results is kept, so
+   * the cached list grows with the limit rather than with the catalog.
+   */
   private List<Product> computeRecommendations(RecommendationQuery query) {
-    List<Product> allProducts = productService.findAll();
-
-    return allProducts.stream()
-        .filter(product -> matchesType(product, query.type()))
-        .filter(product -> matchesCategory(product, query.category()))
-        .filter(product -> matchesPriceRange(product, query.minPrice(), query.maxPrice()))
-        .filter(product -> matchesAgeRange(product, query.age()))
-        .toList();
+    ToDoubleFunction<Product> relevance = relevanceScorer.forQuery(query);
+    if (catalogIndex.isReady()) {
+      return catalogIndex.find(query, relevance);
+    }
+    List<Product> matches = productService.findMatching(query);
+    if (query.sort() != null) {
+      return matches;
+    }
+    TopK<Product> top = new TopK<>((query.limit() == null) ? Integer.MAX_VALUE : query.limit());
+    for (Product product : matches) {
+      top.offer(product, relevance.applyAsDouble(product));
+    }
+    return top.toList();
+  }
+
+  private boolean matches(Product product, RecommendationQuery query) {
+    return matchesType(product, query.type())
+        && matchesCategory(product, query.category())
+        && matchesPriceRange(product, query.minPrice(), query.maxPrice())
+        && matchesAgeRange(product, query.age());
   }
 
   private boolean matchesPriceRange(Product product, Long minPrice, Long maxPrice) {
@@ -105,49 +159,7 @@ public class RecommendationService {
   }
 
   private boolean matchesAgeRange(Product product, Integer age) {
-    if (age == null) {
-      return true;
-    }
-
-    String ageRange = product.recommendedAgeGroup();
-    if (ageRange == null || ageRange.trim().isEmpty()) {
-      logger.debug("Product {} has no age range specified", product.id());
-      return true;
-    }
-
-    return parseAgeRange(ageRange)
-        .map(range -> age >= range.minAge() && age <= range.maxAge())
-        .orElse(false);
-  }
-
-  private Optional<AgeRange> parseAgeRange(String ageRange) {
-    if (ageRange == null || ageRange.trim().isEmpty()) {
-      logger.debug("Age range is null or empty");
-      return Optional.empty();
-    }
-
-    var matcher = AGE_RANGE_PATTERN.matcher(ageRange);
-    if (matcher.matches()) {
-      try {
-        int minAge = Integer.parseInt(matcher.group(1));
-        int maxAge = Integer.parseInt(matcher.group(2));
-        return Optional.of(new AgeRange(minAge, maxAge));
-      } catch (NumberFormatException e) {
-        logger.warn("Invalid age range format: {}", ageRange);
-        return Optional.empty();
-      }
-    } else {
-      logger.debug("Unrecognized age range format: {}", ageRange);
-      return Optional.empty();
-    }
-  }
-
-  public record AgeRange(int minAge, int maxAge) {
-    public AgeRange {
-      if (minAge < 0 || maxAge < 0 || minAge > maxAge) {
-        throw new IllegalArgumentException("Invalid age range: " + minAge + "-" + maxAge);
-      }
-    }
+    return age == null || product.suitsAge(age);
   }
 
 }
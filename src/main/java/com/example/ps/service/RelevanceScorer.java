@@ -0,0 +1,78 @@
+package com.example.ps.service;
+
+import com.example.ps.domain.Product;
+import com.example.ps.domain.RecommendationQuery;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Scores how well a product suits a recommendation query, from 0 to 1, as a weighted sum of:
+ * <ul>
+ *   <li>age fit: how close the query's age is to the middle of the product's age group; products
+ *       for every age score a neutral 0.5</li>
+ *   <li>price fit: how close the price is to the middle of the query's price range, or, with only
+ *       a maximum, how far below it, or, with only a minimum, how near it</li>
+ *   <li>popularity: how often the product was requested by ID lately, as counted by
+ *       {@link HotKeyTracker} whether or not warm-up is enabled</li>
+ * </ul>
+ * A filter the query leaves out adds nothing for any product. Popularity is read when a ranking
+ * is computed, so a cached ranking keeps the popularity it was computed with until it is evicted.
+ */
+final class RelevanceScorer {
+
+  static final double AGE_WEIGHT = 0.4;
+  static final double PRICE_WEIGHT = 0.3;
+  static final double POPULARITY_WEIGHT = 0.3;
+  /** Requests at which a product's popularity scores 0.5. */
+  private static final double POPULARITY_MIDPOINT = 10;
+
+  private final HotKeyTracker hotKeyTracker;
+
+  RelevanceScorer(HotKeyTracker hotKeyTracker) {
+    this.hotKeyTracker = hotKeyTracker;
+  }
+
+  ToDoubleFunction<Product> forQuery(RecommendationQuery query) {
+    return product -> AGE_WEIGHT * ageFit(product, query.age())
+        + PRICE_WEIGHT * priceFit(product, query.minPrice(), query.maxPrice())
+        + POPULARITY_WEIGHT * popularity(product);
+  }
+
+  static double ageFit(Product product, Integer age) {
+    if (age == null || !product.suitsAge(age)) {
+      return 0;
+    }
+    if (product.minAge() == Product.ANY_MIN_AGE && product.maxAge() == Product.ANY_MAX_AGE) {
+      return 0.5;
+    }
+    return closeness(age, product.minAge(), product.maxAge());
+  }
+
+  static double priceFit(Product product, Long minPrice, Long maxPrice) {
+    if (product.price() == null || (minPrice == null && maxPrice == null)) {
+      return 0;
+    }
+    long price = product.price();
+    if (minPrice != null && maxPrice != null) {
+      return closeness(price, minPrice, maxPrice);
+    }
+    if (maxPrice != null) {
+      return Math.max(0, 1 - (double) price / (maxPrice + 1));
+    }
+    return Math.min(1, (double) minPrice / Math.max(1, price));
+  }
+
+  private double popularity(Product product) {
+    if (product.id() == null) {
+      return 0;
+    }
+    long count = hotKeyTracker.productIdCount(product.id());
+    return count / (count + POPULARITY_MIDPOINT);
+  }
+
+  /** 1 at the middle of {@code [low, high]}, falling linearly to just above 0 at its ends. */
+  private static double closeness(double value, double low, double high) {
+    double halfWidth = (high - low) / 2;
+    return Math.max(0, 1 - Math.abs(value - (low + halfWidth)) / (halfWidth + 1));
+  }
+}
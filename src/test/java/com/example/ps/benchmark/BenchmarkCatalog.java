@@ -0,0 +1,25 @@
+package com.example.ps.benchmark;
+
+import com.example.ps.domain.Product;
+import com.example.ps.repository.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/** Synthetic catalog the benchmarks run against, with IDs from {@link HttpLoad#productId}. */
+final class BenchmarkCatalog {
+
+    private BenchmarkCatalog() {
+    }
+
+    static void seed(ProductRepository productRepository, int size) {
+        productRepository.deleteAll();
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(new Product(HttpLoad.productId(i), "Product " + i, "TYPE" + (i % 20),
+                "CATEGORY" + (i % 50), 1000L + i, "18-45", Map.of("index", String.valueOf(i))));
+        }
+        productRepository.saveAll(products);
+    }
+}
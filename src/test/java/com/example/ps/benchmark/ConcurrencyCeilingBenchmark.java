@@ -0,0 +1,64 @@
+package com.example.ps.benchmark;
+
+import com.example.ps.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Raises the number of concurrent listing requests step by step against the blocking endpoint
+ * and prints throughput and latency at each step. Throughput stops growing, and latency starts
+ * growing with concurrency, once every request thread is parked on MongoDB: that step is the
+ * concurrency ceiling. Subclasses run it with platform and with virtual request threads.
+ */
+abstract class ConcurrencyCeilingBenchmark {
+
+    static final String PROPERTIES = "server.tomcat.threads.max=16";
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyCeilingBenchmark.class);
+
+    private static final int PRODUCTS = 5_000;
+    private static final int[] CONCURRENCY_STEPS = {8, 16, 64, 256, 1024};
+    private static final int REQUESTS_PER_STEP = 10_000;
+    private static final int PAGE_SIZE = 100;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private HttpLoad load;
+
+    @BeforeEach
+    void setUp() {
+        BenchmarkCatalog.seed(productRepository, PRODUCTS);
+        load = new HttpLoad(port, PRODUCTS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        load.close();
+    }
+
+    abstract String mode();
+
+    @Test
+    void stepConcurrency() throws Exception {
+        load.run("/api/products", PAGE_SIZE, REQUESTS_PER_STEP, CONCURRENCY_STEPS[0]);
+
+        logger.warn("{} request threads", mode());
+        logger.warn("{}", HttpLoad.Result.header("concurrency"));
+        for (int concurrency : CONCURRENCY_STEPS) {
+            HttpLoad.Result result = load.run("/api/products", PAGE_SIZE, REQUESTS_PER_STEP, concurrency);
+            logger.warn("{}", result.format(String.valueOf(concurrency)));
+            assertEquals(0, result.failures());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.ps.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop HTTP load for the benchmarks: sends listing requests that each start at a random
+ * product, so none is served from a cache, with a fixed number in flight, and records latencies.
+ * A new request is sent only when one completes, so a slow server also slows the load down and
+ * the latencies understate what clients on a fixed schedule would see (coordinated omission);
+ * they compare the endpoints under the same load rather than measure absolute tail latency.
+ */
+final class HttpLoad implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .executor(executor)
+        .build();
+    private final int port;
+    private final int products;
+
+    HttpLoad(int port, int products) {
+        this.port = port;
+        this.products = products;
+    }
+
+    static String productId(int i) {
+        return String.format("B%06d", i);
+    }
+
+    /** Sends {@code requests} page requests to {@code path}, at most {@code concurrency} in flight at a time. */
+    Result run(String path, int pageSize, int requests, int concurrency) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        long[] latencies = new long[requests];
+        AtomicInteger failures = new AtomicInteger();
+        List<CompletableFuture<?>> responses = new ArrayList<>(requests);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            int request = i;
+            String cursor = cursor(productId(ThreadLocalRandom.current().nextInt(products)));
+            HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(
+                "http://localhost:" + port + path + "?limit=" + pageSize + "&cursor=" + cursor)).build();
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            responses.add(client.sendAsync(httpRequest, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    latencies[request] = System.nanoTime() - sent;
+                    if (error != null || response.statusCode() >= 300) {
+                        failures.incrementAndGet();
+                    }
+                    inFlight.release();
+                }));
+        }
+        CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).join();
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        return new Result(requests, elapsed, latencies, failures.get());
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /** Same encoding as the controllers' opaque cursor. */
+    private static String cursor(String productId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(productId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    record Result(int requests, long elapsedNanos, long[] sortedLatencies, int failures) {
+
+        static String header(String label) {
+            return String.format("%-12s %12s %10s %10s %10s %10s", label, "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        }
+
+        String format(String label) {
+            return String.format("%-12s %12.0f %10.2f %10.2f %10.2f %10.2f", label,
+                requests / (elapsedNanos / 1e9), percentile(0.50), percentile(0.99), percentile(0.999),
+                sortedLatencies[sortedLatencies.length - 1] / 1e6);
+        }
+
+        private double percentile(double p) {
+            return sortedLatencies[(int) Math.ceil(p * sortedLatencies.length) - 1] / 1e6;
+        }
+    }
+}
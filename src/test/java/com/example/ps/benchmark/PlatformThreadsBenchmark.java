@@ -0,0 +1,20 @@
+package com.example.ps.benchmark;
+
+import com.example.ps.ProductServicesApplication;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/** The concurrency ceiling with Tomcat's pool of 16 platform request threads. */
+@SpringBootTest(
+    classes = ProductServicesApplication.class,
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {ConcurrencyCeilingBenchmark.PROPERTIES, "logging.level.com.example.ps=WARN"}
+)
+@ActiveProfiles("test")
+class PlatformThreadsBenchmark extends ConcurrencyCeilingBenchmark {
+
+    @Override
+    String mode() {
+        return "Platform";
+    }
+}
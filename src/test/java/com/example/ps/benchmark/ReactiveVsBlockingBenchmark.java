@@ -0,0 +1,81 @@
+package com.example.ps.benchmark;
+
+import com.example.ps.ProductServicesApplication;
+import com.example.ps.domain.Product;
+import com.example.ps.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the blocking and reactive listing endpoints under many more concurrent requests than
+ * Tomcat has threads. Every request reads a page from embedded MongoDB, starting at a random ID,
+ * so none is served from a cache. Prints throughput and latency percentiles for each path.
+ * <p>
+ * Not part of the regular build; run it with {@code mvn -Pbenchmark verify}.
+ */
+@SpringBootTest(
+    classes = ProductServicesApplication.class,
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "app.reactive.enabled=true",
+        "server.tomcat.threads.max=16",
+        "logging.level.com.example.ps=WARN"
+    }
+)
+@ActiveProfiles("test")
+class ReactiveVsBlockingBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveVsBlockingBenchmark.class);
+
+    private static final int PRODUCTS = 5_000;
+    private static final int CONCURRENCY = 256;
+    private static final int WARM_UP_REQUESTS = 2_000;
+    private static final int MEASURED_REQUESTS = 20_000;
+    private static final int PAGE_SIZE = 20;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private HttpLoad load;
+
+    @BeforeEach
+    void setUp() {
+        BenchmarkCatalog.seed(productRepository, PRODUCTS);
+        load = new HttpLoad(port, PRODUCTS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        load.close();
+    }
+
+    @Test
+    void compareBlockingAndReactiveListing() throws Exception {
+        HttpLoad.Result blocking = run("/api/products");
+        HttpLoad.Result reactive = run("/api/reactive/products");
+
+        logger.warn("{}", HttpLoad.Result.header("path"));
+        logger.warn("{}", blocking.format("blocking"));
+        logger.warn("{}", reactive.format("reactive"));
+
+        assertEquals(0, blocking.failures());
+        assertEquals(0, reactive.failures());
+    }
+
+    private HttpLoad.Result run(String path) throws InterruptedException {
+        load.run(path, PAGE_SIZE, WARM_UP_REQUESTS, CONCURRENCY);
+        return load.run(path, PAGE_SIZE, MEASURED_REQUESTS, CONCURRENCY);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.ps.benchmark;
+
+import com.example.ps.ProductServicesApplication;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * The concurrency ceiling with the {@code virtual-threads} profile: each request gets its own
+ * virtual thread, so the 16-thread pool limit no longer applies and MongoDB's connection pool
+ * becomes the bound. Needs Java 21 or later.
+ */
+@SpringBootTest(
+    classes = ProductServicesApplication.class,
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {ConcurrencyCeilingBenchmark.PROPERTIES, "logging.level.com.example.ps=WARN"}
+)
+@ActiveProfiles({"test", "virtual-threads"})
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadsBenchmark extends ConcurrencyCeilingBenchmark {
+
+    @Override
+    String mode() {
+        return "Virtual";
+    }
+}
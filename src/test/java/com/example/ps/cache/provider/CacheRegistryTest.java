@@ -0,0 +1,30 @@
+package com.example.ps.cache.provider;
+
+import com.example.ps.cache.strategy.CacheStats;
+import com.example.ps.cache.strategy.KeyValueCache;
+import com.example.ps.config.CacheConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheRegistryTest {
+
+    @Test
+    void testSnapshotReadsLiveStatsByName() {
+        CacheRegistry registry = new CacheRegistry();
+        KeyValueCache<String, String> cache = new KeyValueCache<>(new CacheConfig("id-cache", 3, true));
+        registry.register("id-cache", cache::stats);
+
+        cache.save("key1", "value1");
+        cache.fetch("key1");
+
+        Map<String, CacheStats> snapshot = registry.snapshot();
+        assertEquals(List.of("id-cache"), List.copyOf(snapshot.keySet()));
+        assertEquals(1, snapshot.get("id-cache").hitCount());
+        assertEquals(1, registry.stats("id-cache").get().size());
+        assertTrue(registry.stats("unknown").isEmpty());
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.ps.cache.provider;
+
+import com.example.ps.domain.Product;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCodecTest {
+
+    private final ProductCodec codec = new ProductCodec();
+
+    @Test
+    void testRoundTrip() {
+        Product product = new Product("p-1", "Building Blocks \u263A", "TOY", "EDUCATIONAL", 2_499L, "3-5",
+            Map.of("color", "red", "pieces", "120"));
+
+        Product decoded = codec.decode(ByteBuffer.wrap(codec.encode(product)));
+
+        assertEquals(product, decoded);
+    }
+
+    @Test
+    void testRoundTripWithNullFields() {
+        Product product = new Product(null, "Ball", "TOY", "SPORTS", null, null, null);
+
+        Product decoded = codec.decode(ByteBuffer.wrap(codec.encode(product)));
+
+        assertEquals(product, decoded);
+        assertTrue(decoded.attributes().isEmpty());
+    }
+}
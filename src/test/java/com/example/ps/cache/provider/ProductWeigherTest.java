@@ -0,0 +1,38 @@
+package com.example.ps.cache.provider;
+
+import com.example.ps.domain.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductWeigherTest {
+
+    private final ProductWeigher weigher = new ProductWeigher();
+
+    @Test
+    void testAttributesDominateWeight() {
+        Product small = new Product("1", "Ball", "TOY", "SPORTS", 100L, "3-5", Map.of());
+        Map<String, String> attributes = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            attributes.put("attribute" + i, "some reasonably long attribute value " + i);
+        }
+        Product large = new Product("2", "Ball", "TOY", "SPORTS", 100L, "3-5", attributes);
+
+        int smallWeight = weigher.weigh("1", small);
+        int largeWeight = weigher.weigh("2", large);
+
+        assertTrue(smallWeight > 0);
+        assertTrue(largeWeight > 10 * smallWeight);
+    }
+
+    @Test
+    void testWeightGrowsWithStringLength() {
+        Product shortName = new Product("1", "A", "TOY", "SPORTS", 100L, null, null);
+        Product longName = new Product("1", "A".repeat(100), "TOY", "SPORTS", 100L, null, null);
+
+        assertEquals(96, weigher.weigh("1", longName) - weigher.weigh("1", shortName));
+    }
+}
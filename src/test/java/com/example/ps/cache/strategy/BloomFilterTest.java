@@ -0,0 +1,52 @@
+package com.example.ps.cache.strategy;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void testNoFalseNegatives() {
+        BloomFilter<String> filter = new BloomFilter<>(10_000, 0.01);
+
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("P" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("P" + i));
+        }
+    }
+
+    @Test
+    void testFalsePositiveRateStaysNearTarget() {
+        BloomFilter<String> filter = new BloomFilter<>(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("P" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("UNKNOWN" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void testEmptyFilterRejectsEverything() {
+        BloomFilter<String> filter = new BloomFilter<>(100, 0.01);
+
+        assertFalse(filter.mightContain("P1"));
+        assertTrue(filter.bitSize() >= 959);
+    }
+
+    @Test
+    void testInvalidSizingIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter<String>(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter<String>(100, 1.0));
+    }
+}
@@ -0,0 +1,367 @@
+package com.example.ps.cache.strategy;
+
+import com.example.ps.config.CacheConfig;
+import com.example.ps.config.CacheStrategy;
+import com.example.ps.config.ExpiryConfig;
+import com.example.ps.exception.CacheException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentLruCacheTest {
+
+    private ConcurrentLruCache<String, String> cache;
+    private CacheConfig cacheConfig;
+
+    @BeforeEach
+    void setUp() {
+        cacheConfig = new CacheConfig("test-cache", 3, true, CacheStrategy.CONCURRENT_LRU);
+        cache = new ConcurrentLruCache<>(cacheConfig);
+    }
+
+    @Test
+    void testSaveAndFetch() {
+        cache.save("key1", "value1");
+
+        Optional<String> result = cache.fetch("key1");
+
+        assertTrue(result.isPresent());
+        assertEquals("value1", result.get());
+    }
+
+    @Test
+    void testFetchNonExistentKey() {
+        assertFalse(cache.fetch("nonexistent").isPresent());
+        assertFalse(cache.fetch(null).isPresent());
+    }
+
+    @Test
+    void testNullKeyOrValueRejected() {
+        assertThrows(CacheException.class, () -> cache.save(null, "value"));
+        assertThrows(CacheException.class, () -> cache.save("key", null));
+    }
+
+    @Test
+    void testLRUEviction() {
+        cache.save("key1", "value1");
+        cache.save("key2", "value2");
+        cache.save("key3", "value3");
+        cache.save("key4", "value4");
+
+        assertEquals(3, cache.size());
+        assertFalse(cache.fetch("key1").isPresent());
+        assertTrue(cache.fetch("key2").isPresent());
+        assertTrue(cache.fetch("key3").isPresent());
+        assertTrue(cache.fetch("key4").isPresent());
+    }
+
+    @Test
+    void testLRUAccessOrder() {
+        cache.save("key1", "value1");
+        cache.save("key2", "value2");
+        cache.save("key3", "value3");
+
+        // Buffered read is replayed before the next eviction
+        cache.fetch("key1");
+        cache.save("key4", "value4");
+
+        assertTrue(cache.fetch("key1").isPresent());
+        assertFalse(cache.fetch("key2").isPresent());
+        assertTrue(cache.fetch("key3").isPresent());
+        assertTrue(cache.fetch("key4").isPresent());
+    }
+
+    @Test
+    void testOverwriteExistingKey() {
+        cache.save("key1", "value1");
+        cache.save("key1", "value2");
+
+        assertEquals(1, cache.size());
+        assertEquals("value2", cache.fetch("key1").get());
+    }
+
+    @Test
+    void testCacheCapacityRespected() {
+        CacheConfig largeCacheConfig = new CacheConfig("large-cache", 1000, true, CacheStrategy.CONCURRENT_LRU);
+        ConcurrentLruCache<Integer, String> largeCache = new ConcurrentLruCache<>(largeCacheConfig);
+
+        for (int i = 0; i < 1500; i++) {
+            largeCache.save(i, "value" + i);
+        }
+
+        assertEquals(1000, largeCache.size());
+        assertFalse(largeCache.fetch(0).isPresent());
+        assertTrue(largeCache.fetch(1499).isPresent());
+    }
+
+    @Test
+    void testHotKeySurvivesManyReadsAndWrites() {
+        cache.save("hot", "value");
+        for (int i = 0; i < 200; i++) {
+            cache.fetch("hot");
+            cache.save("key" + i, "value" + i);
+        }
+
+        assertTrue(cache.fetch("hot").isPresent());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void testThreadSafety() throws InterruptedException {
+        int numThreads = 10;
+        int itemsPerThread = 500;
+        CountDownLatch latch = new CountDownLatch(numThreads);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        AtomicInteger failures = new AtomicInteger();
+
+        for (int i = 0; i < numThreads; i++) {
+            final int threadId = i;
+            executor.submit(() -> {
+                try {
+                    for (int j = 0; j < itemsPerThread; j++) {
+                        String key = "key_" + threadId + "_" + (j % 20);
+                        cache.save(key, "value_" + j);
+                        cache.fetch(key);
+                        cache.fetch("key_0_0");
+                    }
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        latch.await();
+        executor.shutdown();
+
+        assertEquals(0, failures.get());
+        assertTrue(cache.size() <= cacheConfig.capacity());
+    }
+
+    @Test
+    void testExpireAfterWriteAcrossWheelLevels() {
+        AtomicLong ticker = new AtomicLong();
+        ExpiryConfig expiry = new ExpiryConfig(Duration.ofHours(2), null, null);
+        ConcurrentLruCache<String, String> expiring = new ConcurrentLruCache<>(
+            new CacheConfig("expiring", 10, true, CacheStrategy.CONCURRENT_LRU, expiry), null, ticker::get, Runnable::run);
+
+        expiring.save("key1", "value1");
+        ticker.addAndGet(Duration.ofMinutes(90).toNanos());
+        assertTrue(expiring.fetch("key1").isPresent());
+
+        ticker.addAndGet(Duration.ofMinutes(31).toNanos());
+        assertFalse(expiring.fetch("key1").isPresent());
+
+        // The next write advances the timer wheel and drops the expired entry
+        expiring.save("key2", "value2");
+        assertEquals(1, expiring.size());
+    }
+
+    @Test
+    void testRefreshAheadServesCurrentValue() {
+        AtomicLong ticker = new AtomicLong();
+        AtomicInteger loads = new AtomicInteger();
+        ExpiryConfig expiry = new ExpiryConfig(Duration.ofMinutes(10), null, Duration.ofMinutes(8));
+        ConcurrentLruCache<String, String> refreshing = new ConcurrentLruCache<>(
+            new CacheConfig("refreshing", 10, true, CacheStrategy.CONCURRENT_LRU, expiry),
+            key -> "reloaded" + loads.incrementAndGet(), ticker::get, Runnable::run);
+
+        refreshing.save("key1", "value1");
+        ticker.addAndGet(Duration.ofMinutes(9).toNanos());
+
+        assertTrue(refreshing.fetch("key1").isPresent());
+        assertEquals(1, loads.get());
+
+        ticker.addAndGet(Duration.ofMinutes(5).toNanos());
+        assertEquals("reloaded1", refreshing.fetch("key1").get());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testRefreshThatFindsNothingRemovesTheEntry() {
+        AtomicLong ticker = new AtomicLong();
+        ExpiryConfig expiry = new ExpiryConfig(Duration.ofMinutes(10), null, Duration.ofMinutes(8));
+        ConcurrentLruCache<String, String> refreshing = new ConcurrentLruCache<>(
+            new CacheConfig("refreshing", 10, true, CacheStrategy.CONCURRENT_LRU, expiry),
+            key -> null, ticker::get, Runnable::run);
+
+        refreshing.save("key1", "value1");
+        ticker.addAndGet(Duration.ofMinutes(9).toNanos());
+
+        assertTrue(refreshing.fetch("key1").isPresent());
+        assertFalse(refreshing.fetch("key1").isPresent());
+        assertEquals(0, refreshing.size());
+    }
+
+    @Test
+    void testWeightBudgetEvictsLeastRecentlyUsed() {
+        CacheConfig weighted = new CacheConfig("weighted", 100, true, CacheStrategy.CONCURRENT_LRU,
+            ExpiryConfig.NONE, 10);
+        ConcurrentLruCache<String, String> weightedCache = new ConcurrentLruCache<>(weighted, null, (k, v) -> v.length());
+
+        weightedCache.save("key1", "aaaa");
+        weightedCache.save("key2", "bbbb");
+        weightedCache.save("key3", "cccc");
+
+        assertFalse(weightedCache.fetch("key1").isPresent());
+        assertEquals(2, weightedCache.size());
+        assertEquals(8, weightedCache.weightedSize());
+
+        // Growing an entry past the budget pushes out the eldest other entry
+        weightedCache.save("key3", "cccccccc");
+        assertFalse(weightedCache.fetch("key2").isPresent());
+        assertEquals(8, weightedCache.weightedSize());
+    }
+
+    @Test
+    void testStatsCountHitsMissesAndEvictions() {
+        cache.save("key1", "value1");
+        cache.fetch("key1");
+        cache.fetch("missing");
+        cache.save("key2", "value2");
+        cache.save("key3", "value3");
+        cache.save("key4", "value4");
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(1, stats.evictionCount());
+        assertEquals(3, stats.size());
+    }
+
+    @Test
+    void testFetchOrLoadCoalescesConcurrentMisses() throws InterruptedException {
+        int numThreads = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(numThreads);
+        AtomicInteger loadedValues = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+
+        for (int i = 0; i < numThreads; i++) {
+            executor.submit(() -> {
+                try {
+                    Optional<String> value = cache.fetchOrLoad("key1", key -> {
+                        loads.incrementAndGet();
+                        awaitQuietly(release);
+                        return "loaded-" + key;
+                    });
+                    if (value.equals(Optional.of("loaded-key1"))) {
+                        loadedValues.incrementAndGet();
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        while (loads.get() == 0) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(50);
+        release.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(1, loads.get());
+        assertEquals(numThreads, loadedValues.get());
+        assertEquals(1, cache.stats().loadSuccessCount());
+    }
+
+    @Test
+    void testFetchOrLoadDoesNotCacheMissingValues() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertTrue(cache.fetchOrLoad("key1", key -> {
+            loads.incrementAndGet();
+            return null;
+        }).isEmpty());
+        assertTrue(cache.fetchOrLoad("key1", key -> {
+            loads.incrementAndGet();
+            return "value1";
+        }).isPresent());
+
+        assertEquals(2, loads.get());
+        assertEquals(Optional.of("value1"), cache.fetch("key1"));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void testInvalidateDuringBatchLoadKeepsThatResultOutOfCache() {
+        cache.save("key1", "value1");
+
+        Map<String, String> found = cache.fetchAllOrLoad(List.of("key1", "key2", "key3"), misses -> {
+            assertEquals(List.of("key2", "key3"), misses);
+            // A write to key2 lands while the old value is being loaded
+            cache.invalidate("key2");
+            return Map.of("key2", "stale", "key3", "value3");
+        });
+
+        assertEquals(Map.of("key1", "value1", "key2", "stale", "key3", "value3"), found);
+        assertFalse(cache.fetch("key2").isPresent());
+        assertEquals(Optional.of("value3"), cache.fetch("key3"));
+    }
+
+    @Test
+    void testInvalidateDuringLoadKeepsResultOutOfCache() {
+        Optional<String> loaded = cache.fetchOrLoad("key1", key -> {
+            // A write to the source lands while the old value is being loaded
+            cache.invalidate(key);
+            return "stale";
+        });
+
+        assertEquals(Optional.of("stale"), loaded);
+        assertFalse(cache.fetch("key1").isPresent());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testInvalidateSkipsPendingRefresh() {
+        AtomicLong ticker = new AtomicLong();
+        List<Runnable> pendingRefreshes = new ArrayList<>();
+        CacheConfig refreshingConfig = new CacheConfig("refreshing", 3, true, CacheStrategy.CONCURRENT_LRU,
+            new ExpiryConfig(Duration.ofMinutes(10), null, Duration.ofMinutes(8)));
+        ConcurrentLruCache<String, String> refreshing = new ConcurrentLruCache<>(
+            refreshingConfig, key -> "refreshed", ticker::get, pendingRefreshes::add);
+
+        refreshing.save("key1", "value1");
+        ticker.addAndGet(Duration.ofMinutes(9).toNanos());
+        refreshing.fetch("key1");
+        refreshing.invalidate("key1");
+        pendingRefreshes.forEach(Runnable::run);
+
+        assertFalse(refreshing.fetch("key1").isPresent());
+        assertEquals(0, refreshing.stats().evictionCount());
+    }
+
+    @Test
+    void testSaveAllThenFetchAll() {
+        cache.saveAll(Map.of("key1", "value1", "key2", "value2"));
+
+        Map<String, String> found = cache.fetchAll(List.of("key1", "key2", "missing"));
+
+        assertEquals(Map.of("key1", "value1", "key2", "value2"), found);
+        assertEquals(2, cache.size());
+    }
+}
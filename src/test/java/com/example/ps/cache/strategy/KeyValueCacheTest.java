@@ -1,13 +1,21 @@
 package com.example.ps.cache.strategy;
 
 import com.example.ps.config.CacheConfig;
+import com.example.ps.config.CacheStrategy;
+import com.example.ps.config.ExpiryConfig;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -155,4 +163,196 @@ class KeyValueCacheTest {
         assertEquals(0, cache.size());
         assertFalse(cache.fetch("any_key").isPresent());
     }
+
+    @Test
+    void testExpireAfterWrite() {
+        AtomicLong ticker = new AtomicLong();
+        ExpiryConfig expiry = new ExpiryConfig(Duration.ofMinutes(10), null, null);
+        KeyValueCache<String, String> expiring = new KeyValueCache<>(
+            new CacheConfig("expiring", 3, true, CacheStrategy.LRU, expiry), null, ticker::get, Runnable::run);
+
+        expiring.save("key1", "value1");
+        ticker.addAndGet(Duration.ofMinutes(9).toNanos());
+        assertTrue(expiring.fetch("key1").isPresent());
+
+        ticker.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertFalse(expiring.fetch("key1").isPresent());
+        assertEquals(0, expiring.size());
+    }
+
+    @Test
+    void testExpireAfterAccess() {
+        AtomicLong ticker = new AtomicLong();
+        ExpiryConfig expiry = new ExpiryConfig(null, Duration.ofMinutes(5), null);
+        KeyValueCache<String, String> expiring = new KeyValueCache<>(
+            new CacheConfig("expiring", 3, true, CacheStrategy.LRU, expiry), null, ticker::get, Runnable::run);
+
+        expiring.save("key1", "value1");
+        for (int i = 0; i < 5; i++) {
+            ticker.addAndGet(Duration.ofMinutes(4).toNanos());
+            assertTrue(expiring.fetch("key1").isPresent());
+        }
+
+        ticker.addAndGet(Duration.ofMinutes(6).toNanos());
+        assertFalse(expiring.fetch("key1").isPresent());
+    }
+
+    @Test
+    void testRefreshAheadReloadsWithoutBlocking() {
+        AtomicLong ticker = new AtomicLong();
+        AtomicInteger loads = new AtomicInteger();
+        ExpiryConfig expiry = new ExpiryConfig(Duration.ofMinutes(10), null, Duration.ofMinutes(8));
+        KeyValueCache<String, String> refreshing = new KeyValueCache<>(
+            new CacheConfig("refreshing", 3, true, CacheStrategy.LRU, expiry),
+            key -> "reloaded" + loads.incrementAndGet(), ticker::get, Runnable::run);
+
+        refreshing.save("key1", "value1");
+        ticker.addAndGet(Duration.ofMinutes(9).toNanos());
+
+        // The read that triggers the refresh still gets a value; the reload replaces it
+        assertTrue(refreshing.fetch("key1").isPresent());
+        assertEquals(1, loads.get());
+
+        // The reload reset the write time, so the entry outlives its original expiry
+        ticker.addAndGet(Duration.ofMinutes(5).toNanos());
+        assertEquals("reloaded1", refreshing.fetch("key1").get());
+    }
+
+    @Test
+    void testRefreshThatFindsNothingRemovesTheEntry() {
+        AtomicLong ticker = new AtomicLong();
+        ExpiryConfig expiry = new ExpiryConfig(Duration.ofMinutes(10), null, Duration.ofMinutes(8));
+        KeyValueCache<String, String> refreshing = new KeyValueCache<>(
+            new CacheConfig("refreshing", 3, true, CacheStrategy.LRU, expiry),
+            key -> null, ticker::get, Runnable::run);
+
+        refreshing.save("key1", "value1");
+        ticker.addAndGet(Duration.ofMinutes(9).toNanos());
+
+        // The key no longer exists, so the stale value is not served after the refresh
+        assertTrue(refreshing.fetch("key1").isPresent());
+        assertFalse(refreshing.fetch("key1").isPresent());
+        assertEquals(0, refreshing.size());
+    }
+
+    @Test
+    void testWeightBudgetEvictsLeastRecentlyUsed() {
+        CacheConfig weighted = new CacheConfig("weighted", 100, true, CacheStrategy.LRU, ExpiryConfig.NONE, 10);
+        KeyValueCache<String, String> weightedCache = new KeyValueCache<>(weighted, null, (k, v) -> v.length());
+
+        weightedCache.save("key1", "aaaa");
+        weightedCache.save("key2", "bbbb");
+        weightedCache.fetch("key1");
+        weightedCache.save("key3", "cccc");
+
+        assertTrue(weightedCache.fetch("key1").isPresent());
+        assertFalse(weightedCache.fetch("key2").isPresent());
+        assertTrue(weightedCache.fetch("key3").isPresent());
+        assertEquals(8, weightedCache.weightedSize());
+
+        // Replacing a value re-weighs the entry
+        weightedCache.save("key1", "a");
+        assertEquals(5, weightedCache.weightedSize());
+    }
+
+    @Test
+    void testStatsCountHitsMissesAndEvictions() {
+        cache.save("key1", "value1");
+        cache.fetch("key1");
+        cache.fetch("missing");
+        cache.save("key2", "value2");
+        cache.save("key3", "value3");
+        cache.save("key4", "value4");
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(0.5, stats.hitRate());
+        assertEquals(1, stats.evictionCount());
+        assertEquals(3, stats.size());
+    }
+
+    @Test
+    void testStatsCountRefreshLoads() {
+        AtomicLong ticker = new AtomicLong();
+        ExpiryConfig expiry = new ExpiryConfig(Duration.ofMinutes(10), null, Duration.ofMinutes(8));
+        KeyValueCache<String, String> refreshing = new KeyValueCache<>(
+            new CacheConfig("refreshing", 3, true, CacheStrategy.LRU, expiry),
+            key -> {
+                if (key.equals("broken")) {
+                    throw new IllegalStateException("database down");
+                }
+                return "reloaded";
+            }, ticker::get, Runnable::run);
+
+        refreshing.save("key1", "value1");
+        refreshing.save("broken", "value2");
+        ticker.addAndGet(Duration.ofMinutes(9).toNanos());
+        refreshing.fetch("key1");
+        refreshing.fetch("broken");
+
+        CacheStats stats = refreshing.stats();
+        assertEquals(1, stats.loadSuccessCount());
+        assertEquals(1, stats.loadFailureCount());
+        assertTrue(stats.totalLoadTimeNanos() >= 0);
+    }
+
+    @Test
+    void testFetchOrLoadLoadsOnceThenHits() {
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            Optional<String> value = cache.fetchOrLoad("key1", key -> {
+                loads.incrementAndGet();
+                return "value1";
+            });
+            assertEquals(Optional.of("value1"), value);
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(2, cache.stats().hitCount());
+        assertEquals(1, cache.stats().loadSuccessCount());
+    }
+
+    @Test
+    void testInvalidateRemovesEntryWithoutCountingEviction() {
+        cache.save("key1", "value1");
+        cache.save("key2", "value2");
+
+        cache.invalidate("key1");
+        cache.invalidate("missing");
+
+        assertFalse(cache.fetch("key1").isPresent());
+        assertTrue(cache.fetch("key2").isPresent());
+        assertEquals(1, cache.size());
+        assertEquals(0, cache.stats().evictionCount());
+    }
+
+    @Test
+    void testFetchAllOrLoadLoadsOnlyMissesOnce() {
+        cache.save("key1", "value1");
+        List<List<String>> batches = new ArrayList<>();
+
+        Map<String, String> found = cache.fetchAllOrLoad(List.of("key1", "key2", "key2", "unknown"), misses -> {
+            batches.add(misses);
+            return Map.of("key2", "value2");
+        });
+
+        assertEquals(List.of(List.of("key2", "unknown")), batches);
+        assertEquals(Map.of("key1", "value1", "key2", "value2"), found);
+        assertEquals(Optional.of("value2"), cache.fetch("key2"));
+        assertFalse(cache.fetch("unknown").isPresent());
+    }
+
+    @Test
+    void testFetchAllReturnsHitsInKeyOrder() {
+        cache.saveAll(Map.of("key1", "value1", "key2", "value2"));
+
+        Map<String, String> found = cache.fetchAll(List.of("key2", "missing", "key1"));
+
+        assertEquals(List.of("key2", "key1"), List.copyOf(found.keySet()));
+        assertEquals("value1", found.get("key1"));
+        assertEquals(2, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
 }
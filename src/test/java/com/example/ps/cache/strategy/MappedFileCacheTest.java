@@ -0,0 +1,147 @@
+package com.example.ps.cache.strategy;
+
+import com.example.ps.config.L2Config;
+import com.example.ps.exception.CacheException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFileCacheTest {
+
+    private Path directory;
+    private L2Config config;
+    private AtomicLong clock;
+    private MappedFileCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("l2-cache-test");
+        config = new L2Config(directory.resolve("cache.l2").toString(), 4096, Duration.ofHours(1));
+        clock = new AtomicLong(1_000_000);
+        cache = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        cache.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testSaveAndFetch() {
+        cache.save("key1", "value1");
+        cache.save("key1", "value2");
+
+        assertEquals("value2", cache.fetch("key1").get());
+        assertFalse(cache.fetch("missing").isPresent());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testNullKeyOrValueRejected() {
+        assertThrows(CacheException.class, () -> cache.save(null, "value"));
+        assertThrows(CacheException.class, () -> cache.save("key", null));
+    }
+
+    @Test
+    void testEntriesSurviveReopen() {
+        cache.save("key1", "value1");
+        cache.save("key2", "value2");
+        cache.invalidate("key2");
+        cache.close();
+
+        cache = open();
+
+        assertEquals("value1", cache.fetch("key1").get());
+        assertFalse(cache.fetch("key2").isPresent());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testFileCannotBeOpenedTwice() {
+        assertThrows(CacheException.class, this::open);
+    }
+
+    @Test
+    void testFullRingReclaimsOldestEntries() {
+        for (int i = 0; i < 100; i++) {
+            cache.save("key" + i, "value-" + i + "-padding-padding");
+        }
+
+        assertFalse(cache.fetch("key0").isPresent());
+        assertEquals("value-99-padding-padding", cache.fetch("key99").get());
+        assertTrue(cache.size() < 100);
+        assertEquals(100 - cache.size(), cache.stats().evictionCount());
+        assertTrue(cache.stats().weightedSize() <= 4096);
+
+        cache.close();
+        cache = open();
+        assertEquals("value-99-padding-padding", cache.fetch("key99").get());
+    }
+
+    @Test
+    void testEntriesExpireAfterWriteAcrossReopen() {
+        cache.save("key1", "value1");
+        cache.close();
+        clock.addAndGet(Duration.ofHours(2).toMillis());
+
+        cache = open();
+
+        assertFalse(cache.fetch("key1").isPresent());
+    }
+
+    @Test
+    void testCorruptRecordDropsItAndLaterRecords() throws IOException {
+        cache.save("key1", "value1");
+        cache.save("key2", "value2");
+        cache.close();
+        try (RandomAccessFile file = new RandomAccessFile(config.path(), "rw")) {
+            // First byte of key2's value: header, key1's record, key2's record header and key
+            file.seek(64 + (24 + 4 + 6) + 24 + 4);
+            file.write('X');
+        }
+
+        cache = open();
+
+        assertEquals("value1", cache.fetch("key1").get());
+        assertFalse(cache.fetch("key2").isPresent());
+        cache.save("key3", "value3");
+        assertEquals("value3", cache.fetch("key3").get());
+    }
+
+    @Test
+    void testOversizedValueIsNotCached() {
+        cache.save("key1", "x".repeat(3000));
+
+        assertFalse(cache.fetch("key1").isPresent());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testOversizedValueDropsTheOlderValue() {
+        cache.save("key1", "value1");
+        cache.save("key1", "x".repeat(3000));
+
+        assertFalse(cache.fetch("key1").isPresent());
+        cache.close();
+        cache = open();
+        assertFalse(cache.fetch("key1").isPresent());
+    }
+
+    private MappedFileCache<String, String> open() {
+        return new MappedFileCache<>(config, BinaryCodec.utf8(), BinaryCodec.utf8(), clock::get);
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.ps.cache.strategy;
+
+import com.example.ps.config.CacheConfig;
+import com.example.ps.config.CacheStrategy;
+import com.example.ps.config.ExpiryConfig;
+import com.example.ps.exception.CacheException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapCacheTest {
+
+    private OffHeapCache<String, String> cache;
+    private CacheConfig cacheConfig;
+
+    @BeforeEach
+    void setUp() {
+        // A budget of one segment keeps eviction order deterministic
+        cacheConfig = new CacheConfig("test-cache", 3, true, CacheStrategy.OFF_HEAP, ExpiryConfig.NONE, 256 * 1024);
+        cache = new OffHeapCache<>(cacheConfig, BinaryCodec.utf8(), BinaryCodec.utf8());
+    }
+
+    @Test
+    void testSaveAndFetch() {
+        cache.save("key1", "value1");
+
+        assertEquals("value1", cache.fetch("key1").get());
+        assertFalse(cache.fetch("missing").isPresent());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testOverwriteReplacesValue() {
+        cache.save("key1", "short");
+        cache.save("key1", "a considerably longer value that lands in another size class");
+
+        assertEquals("a considerably longer value that lands in another size class", cache.fetch("key1").get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testLruEvictionWhenCapacityExceeded() {
+        cache.save("key1", "value1");
+        cache.save("key2", "value2");
+        cache.save("key3", "value3");
+        cache.fetch("key1");
+
+        cache.save("key4", "value4");
+
+        assertTrue(cache.fetch("key1").isPresent());
+        assertFalse(cache.fetch("key2").isPresent());
+        assertTrue(cache.fetch("key3").isPresent());
+        assertTrue(cache.fetch("key4").isPresent());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void testMemoryBudgetEvictsWithinSizeClass() {
+        CacheConfig tiny = new CacheConfig("tiny", 10_000, true, CacheStrategy.OFF_HEAP, ExpiryConfig.NONE, 64 * 1024);
+        OffHeapCache<String, String> tinyCache = new OffHeapCache<>(tiny, BinaryCodec.utf8(), BinaryCodec.utf8());
+        String value = "x".repeat(1000);
+
+        for (int i = 0; i < 500; i++) {
+            tinyCache.save("key" + i, value);
+            assertTrue(tinyCache.weightedSize() <= 64 * 1024);
+        }
+
+        assertTrue(tinyCache.size() < 500);
+        assertEquals(value, tinyCache.fetch("key499").get());
+        assertFalse(tinyCache.fetch("key0").isPresent());
+    }
+
+    @Test
+    void testSlabsFilledByOneSizeAreReclaimedForAnother() {
+        // One segment of eight 64 KiB slabs, all carved into chunks for 1000-byte values
+        CacheConfig small = new CacheConfig("small", 10_000, true, CacheStrategy.OFF_HEAP, ExpiryConfig.NONE, 512 * 1024);
+        OffHeapCache<String, String> smallCache = new OffHeapCache<>(small, BinaryCodec.utf8(), BinaryCodec.utf8());
+        for (int i = 0; i < 1000; i++) {
+            smallCache.save("small" + i, "x".repeat(1000));
+        }
+        int filled = smallCache.size();
+
+        String large = "y".repeat(5000);
+        smallCache.save("large", large);
+        String medium = "z".repeat(200);
+        smallCache.save("medium", medium);
+
+        assertEquals(large, smallCache.fetch("large").get());
+        assertEquals(medium, smallCache.fetch("medium").get());
+        // Only the two reclaimed slabs' worth of 1000-byte entries was evicted
+        assertTrue(smallCache.size() - 2 >= filled * 6 / 8, "size " + smallCache.size() + " of " + filled);
+        assertTrue(smallCache.weightedSize() <= 512 * 1024);
+    }
+
+    @Test
+    void testValueLargerThanSlabIsNotCached() {
+        CacheConfig tiny = new CacheConfig("tiny", 10, true, CacheStrategy.OFF_HEAP, ExpiryConfig.NONE, 64 * 1024);
+        OffHeapCache<String, String> tinyCache = new OffHeapCache<>(tiny, BinaryCodec.utf8(), BinaryCodec.utf8());
+
+        tinyCache.save("huge", "x".repeat(128 * 1024));
+
+        assertFalse(tinyCache.fetch("huge").isPresent());
+        assertEquals(0, tinyCache.size());
+    }
+
+    @Test
+    void testRemovalKeepsProbeChainsIntact() {
+        CacheConfig config = new CacheConfig("many", 1_000, true, CacheStrategy.OFF_HEAP, ExpiryConfig.NONE, 256 * 1024);
+        OffHeapCache<String, String> many = new OffHeapCache<>(config, BinaryCodec.utf8(), BinaryCodec.utf8());
+
+        for (int i = 0; i < 5_000; i++) {
+            many.save("key" + i, "value" + i);
+        }
+        // The most recent thousand entries are all still reachable
+        for (int i = 4_000; i < 5_000; i++) {
+            assertEquals("value" + i, many.fetch("key" + i).orElse(null), "key" + i);
+        }
+    }
+
+    @Test
+    void testExpireAfterWrite() {
+        AtomicLong ticker = new AtomicLong();
+        ExpiryConfig expiry = new ExpiryConfig(Duration.ofMinutes(10), null, null);
+        OffHeapCache<String, String> expiring = new OffHeapCache<>(
+            new CacheConfig("expiring", 10, true, CacheStrategy.OFF_HEAP, expiry, 256 * 1024),
+            BinaryCodec.utf8(), BinaryCodec.utf8(), null, ticker::get, Runnable::run);
+
+        expiring.save("key1", "value1");
+        ticker.addAndGet(Duration.ofMinutes(11).toNanos());
+
+        assertFalse(expiring.fetch("key1").isPresent());
+        assertEquals(0, expiring.size());
+    }
+
+    @Test
+    void testRefreshAheadReloadsWithoutBlocking() {
+        AtomicLong ticker = new AtomicLong();
+        AtomicInteger loads = new AtomicInteger();
+        ExpiryConfig expiry = new ExpiryConfig(Duration.ofMinutes(10), null, Duration.ofMinutes(8));
+        OffHeapCache<String, String> refreshing = new OffHeapCache<>(
+            new CacheConfig("refreshing", 10, true, CacheStrategy.OFF_HEAP, expiry, 256 * 1024),
+            BinaryCodec.utf8(), BinaryCodec.utf8(), key -> "reloaded" + loads.incrementAndGet(),
+            ticker::get, Runnable::run);
+
+        refreshing.save("key1", "value1");
+        ticker.addAndGet(Duration.ofMinutes(9).toNanos());
+
+        assertEquals("value1", refreshing.fetch("key1").get());
+        assertEquals("reloaded1", refreshing.fetch("key1").get());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testRefreshThatFindsNothingRemovesTheEntry() {
+        AtomicLong ticker = new AtomicLong();
+        ExpiryConfig expiry = new ExpiryConfig(Duration.ofMinutes(10), null, Duration.ofMinutes(8));
+        OffHeapCache<String, String> refreshing = new OffHeapCache<>(
+            new CacheConfig("refreshing", 10, true, CacheStrategy.OFF_HEAP, expiry, 256 * 1024),
+            BinaryCodec.utf8(), BinaryCodec.utf8(), key -> null, ticker::get, Runnable::run);
+
+        refreshing.save("key1", "value1");
+        ticker.addAndGet(Duration.ofMinutes(9).toNanos());
+
+        assertEquals("value1", refreshing.fetch("key1").get());
+        assertFalse(refreshing.fetch("key1").isPresent());
+        assertEquals(0, refreshing.size());
+    }
+
+    @Test
+    void testNullKeyAndValue() {
+        assertThrows(CacheException.class, () -> cache.save(null, "value"));
+        assertThrows(CacheException.class, () -> cache.save("key", null));
+        assertFalse(cache.fetch(null).isPresent());
+    }
+
+    @Test
+    void testThreadSafety() throws InterruptedException {
+        CacheConfig config = new CacheConfig("concurrent", 500, true, CacheStrategy.OFF_HEAP, ExpiryConfig.NONE,
+            16 * 1024 * 1024);
+        OffHeapCache<String, String> concurrent = new OffHeapCache<>(config, BinaryCodec.utf8(), BinaryCodec.utf8());
+        int numThreads = 8;
+        CountDownLatch latch = new CountDownLatch(numThreads);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        for (int i = 0; i < numThreads; i++) {
+            final int threadId = i;
+            executor.submit(() -> {
+                try {
+                    for (int j = 0; j < 5_000; j++) {
+                        String key = "key" + ((threadId * 31 + j) % 1_000);
+                        concurrent.save(key, "value-" + key);
+                        concurrent.fetch(key).ifPresent(value -> assertEquals("value-" + key, value));
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertNull(failure.get());
+        assertTrue(concurrent.size() <= 500 + 15);
+    }
+
+    @Test
+    void testStatsCountHitsMissesAndEvictions() {
+        cache.save("key1", "value1");
+        cache.fetch("key1");
+        cache.fetch("missing");
+        cache.save("key2", "value2");
+        cache.save("key3", "value3");
+        cache.save("key4", "value4");
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(1, stats.evictionCount());
+        assertEquals(3, stats.size());
+        assertTrue(stats.weightedSize() > 0);
+    }
+
+    @Test
+    void testInvalidateFreesChunk() {
+        cache.save("key1", "value1");
+        long used = cache.weightedSize();
+
+        cache.invalidate("key1");
+
+        assertFalse(cache.fetch("key1").isPresent());
+        assertEquals(0, cache.size());
+        assertTrue(used > 0);
+        assertEquals(0, cache.weightedSize());
+    }
+}
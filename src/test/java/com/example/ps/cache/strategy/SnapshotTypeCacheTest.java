@@ -0,0 +1,264 @@
+package com.example.ps.cache.strategy;
+
+import com.example.ps.config.ExpiryConfig;
+import com.example.ps.config.TypeCacheConfig;
+import com.example.ps.config.TypeCacheStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotTypeCacheTest {
+
+    private SnapshotTypeCache<String, String> cache;
+    private TypeCacheConfig cacheConfig;
+
+    @BeforeEach
+    void setUp() {
+        cacheConfig = new TypeCacheConfig("test-snapshot-cache", 5, 10, true, TypeCacheStrategy.SNAPSHOT);
+        cache = new SnapshotTypeCache<>(cacheConfig);
+    }
+
+    @Test
+    void testSaveAndFetch() {
+        cache.save("TYPE1", List.of("item1", "item2"));
+
+        Set<String> resultSet = new HashSet<>();
+        cache.fetch("TYPE1").forEach(resultSet::add);
+
+        assertEquals(Set.of("item1", "item2"), resultSet);
+        assertEquals(2, cache.totalSize());
+        assertEquals(2, cache.typeSize("TYPE1"));
+        assertNull(cache.fetch("MISSING"));
+        assertEquals(0, cache.typeSize("MISSING"));
+    }
+
+    @Test
+    void testFetchedSnapshotIsNotChangedByLaterWrites() {
+        cache.save("TYPE1", List.of("item1", "item2"));
+        Iterable<String> before = cache.fetch("TYPE1");
+
+        cache.save("TYPE1", List.of("item3"));
+
+        List<String> beforeList = new ArrayList<>();
+        before.forEach(beforeList::add);
+        assertEquals(List.of("item1", "item2"), beforeList);
+        assertEquals(3, cache.typeSize("TYPE1"));
+        assertThrows(UnsupportedOperationException.class, () -> before.iterator().remove());
+    }
+
+    @Test
+    void testTypeOverCapacityIsNotCached() {
+        cache.save("TYPE1", List.of("item1", "item2", "item3", "item4", "item5", "item6"));
+
+        assertNull(cache.fetch("TYPE1"));
+        assertEquals(0, cache.totalSize());
+        assertEquals(6, cache.stats().evictionCount());
+    }
+
+    @Test
+    void testGlobalEvictionWithdrawsWholeType() {
+        cache.save("TYPE1", List.of("a1", "a2", "a3", "a4", "a5"));
+        cache.save("TYPE2", List.of("b1", "b2", "b3", "b4", "b5"));
+
+        cache.save("TYPE3", List.of("c1"));
+
+        assertEquals(6, cache.totalSize());
+        assertNull(cache.fetch("TYPE1"));
+        List<String> items = new ArrayList<>();
+        cache.fetch("TYPE2").forEach(items::add);
+        assertEquals(List.of("b1", "b2", "b3", "b4", "b5"), items);
+    }
+
+    @Test
+    void testHitReturnsTheListAsSaved() {
+        TypeCacheConfig smallConfig = new TypeCacheConfig("ranked", 5, 10, true, TypeCacheStrategy.SNAPSHOT);
+        SnapshotTypeCache<String, String> ranked = new SnapshotTypeCache<>(smallConfig);
+        List<String> ranking = List.of("best", "second", "third", "fourth", "fifth");
+
+        List<String> miss = new ArrayList<>();
+        ranked.fetchOrLoad("QUERY", query -> ranking).forEach(miss::add);
+        List<String> hit = new ArrayList<>();
+        ranked.fetchOrLoad("QUERY", query -> List.of()).forEach(hit::add);
+
+        assertEquals(ranking, miss);
+        assertEquals(miss, hit);
+    }
+
+    @Test
+    void testEvictingLastItemWithdrawsType() {
+        TypeCacheConfig smallConfig = new TypeCacheConfig("small", 2, 2, true, TypeCacheStrategy.SNAPSHOT);
+        SnapshotTypeCache<String, String> small = new SnapshotTypeCache<>(smallConfig);
+
+        small.save("TYPE1", List.of("a1"));
+        small.save("TYPE2", List.of("b1", "b2"));
+
+        assertNull(small.fetch("TYPE1"));
+        assertEquals(2, small.totalSize());
+    }
+
+    @Test
+    void testTypeExpiresAfterWrite() {
+        AtomicLong ticker = new AtomicLong();
+        TypeCacheConfig expiringConfig = new TypeCacheConfig("expiring", 5, 10, true,
+            TypeCacheStrategy.SNAPSHOT, new ExpiryConfig(Duration.ofMinutes(10), null, null));
+        SnapshotTypeCache<String, String> expiring = new SnapshotTypeCache<>(expiringConfig, null, ticker::get, Runnable::run);
+
+        expiring.save("TYPE1", List.of("item1", "item2"));
+        ticker.addAndGet(Duration.ofMinutes(11).toNanos());
+
+        assertNull(expiring.fetch("TYPE1"));
+
+        expiring.save("TYPE2", List.of("item3"));
+        assertEquals(1, expiring.totalSize());
+        assertEquals(0, expiring.typeSize("TYPE1"));
+    }
+
+    @Test
+    void testRefreshAheadPublishesNewItems() {
+        AtomicLong ticker = new AtomicLong();
+        TypeCacheConfig refreshingConfig = new TypeCacheConfig("refreshing", 5, 10, true,
+            TypeCacheStrategy.SNAPSHOT, new ExpiryConfig(Duration.ofMinutes(10), null, Duration.ofMinutes(8)));
+        SnapshotTypeCache<String, String> refreshing = new SnapshotTypeCache<>(
+            refreshingConfig, type -> List.of("fresh1"), ticker::get, Runnable::run);
+
+        refreshing.save("TYPE1", List.of("stale1", "stale2"));
+        ticker.addAndGet(Duration.ofMinutes(9).toNanos());
+        assertNotNull(refreshing.fetch("TYPE1"));
+
+        List<String> items = new ArrayList<>();
+        refreshing.fetch("TYPE1").forEach(items::add);
+        assertEquals(List.of("fresh1"), items);
+        assertEquals(1, refreshing.totalSize());
+    }
+
+    @Test
+    void testRefreshThatFindsNothingRemovesTheType() {
+        AtomicLong ticker = new AtomicLong();
+        TypeCacheConfig refreshingConfig = new TypeCacheConfig("refreshing", 5, 10, true,
+            TypeCacheStrategy.SNAPSHOT, new ExpiryConfig(Duration.ofMinutes(10), null, Duration.ofMinutes(8)));
+        SnapshotTypeCache<String, String> refreshing = new SnapshotTypeCache<>(
+            refreshingConfig, type -> null, ticker::get, Runnable::run);
+
+        refreshing.save("TYPE1", List.of("stale1", "stale2"));
+        ticker.addAndGet(Duration.ofMinutes(9).toNanos());
+        assertNotNull(refreshing.fetch("TYPE1"));
+
+        assertNull(refreshing.fetch("TYPE1"));
+        assertEquals(0, refreshing.totalSize());
+    }
+
+    @Test
+    void testReadersIterateWhileWritersSave() throws InterruptedException {
+        TypeCacheConfig config = new TypeCacheConfig("contended", 50, 100, true, TypeCacheStrategy.SNAPSHOT);
+        SnapshotTypeCache<String, String> contended = new SnapshotTypeCache<>(config);
+        int numThreads = 8;
+        CountDownLatch latch = new CountDownLatch(numThreads);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        for (int i = 0; i < numThreads; i++) {
+            final int threadId = i;
+            executor.submit(() -> {
+                try {
+                    for (int j = 0; j < 5_000; j++) {
+                        String type = "TYPE_" + (j % 3);
+                        if (threadId % 2 == 0) {
+                            contended.save(type, List.of("item_" + threadId + "_" + j));
+                        } else {
+                            Iterable<String> items = contended.fetch(type);
+                            if (items != null) {
+                                for (String item : items) {
+                                    assertNotNull(item);
+                                }
+                            }
+                        }
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertNull(failure.get());
+        assertTrue(contended.totalSize() <= config.count());
+        for (int t = 0; t < 3; t++) {
+            assertTrue(contended.typeSize("TYPE_" + t) <= config.capacity());
+        }
+    }
+
+    @Test
+    void testWeightBudgetRepublishesEvictedTypes() {
+        TypeCacheConfig weighted = new TypeCacheConfig("weighted", 5, 10, true, TypeCacheStrategy.SNAPSHOT,
+            ExpiryConfig.NONE, 10);
+        SnapshotTypeCache<String, String> weightedCache =
+            new SnapshotTypeCache<>(weighted, null, (t, item) -> item.length());
+
+        weightedCache.save("TYPE1", List.of("aaaa"));
+        weightedCache.save("TYPE2", List.of("bbbb", "cccc"));
+
+        assertNull(weightedCache.fetch("TYPE1"));
+        assertEquals(2, weightedCache.totalSize());
+        assertEquals(8, weightedCache.weightedSize());
+    }
+
+    @Test
+    void testStatsCountTypeLookupsAndItemEvictions() {
+        cache.save("TYPE1", List.of("a1", "a2", "a3", "a4", "a5"));
+        cache.save("TYPE2", List.of("b1", "b2", "b3", "b4", "b5"));
+        cache.fetch("TYPE1");
+        cache.save("TYPE3", List.of("c1", "c2"));
+        cache.fetch("MISSING");
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(5, stats.evictionCount());
+        assertEquals(7, stats.size());
+    }
+
+    @Test
+    void testFetchOrLoadPropagatesFailureWithoutCaching() {
+        assertThrows(IllegalStateException.class, () -> cache.fetchOrLoad("TYPE1", type -> {
+            throw new IllegalStateException("database down");
+        }));
+        assertNull(cache.fetch("TYPE1"));
+
+        List<String> items = new ArrayList<>();
+        cache.fetchOrLoad("TYPE1", type -> List.of("item1")).forEach(items::add);
+
+        assertEquals(List.of("item1"), items);
+        assertEquals(1, cache.stats().loadFailureCount());
+        assertEquals(1, cache.stats().loadSuccessCount());
+    }
+
+    @Test
+    void testInvalidateWithdrawsSnapshot() {
+        cache.save("TYPE1", List.of("item1", "item2"));
+        cache.save("TYPE2", List.of("item3"));
+
+        cache.invalidate("TYPE1");
+
+        assertNull(cache.fetch("TYPE1"));
+        assertEquals(0, cache.typeSize("TYPE1"));
+        assertEquals(1, cache.totalSize());
+        assertEquals(0, cache.stats().evictionCount());
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.ps.cache.strategy;
+
+import com.example.ps.config.CacheConfig;
+import com.example.ps.config.CacheStrategy;
+import com.example.ps.config.L2Config;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredCacheTest {
+
+    private Path directory;
+    private L2Config l2Config;
+    private TieredCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("tiered-cache-test");
+        l2Config = new L2Config(directory.resolve("cache.l2").toString(), 64 * 1024, Duration.ofHours(1));
+        cache = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        cache.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testRestartServesFromSecondTierWithoutLoading() {
+        cache.fetchOrLoad("key1", key -> "value1");
+        cache.close();
+        cache = open();
+        AtomicInteger loads = new AtomicInteger();
+
+        Optional<String> value = cache.fetchOrLoad("key1", key -> {
+            loads.incrementAndGet();
+            return "reloaded";
+        });
+
+        assertEquals(Optional.of("value1"), value);
+        assertEquals(0, loads.get());
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.secondTier().stats().hitCount());
+    }
+
+    @Test
+    void testFetchPromotesSecondTierHit() {
+        cache.secondTier().save("key1", "value1");
+
+        assertEquals(Optional.of("value1"), cache.fetch("key1"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testInvalidateClearsBothTiers() {
+        cache.save("key1", "value1");
+
+        cache.invalidate("key1");
+
+        assertFalse(cache.fetch("key1").isPresent());
+        assertEquals(0, cache.secondTier().size());
+    }
+
+    @Test
+    void testInvalidateDuringLoadKeepsResultOutOfBothTiers() {
+        Optional<String> loaded = cache.fetchOrLoad("key1", key -> {
+            cache.invalidate(key);
+            return "stale";
+        });
+
+        assertEquals(Optional.of("stale"), loaded);
+        assertFalse(cache.fetch("key1").isPresent());
+        assertEquals(0, cache.secondTier().size());
+    }
+
+    private TieredCache<String, String> open() {
+        CacheConfig config = new CacheConfig("tiered", 10, true, CacheStrategy.CONCURRENT_LRU);
+        return new TieredCache<>(new ConcurrentLruCache<>(config),
+            new MappedFileCache<>(l2Config, BinaryCodec.utf8(), BinaryCodec.utf8()));
+    }
+
+    @Test
+    void testFetchAllPromotesSecondTierHitsInKeyOrder() {
+        cache.save("key1", "value1");
+        cache.secondTier().save("key2", "value2");
+
+        Map<String, String> found = cache.fetchAll(List.of("key2", "missing", "key1"));
+
+        assertEquals(List.of("key2", "key1"), List.copyOf(found.keySet()));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testSaveAllWritesBothTiers() {
+        cache.saveAll(Map.of("key1", "value1", "key2", "value2"));
+
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.secondTier().size());
+    }
+}
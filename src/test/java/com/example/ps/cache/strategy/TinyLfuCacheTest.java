@@ -0,0 +1,201 @@
+package com.example.ps.cache.strategy;
+
+import com.example.ps.config.CacheConfig;
+import com.example.ps.config.CacheStrategy;
+import com.example.ps.config.ExpiryConfig;
+import com.example.ps.exception.CacheException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TinyLfuCacheTest {
+
+    private TinyLfuCache<String, String> cache;
+    private CacheConfig cacheConfig;
+
+    @BeforeEach
+    void setUp() {
+        cacheConfig = new CacheConfig("test-cache", 100, true, CacheStrategy.TINY_LFU);
+        cache = new TinyLfuCache<>(cacheConfig);
+    }
+
+    @Test
+    void testSaveAndFetch() {
+        cache.save("key1", "value1");
+
+        assertEquals("value1", cache.fetch("key1").get());
+        assertFalse(cache.fetch("missing").isPresent());
+        assertFalse(cache.fetch(null).isPresent());
+    }
+
+    @Test
+    void testNullKeyOrValueRejected() {
+        assertThrows(CacheException.class, () -> cache.save(null, "value"));
+        assertThrows(CacheException.class, () -> cache.save("key", null));
+    }
+
+    @Test
+    void testOverwriteExistingKey() {
+        cache.save("key1", "value1");
+        cache.save("key1", "value2");
+
+        assertEquals(1, cache.size());
+        assertEquals("value2", cache.fetch("key1").get());
+    }
+
+    @Test
+    void testCapacityRespected() {
+        for (int i = 0; i < 1000; i++) {
+            cache.save("key" + i, "value" + i);
+        }
+
+        assertEquals(cacheConfig.capacity(), cache.size());
+    }
+
+    @Test
+    void testHotKeysSurviveScan() {
+        for (int i = 0; i < 50; i++) {
+            cache.save("hot" + i, "value");
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.fetch("hot" + i);
+            }
+        }
+
+        // A crawler sweep of one-off keys, far larger than the cache
+        for (int i = 0; i < 1000; i++) {
+            cache.save("scan" + i, "value");
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(cache.fetch("hot" + i).isPresent(), "hot" + i + " was evicted");
+        }
+    }
+
+    @Test
+    void testLruLosesHotKeysToSameScan() {
+        ConcurrentLruCache<String, String> lru = new ConcurrentLruCache<>(
+            new CacheConfig("lru", 100, true, CacheStrategy.CONCURRENT_LRU));
+        for (int i = 0; i < 50; i++) {
+            lru.save("hot" + i, "value");
+            lru.fetch("hot" + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            lru.save("scan" + i, "value");
+        }
+
+        assertFalse(lru.fetch("hot0").isPresent());
+    }
+
+    @Test
+    void testFrequentlyMissedKeyIsAdmitted() {
+        for (int i = 0; i < 200; i++) {
+            cache.save("filler" + i, "value");
+        }
+        for (int i = 0; i < 5; i++) {
+            cache.fetch("popular");
+        }
+
+        cache.save("popular", "value");
+        cache.save("oneoff", "value");
+        // Pushes both candidates out of the admission window
+        cache.save("next", "value");
+
+        assertTrue(cache.fetch("popular").isPresent());
+        assertFalse(cache.fetch("oneoff").isPresent());
+    }
+
+    @Test
+    void testFrequencySketchEstimates() {
+        FrequencySketch<String> sketch = new FrequencySketch<>(64);
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("hot");
+        }
+        sketch.increment("cold");
+
+        assertTrue(sketch.frequency("hot") >= 5);
+        assertTrue(sketch.frequency("cold") >= 1);
+        assertTrue(sketch.frequency("hot") > sketch.frequency("cold"));
+
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("hot");
+        }
+        assertEquals(15, sketch.frequency("hot"));
+    }
+
+    @Test
+    void testThreadSafety() throws InterruptedException {
+        int numThreads = 8;
+        CountDownLatch latch = new CountDownLatch(numThreads);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        AtomicInteger failures = new AtomicInteger();
+
+        for (int i = 0; i < numThreads; i++) {
+            final int threadId = i;
+            executor.submit(() -> {
+                try {
+                    for (int j = 0; j < 2000; j++) {
+                        String key = "key_" + ((threadId * 31 + j) % 300);
+                        if (cache.fetch(key).isEmpty()) {
+                            cache.save(key, "value");
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        latch.await();
+        executor.shutdown();
+
+        assertEquals(0, failures.get());
+        assertTrue(cache.size() <= cacheConfig.capacity());
+    }
+
+    @Test
+    void testWeightBudgetIsEnforced() {
+        CacheConfig weighted = new CacheConfig("weighted", 100, true, CacheStrategy.TINY_LFU, ExpiryConfig.NONE, 100);
+        TinyLfuCache<String, String> weightedCache = new TinyLfuCache<>(weighted, null, (k, v) -> v.length());
+
+        for (int i = 0; i < 50; i++) {
+            weightedCache.save("key" + i, "0123456789");
+            assertTrue(weightedCache.weightedSize() <= 100);
+        }
+        assertTrue(weightedCache.size() <= 10);
+    }
+
+    @Test
+    void testStatsCountRejectedCandidatesAsEvictions() {
+        for (int i = 0; i < 150; i++) {
+            cache.save("key" + i, "value" + i);
+        }
+
+        CacheStats stats = cache.stats();
+        assertEquals(100, stats.size());
+        assertEquals(50, stats.evictionCount());
+    }
+
+    @Test
+    void testInvalidateReleasesWeight() {
+        CacheConfig weighted = new CacheConfig("weighted", 100, true, CacheStrategy.TINY_LFU, ExpiryConfig.NONE, 100);
+        TinyLfuCache<String, String> weightedCache = new TinyLfuCache<>(weighted, null, (k, v) -> v.length());
+
+        weightedCache.save("key1", "value1");
+        weightedCache.save("key2", "value22");
+        weightedCache.invalidate("key1");
+
+        assertFalse(weightedCache.fetch("key1").isPresent());
+        assertEquals(7, weightedCache.weightedSize());
+        assertEquals(0, weightedCache.stats().evictionCount());
+    }
+}
@@ -1,15 +1,22 @@
 package com.example.ps.cache.strategy;
 
+import com.example.ps.config.ExpiryConfig;
 import com.example.ps.config.TypeCacheConfig;
+import com.example.ps.config.TypeCacheStrategy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -37,6 +44,22 @@ class TypeBasedCacheTest {
         assertEquals(1, cache.typeSize("TYPE1"));
     }
 
+    @Test
+    void testFetchedItemsAreUnaffectedByLaterWrites() {
+        cache.save("TYPE1", List.of("item1", "item2"));
+
+        Iterable<String> result = cache.fetch("TYPE1");
+        List<String> seen = new ArrayList<>();
+        for (String item : result) {
+            // A concurrent request writing the same type while this one iterates
+            cache.save("TYPE1", List.of("item3"));
+            cache.fetch("TYPE1");
+            seen.add(item);
+        }
+
+        assertEquals(List.of("item1", "item2"), seen);
+    }
+
     @Test
     void testSaveMultipleItemsForSameType() {
         cache.save("TYPE1", List.of("item1", "item2", "item3"));
@@ -90,9 +113,10 @@ class TypeBasedCacheTest {
         // Adding more should trigger eviction
         cache.save("TYPE4", List.of("item11", "item12"));
         
-        // Should not exceed the count limit
+        // Should not exceed the count limit; TYPE1 is evicted whole
         assertTrue(cache.totalSize() <= cacheConfig.count());
-        assertEquals(10, cache.totalSize()); // Should be exactly at limit
+        assertEquals(9, cache.totalSize());
+        assertNull(cache.fetch("TYPE1"));
     }
 
     @Test
@@ -104,10 +128,12 @@ class TypeBasedCacheTest {
         
         assertEquals(10, cache.totalSize());
         
-        // Add more items - should evict oldest
+        // Add more items - should evict the oldest type
         cache.save("TYPE4", List.of("newest1", "newest2"));
         
-        assertEquals(10, cache.totalSize());
+        assertEquals(9, cache.totalSize());
+        assertNull(cache.fetch("TYPE1"));
+        assertEquals(3, cache.typeSize("TYPE2"));
         
         // TYPE4 should definitely be present (newest)
         assertNotNull(cache.fetch("TYPE4"));
@@ -176,8 +202,9 @@ class TypeBasedCacheTest {
         // Adding more to same type should respect per-type capacity
         smallCache.save("TYPE1", List.of("item3"));
         
-        // Should evict within the type to maintain capacity
-        assertEquals(2, smallCache.typeSize("TYPE1"));
+        // The type no longer fits whole, so none of it stays rather than a part
+        assertEquals(0, smallCache.typeSize("TYPE1"));
+        assertNull(smallCache.fetch("TYPE1"));
     }
 
     @Test
@@ -227,4 +254,178 @@ class TypeBasedCacheTest {
         assertTrue(resultSet.contains("item2"));
         assertTrue(resultSet.contains("item3"));
     }
+
+    @Test
+    void testTypeExpiresAfterWrite() {
+        AtomicLong ticker = new AtomicLong();
+        TypeCacheConfig expiringConfig = new TypeCacheConfig("expiring", 5, 10, true,
+            new ExpiryConfig(Duration.ofMinutes(10), null, null));
+        TypeBasedCache<String, String> expiring = new TypeBasedCache<>(expiringConfig, null, ticker::get, Runnable::run);
+
+        expiring.save("TYPE1", List.of("item1", "item2"));
+        ticker.addAndGet(Duration.ofMinutes(11).toNanos());
+
+        assertNull(expiring.fetch("TYPE1"));
+        assertEquals(0, expiring.totalSize());
+    }
+
+    @Test
+    void testRefreshAheadReplacesItems() {
+        AtomicLong ticker = new AtomicLong();
+        TypeCacheConfig refreshingConfig = new TypeCacheConfig("refreshing", 5, 10, true,
+            new ExpiryConfig(Duration.ofMinutes(10), null, Duration.ofMinutes(8)));
+        TypeBasedCache<String, String> refreshing = new TypeBasedCache<>(
+            refreshingConfig, type -> List.of("fresh1"), ticker::get, Runnable::run);
+
+        refreshing.save("TYPE1", List.of("stale1", "stale2"));
+        ticker.addAndGet(Duration.ofMinutes(9).toNanos());
+        assertNotNull(refreshing.fetch("TYPE1"));
+
+        Set<String> resultSet = new HashSet<>();
+        refreshing.fetch("TYPE1").forEach(resultSet::add);
+        assertEquals(Set.of("fresh1"), resultSet);
+        assertEquals(1, refreshing.totalSize());
+    }
+
+    @Test
+    void testRefreshThatFindsNothingRemovesTheType() {
+        AtomicLong ticker = new AtomicLong();
+        TypeCacheConfig refreshingConfig = new TypeCacheConfig("refreshing", 5, 10, true,
+            new ExpiryConfig(Duration.ofMinutes(10), null, Duration.ofMinutes(8)));
+        TypeBasedCache<String, String> refreshing = new TypeBasedCache<>(
+            refreshingConfig, type -> null, ticker::get, Runnable::run);
+
+        refreshing.save("TYPE1", List.of("stale1", "stale2"));
+        ticker.addAndGet(Duration.ofMinutes(9).toNanos());
+
+        // The inline executor refreshes before the read, which already finds the type gone
+        assertNull(refreshing.fetch("TYPE1"));
+        assertEquals(0, refreshing.totalSize());
+    }
+
+    @Test
+    void testGlobalEvictionRemovesLeastRecentlyUsedAcrossTypes() {
+        // Many types, so the oldest item is unlikely to sit in the first HashMap bucket
+        for (int i = 0; i < 10; i++) {
+            cache.save("TYPE" + i, List.of("item" + i));
+        }
+        // Touch everything except TYPE7
+        for (int i = 0; i < 10; i++) {
+            if (i != 7) {
+                cache.save("TYPE" + i, List.of("item" + i));
+            }
+        }
+
+        cache.save("NEW", List.of("newItem"));
+
+        assertEquals(10, cache.totalSize());
+        assertNull(cache.fetch("TYPE7"));
+        for (int i = 0; i < 10; i++) {
+            if (i != 7) {
+                assertNotNull(cache.fetch("TYPE" + i), "TYPE" + i + " should survive");
+            }
+        }
+    }
+
+    @Test
+    void testFetchMarksTypeAsRecentlyUsed() {
+        cache.save("TYPE1", List.of("a1", "a2", "a3", "a4", "a5"));
+        cache.save("TYPE2", List.of("b1", "b2", "b3", "b4", "b5"));
+
+        // TYPE1 is older but was just read, so TYPE2 is evicted instead
+        cache.fetch("TYPE1");
+        cache.save("TYPE3", List.of("c1"));
+
+        assertEquals(5, cache.typeSize("TYPE1"));
+        assertEquals(0, cache.typeSize("TYPE2"));
+        assertEquals(6, cache.totalSize());
+    }
+
+    @Test
+    void testWeightBudgetEvictsAcrossTypes() {
+        TypeCacheConfig weighted = new TypeCacheConfig("weighted", 5, 10, true, TypeCacheStrategy.LRU,
+            ExpiryConfig.NONE, 10);
+        TypeBasedCache<String, String> weightedCache = new TypeBasedCache<>(weighted, null, (t, item) -> item.length());
+
+        weightedCache.save("TYPE1", List.of("aaaa", "bbbb"));
+        weightedCache.save("TYPE2", List.of("cccc"));
+
+        assertEquals(0, weightedCache.typeSize("TYPE1"));
+        assertEquals(1, weightedCache.typeSize("TYPE2"));
+        assertEquals(4, weightedCache.weightedSize());
+    }
+
+    @Test
+    void testStatsCountTypeLookupsAndItemEvictions() {
+        cache.save("TYPE1", List.of("a1", "a2", "a3", "a4", "a5"));
+        cache.save("TYPE2", List.of("b1", "b2", "b3", "b4", "b5", "b6"));
+        cache.fetch("TYPE1");
+        cache.fetch("MISSING");
+
+        // TYPE2 exceeds the per-type capacity of 5 and is evicted whole
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(6, stats.evictionCount());
+        assertEquals(5, stats.size());
+    }
+
+    @Test
+    void testFetchOrLoadCoalescesConcurrentMisses() throws InterruptedException {
+        int numThreads = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(numThreads);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+
+        for (int i = 0; i < numThreads; i++) {
+            executor.submit(() -> {
+                try {
+                    cache.fetchOrLoad("TYPE1", type -> {
+                        loads.incrementAndGet();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return List.of("item1", "item2");
+                    });
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        while (loads.get() == 0) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(50);
+        release.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(1, loads.get());
+        assertEquals(2, cache.typeSize("TYPE1"));
+    }
+
+    @Test
+    void testInvalidateRemovesTypeAndSkipsPendingRefresh() {
+        AtomicLong ticker = new AtomicLong();
+        List<Runnable> pendingRefreshes = new ArrayList<>();
+        TypeCacheConfig refreshingConfig = new TypeCacheConfig("refreshing", 5, 10, true,
+            new ExpiryConfig(Duration.ofMinutes(10), null, Duration.ofMinutes(8)));
+        TypeBasedCache<String, String> refreshing = new TypeBasedCache<>(
+            refreshingConfig, type -> List.of("fresh1"), ticker::get, pendingRefreshes::add);
+
+        refreshing.save("TYPE1", List.of("stale1", "stale2"));
+        refreshing.save("TYPE2", List.of("other"));
+        ticker.addAndGet(Duration.ofMinutes(9).toNanos());
+        refreshing.fetch("TYPE1");
+        refreshing.invalidate("TYPE1");
+        pendingRefreshes.forEach(Runnable::run);
+
+        assertNull(refreshing.fetch("TYPE1"));
+        assertEquals(1, refreshing.totalSize());
+        assertEquals(0, refreshing.stats().evictionCount());
+    }
 }
@@ -0,0 +1,291 @@
+package com.example.ps.catalog;
+
+import com.example.ps.domain.PriceSort;
+import com.example.ps.domain.Product;
+import com.example.ps.domain.RecommendationQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductColumnsTest {
+
+    private ProductColumns columns;
+
+    @BeforeEach
+    void setUp() {
+        columns = new ProductColumns();
+        columns.put(product("P1", "ELECTRONICS", "SMARTPHONE", 50000L, "18-45"));
+        columns.put(product("P2", "ELECTRONICS", "LAPTOP", 80000L, "22-65"));
+        columns.put(product("P3", "FASHION", "CLOTHING", 5000L, "18-50"));
+        columns.put(product("P4", "BOOKS", "FICTION", 500L, null));
+        columns.put(product("P5", "BOOKS", "FICTION", 700L, "teens"));
+    }
+
+    @Test
+    void testEmptyQueryReturnsEverythingInSlotOrder() {
+        assertEquals(List.of("P1", "P2", "P3", "P4", "P5"), ids(query(null, null, null, null, null)));
+    }
+
+    @Test
+    void testTypeAndCategoryMatchIgnoringCase() {
+        assertEquals(List.of("P1", "P2"), ids(query(null, null, "electronics", null, null)));
+        assertEquals(List.of("P2"), ids(query(null, null, "ELECTRONICS", "laptop", null)));
+    }
+
+    @Test
+    void testUnknownTypeMatchesNothing() {
+        assertEquals(List.of(), ids(query(null, null, "TOYS", null, null)));
+    }
+
+    @Test
+    void testPriceBoundsAreInclusive() {
+        // Price-bounded results come in price order
+        assertEquals(List.of("P3", "P1"), ids(query(5000L, 50000L, null, null, null)));
+    }
+
+    @Test
+    void testAgeFilterMatchesRecommendationServiceSemantics() {
+        // P4 has no age group and suits every age; P5's cannot be parsed and suits none
+        assertEquals(List.of("P1", "P3", "P4"), ids(query(null, null, null, null, 18)));
+        assertEquals(List.of("P2", "P4"), ids(query(null, null, null, null, 60)));
+    }
+
+    @Test
+    void testPutOverwritesExistingProduct() {
+        columns.put(product("P1", "FASHION", "SHOES", 12000L, "16-40"));
+
+        assertEquals(List.of("P2"), ids(query(null, null, "ELECTRONICS", null, null)));
+        assertEquals(List.of("P1", "P3"), ids(query(null, null, "FASHION", null, null)));
+        assertEquals(5, columns.size());
+    }
+
+    @Test
+    void testRemovedSlotIsSkippedThenReused() {
+        columns.remove("P2");
+        columns.remove("missing");
+
+        assertEquals(List.of("P1"), ids(query(null, null, "ELECTRONICS", null, null)));
+        assertEquals(4, columns.size());
+
+        columns.put(product("P6", "ELECTRONICS", "WEARABLE", 25000L, "16-65"));
+
+        assertEquals(List.of("P1", "P6"), ids(query(null, null, "ELECTRONICS", null, null)));
+        assertEquals(5, columns.size());
+    }
+
+    @Test
+    void testGrowsPastInitialCapacity() {
+        for (int i = 0; i < 1000; i++) {
+            columns.put(product("X" + i, "TOYS", "PUZZLE", i, "3-99"));
+        }
+
+        assertEquals(1000, columns.select(query(null, null, "TOYS", null, 10)).size());
+        assertEquals(11, columns.select(query(100L, 110L, "TOYS", null, null)).size());
+    }
+
+    @Test
+    void testSortedByPriceInBothDirections() {
+        assertEquals(List.of("P4", "P5", "P3", "P1", "P2"),
+            ids(new RecommendationQuery(null, null, null, null, null, PriceSort.PRICE_ASC)));
+        assertEquals(List.of("P2", "P1", "P3", "P5", "P4"),
+            ids(new RecommendationQuery(null, null, null, null, null, PriceSort.PRICE_DESC)));
+    }
+
+    @Test
+    void testPriceRangeCombinesWithOtherFiltersAndSort() {
+        assertEquals(List.of("P2", "P1"),
+            ids(new RecommendationQuery(40000L, 90000L, "ELECTRONICS", null, 30, PriceSort.PRICE_DESC)));
+        assertEquals(List.of(), ids(query(60000L, 10000L, null, null, null)));
+    }
+
+    @Test
+    void testPriceOrderFollowsUpdatesAndRemovals() {
+        columns.put(product("P4", "BOOKS", "FICTION", 90000L, null));
+        columns.remove("P3");
+        columns.put(product("P6", "BOOKS", "FICTION", 600L, null));
+
+        assertEquals(List.of("P6", "P5", "P1", "P2", "P4"),
+            ids(new RecommendationQuery(null, null, null, null, null, PriceSort.PRICE_ASC)));
+    }
+
+    @Test
+    void testLimitKeepsFirstResultsInPriceOrder() {
+        assertEquals(List.of("P4", "P5"),
+            ids(new RecommendationQuery(null, null, null, null, null, PriceSort.PRICE_ASC, 2)));
+        assertEquals(List.of("P2"),
+            ids(new RecommendationQuery(null, null, "ELECTRONICS", null, null, PriceSort.PRICE_DESC, 1)));
+    }
+
+    @Test
+    void testRelevanceRanksUnsortedResults() {
+        // Scores by price, so the dearest matches come first whichever path the scan takes
+        ToDoubleFunction<Product> byPrice = Product::price;
+        RecommendationQuery all = new RecommendationQuery(null, null, null, null, null, null, 3);
+        RecommendationQuery bounded = new RecommendationQuery(600L, 90000L, null, null, null, null, 2);
+        RecommendationQuery typed = new RecommendationQuery(null, null, "BOOKS", null, null, null, 1);
+
+        assertEquals(List.of("P2", "P1", "P3"), ids(columns.select(all, byPrice)));
+        assertEquals(List.of("P2", "P1"), ids(columns.select(bounded, byPrice)));
+        assertEquals(List.of("P5"), ids(columns.select(typed, byPrice)));
+    }
+
+    @Test
+    void testLimitedQueriesMatchBruteForceTopK() {
+        Random random = new Random(23);
+        String[] types = {"ELECTRONICS", "FASHION", "BOOKS"};
+        List<Product> catalog = new ArrayList<>();
+        ProductColumns indexed = new ProductColumns();
+        for (int i = 0; i < 2000; i++) {
+            Product product = product("X" + i, types[random.nextInt(types.length)], "A", random.nextInt(5000), null);
+            catalog.add(product);
+            indexed.put(product);
+        }
+        // Distinct scores, so the expected ranking has no ties
+        ToDoubleFunction<Product> relevance = product -> Integer.parseInt(product.id().substring(1)) * 7919 % 2003;
+
+        for (int i = 0; i < 100; i++) {
+            Long min = random.nextBoolean() ? null : (long) random.nextInt(2500);
+            String type = random.nextBoolean() ? null : types[random.nextInt(types.length)];
+            PriceSort sort = random.nextBoolean() ? null : PriceSort.values()[random.nextInt(2)];
+            int limit = 1 + random.nextInt(50);
+            RecommendationQuery query = new RecommendationQuery(min, null, type, null, null, sort, limit);
+
+            Comparator<Product> order = (sort == null)
+                ? Comparator.comparingDouble(relevance).reversed()
+                : (sort == PriceSort.PRICE_ASC)
+                    ? Comparator.comparingLong(Product::price)
+                    : Comparator.comparingLong(Product::price).reversed();
+            List<Product> expected = catalog.stream()
+                .filter(p -> type == null || p.type().equals(type))
+                .filter(p -> min == null || p.price() >= min)
+                .sorted(order)
+                .limit(limit)
+                .toList();
+            List<Product> selected = indexed.select(query, relevance);
+
+            if (sort == null) {
+                assertEquals(ids(expected), ids(selected), query.toString());
+            } else {
+                // Equal prices may tie in either order
+                assertEquals(expected.stream().map(Product::price).toList(),
+                    selected.stream().map(Product::price).toList(), query.toString());
+            }
+        }
+    }
+
+    @Test
+    void testEqualPricesKeepInsertionOrder() {
+        columns.put(product("P6", "BOOKS", "FICTION", 700L, null));
+        columns.put(product("P7", "BOOKS", "FICTION", 700L, null));
+
+        assertEquals(List.of("P5", "P6", "P7"), ids(query(700L, 700L, null, null, null)));
+    }
+
+    @Test
+    void testBulkBuildMatchesIncrementalBuild() {
+        Random random = new Random(42);
+        List<Product> catalog = new ArrayList<>();
+        ProductColumns incremental = new ProductColumns();
+        for (int i = 0; i < 500; i++) {
+            Product product = product("X" + random.nextInt(300), "TOYS", "PUZZLE", random.nextInt(100), null);
+            catalog.add(product);
+            incremental.put(product);
+        }
+        ProductColumns bulk = ProductColumns.of(catalog);
+
+        for (int i = 0; i < 50; i++) {
+            long min = random.nextInt(100);
+            RecommendationQuery query = new RecommendationQuery(min, min + random.nextInt(30), null, null, null,
+                PriceSort.PRICE_ASC);
+            List<Long> bulkPrices = bulk.select(query).stream().map(Product::price).toList();
+            assertEquals(incremental.select(query).stream().map(Product::price).toList(), bulkPrices);
+            assertEquals(bulkPrices.stream().sorted().toList(), bulkPrices);
+        }
+        assertEquals(incremental.size(), bulk.size());
+    }
+
+    @Test
+    void testIndexedQueriesMatchBruteForceAfterRandomWrites() {
+        Random random = new Random(11);
+        String[] types = {"ELECTRONICS", "FASHION", "BOOKS"};
+        String[] categories = {"A", "B", "C", "D"};
+        String[] ageGroups = {"18-45", "0-12", "60-99", null, "unknown"};
+        Map<String, Product> catalog = new HashMap<>();
+        ProductColumns indexed = new ProductColumns();
+        for (int i = 0; i < 3000; i++) {
+            String id = "X" + random.nextInt(1000);
+            if (random.nextInt(5) == 0) {
+                catalog.remove(id);
+                indexed.remove(id);
+            } else {
+                Product product = product(id, types[random.nextInt(types.length)],
+                    categories[random.nextInt(categories.length)], random.nextInt(1000),
+                    ageGroups[random.nextInt(ageGroups.length)]);
+                catalog.put(id, product);
+                indexed.put(product);
+            }
+        }
+
+        for (int i = 0; i < 200; i++) {
+            Long min = random.nextBoolean() ? null : (long) random.nextInt(1000);
+            Long max = random.nextBoolean() ? null : (long) random.nextInt(1000);
+            String type = random.nextBoolean() ? null : types[random.nextInt(types.length)];
+            String category = random.nextBoolean() ? null : categories[random.nextInt(categories.length)];
+            Integer age = random.nextBoolean() ? null : random.nextInt(130);
+            PriceSort sort = random.nextBoolean() ? null : PriceSort.values()[random.nextInt(2)];
+            RecommendationQuery query = new RecommendationQuery(min, max, type, category, age, sort);
+
+            List<Product> selected = indexed.select(query);
+            List<String> expected = catalog.values().stream()
+                .filter(p -> type == null || p.type().equals(type))
+                .filter(p -> category == null || p.category().equals(category))
+                .filter(p -> (min == null || p.price() >= min) && (max == null || p.price() <= max))
+                .filter(p -> age == null || suits(p.recommendedAgeGroup(), age))
+                .map(Product::id).sorted().toList();
+
+            assertEquals(expected, selected.stream().map(Product::id).sorted().toList(), query.toString());
+            List<Long> prices = selected.stream().map(Product::price).toList();
+            if (sort == PriceSort.PRICE_ASC) {
+                assertEquals(prices.stream().sorted().toList(), prices);
+            } else if (sort == PriceSort.PRICE_DESC) {
+                assertEquals(prices.stream().sorted(Comparator.reverseOrder()).toList(), prices);
+            }
+        }
+    }
+
+    private static boolean suits(String ageGroup, int age) {
+        if (ageGroup == null) {
+            return true;
+        }
+        if (!ageGroup.matches("\\d+-\\d+")) {
+            return false;
+        }
+        String[] bounds = ageGroup.split("-");
+        return Integer.parseInt(bounds[0]) <= age && age <= Integer.parseInt(bounds[1]);
+    }
+
+    private static RecommendationQuery query(Long minPrice, Long maxPrice, String type, String category, Integer age) {
+        return new RecommendationQuery(minPrice, maxPrice, type, category, age);
+    }
+
+    private List<String> ids(RecommendationQuery query) {
+        return ids(columns.select(query));
+    }
+
+    private static List<String> ids(List<Product> products) {
+        return products.stream().map(Product::id).toList();
+    }
+
+    private static Product product(String id, String type, String category, long price, String ageGroup) {
+        return new Product(id, id, type, category, price, ageGroup, Map.of());
+    }
+}
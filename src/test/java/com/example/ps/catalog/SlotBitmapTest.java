@@ -0,0 +1,86 @@
+package com.example.ps.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotBitmapTest {
+
+    @Test
+    void testAddRemoveContains() {
+        SlotBitmap bitmap = new SlotBitmap();
+        bitmap.add(3);
+        bitmap.add(70_000);
+        bitmap.add(3);
+
+        assertTrue(bitmap.contains(3));
+        assertTrue(bitmap.contains(70_000));
+        assertFalse(bitmap.contains(4));
+        assertEquals(2, bitmap.cardinality());
+
+        bitmap.remove(70_000);
+        bitmap.remove(12);
+
+        assertFalse(bitmap.contains(70_000));
+        assertEquals(List.of(3), slots(bitmap));
+    }
+
+    @Test
+    void testDenseGroupSwitchesToBitsAndBack() {
+        SlotBitmap bitmap = new SlotBitmap();
+        for (int slot = 0; slot < 10_000; slot++) {
+            bitmap.add(slot * 2);
+        }
+        assertEquals(10_000, bitmap.cardinality());
+        assertTrue(bitmap.contains(19_998));
+        assertFalse(bitmap.contains(19_999));
+
+        for (int slot = 0; slot < 9_990; slot++) {
+            bitmap.remove(slot * 2);
+        }
+
+        assertEquals(10, bitmap.cardinality());
+        assertEquals(List.of(19_980, 19_982, 19_984, 19_986, 19_988, 19_990, 19_992, 19_994, 19_996, 19_998), slots(bitmap));
+    }
+
+    @Test
+    void testAndMatchesSetIntersection() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            SlotBitmap left = new SlotBitmap();
+            SlotBitmap right = new SlotBitmap();
+            TreeSet<Integer> leftSet = new TreeSet<>();
+            TreeSet<Integer> rightSet = new TreeSet<>();
+            // Mix sparse and dense groups on both sides
+            int leftCount = random.nextInt(2) == 0 ? 100 : 20_000;
+            int rightCount = random.nextInt(2) == 0 ? 100 : 20_000;
+            for (int i = 0; i < leftCount; i++) {
+                int slot = random.nextInt(200_000);
+                left.add(slot);
+                leftSet.add(slot);
+            }
+            for (int i = 0; i < rightCount; i++) {
+                int slot = random.nextInt(200_000);
+                right.add(slot);
+                rightSet.add(slot);
+            }
+            leftSet.retainAll(rightSet);
+
+            SlotBitmap both = left.and(right);
+
+            assertEquals(new ArrayList<>(leftSet), slots(both));
+            assertEquals(leftSet.size(), both.cardinality());
+        }
+    }
+
+    private static List<Integer> slots(SlotBitmap bitmap) {
+        List<Integer> slots = new ArrayList<>();
+        bitmap.forEach(slots::add);
+        return slots;
+    }
+}
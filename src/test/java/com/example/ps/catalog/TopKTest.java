@@ -0,0 +1,64 @@
+package com.example.ps.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKTest {
+
+    @Test
+    void testKeepsHighestScoresBestFirst() {
+        TopK<String> top = new TopK<>(3);
+        top.offer("a", 1.0);
+        top.offer("b", 5.0);
+        top.offer("c", 3.0);
+        top.offer("d", 4.0);
+        top.offer("e", 2.0);
+
+        assertEquals(List.of("b", "d", "c"), top.toList());
+    }
+
+    @Test
+    void testEqualScoresKeepOfferOrder() {
+        TopK<String> top = new TopK<>(2);
+        top.offer("first", 1.0);
+        top.offer("second", 1.0);
+        top.offer("third", 1.0);
+
+        assertEquals(List.of("first", "second"), top.toList());
+    }
+
+    @Test
+    void testFewerItemsThanK() {
+        TopK<String> top = new TopK<>(10);
+        top.offer("a", 2.0);
+        top.offer("b", 7.0);
+
+        assertEquals(List.of("b", "a"), top.toList());
+        assertEquals(List.of(), new TopK<String>(10).toList());
+    }
+
+    @Test
+    void testMatchesFullSort() {
+        Random random = new Random(7);
+        List<Integer> items = new ArrayList<>();
+        TopK<Integer> top = new TopK<>(25);
+        for (int i = 0; i < 1000; i++) {
+            int item = random.nextInt(400);
+            items.add(item);
+            top.offer(item, item);
+        }
+
+        assertEquals(items.stream().sorted(Comparator.reverseOrder()).limit(25).toList(), top.toList());
+    }
+
+    @Test
+    void testRejectsNonPositiveK() {
+        assertThrows(IllegalArgumentException.class, () -> new TopK<String>(0));
+    }
+}
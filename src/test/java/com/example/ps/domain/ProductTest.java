@@ -0,0 +1,72 @@
+package com.example.ps.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductTest {
+
+    @Test
+    void testTypeAndCategoryAreKeptAsGiven() {
+        Product product = new Product("P1", "Kite", "Toys", "kites", 1000L, null, Map.of());
+
+        assertEquals("Toys", product.type());
+        assertEquals("kites", product.category());
+    }
+
+    @Test
+    void testAgeBoundsAreDerivedFromAgeGroup() {
+        Product product = product("18-45");
+
+        assertEquals(Integer.valueOf(18), product.minAge());
+        assertEquals(Integer.valueOf(45), product.maxAge());
+        assertTrue(product.suitsAge(18));
+        assertTrue(product.suitsAge(45));
+        assertFalse(product.suitsAge(17));
+        assertFalse(product.suitsAge(46));
+    }
+
+    @Test
+    void testProductWithoutAgeGroupSuitsEveryAge() {
+        for (Product product : new Product[] {product(null), product("  ")}) {
+            assertEquals(Integer.valueOf(Product.ANY_MIN_AGE), product.minAge());
+            assertEquals(Integer.valueOf(Product.ANY_MAX_AGE), product.maxAge());
+            assertTrue(product.suitsAge(0));
+            assertTrue(product.suitsAge(120));
+        }
+    }
+
+    @Test
+    void testUnparseableAgeGroupSuitsNoAge() {
+        for (String ageGroup : new String[] {"teens", "45-18", "18-99999999999"}) {
+            Product product = product(ageGroup);
+            assertNull(product.minAge(), ageGroup);
+            assertNull(product.maxAge(), ageGroup);
+            assertFalse(product.suitsAge(25), ageGroup);
+        }
+    }
+
+    @Test
+    void testStoredAgeBoundsAreKept() {
+        Product stored = new Product("P1", "Phone", "ELECTRONICS", "SMARTPHONE", 1000L, "18-45",
+                Map.of(), 20, 40);
+
+        assertEquals(Integer.valueOf(20), stored.minAge());
+        assertEquals(Integer.valueOf(40), stored.maxAge());
+    }
+
+    @Test
+    void testMissingAgeBoundsAreDerivedFromAgeGroup() {
+        Product partial = new Product("P1", "Phone", "ELECTRONICS", "SMARTPHONE", 1000L, "18-45",
+                Map.of(), 20, null);
+
+        assertEquals(Integer.valueOf(18), partial.minAge());
+        assertEquals(Integer.valueOf(45), partial.maxAge());
+    }
+
+    private static Product product(String ageGroup) {
+        return new Product("P1", "Phone", "ELECTRONICS", "SMARTPHONE", 1000L, ageGroup, Map.of());
+    }
+}
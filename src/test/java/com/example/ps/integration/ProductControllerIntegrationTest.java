@@ -1,9 +1,13 @@
 package com.example.ps.integration;
 
 import com.example.ps.ProductServicesApplication;
+import com.example.ps.domain.PriceSort;
 import com.example.ps.domain.Product;
+import com.example.ps.domain.RecommendationQuery;
 import com.example.ps.repository.ProductRepository;
+import com.example.ps.service.ProductService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,10 +15,14 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebM
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContext;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import org.springframework.http.*;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -40,6 +48,15 @@ class ProductControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
     private String baseUrl;
 
     @BeforeEach
@@ -89,6 +106,29 @@ class ProductControllerIntegrationTest {
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
+    @Test
+    void testGetProductsByIds_Batch() {
+        ResponseEntity<List<Product>> response = restTemplate.exchange(
+            baseUrl + "/batch?ids=P1003,NONEXISTENT,P1001,P1003",
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<Product>>() {}
+        );
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(List.of("P1003", "P1001"), response.getBody().stream().map(Product::id).toList());
+    }
+
+    @Test
+    void testGetProductsByIds_TooManyIds() {
+        String ids = String.join(",", Collections.nCopies(101, "P1001"));
+        ResponseEntity<String> response = restTemplate.getForEntity(
+            baseUrl + "/batch?ids=" + ids, String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
     @Test
     void testGetProductsByType_Success() {
         ResponseEntity<List<Product>> response = restTemplate.exchange(
@@ -132,6 +172,58 @@ class ProductControllerIntegrationTest {
         assertEquals(6, response.getBody().size());
     }
 
+    @Test
+    void testGetAllProducts_Paginated() {
+        ResponseEntity<List<Product>> first = restTemplate.exchange(
+            baseUrl + "?limit=4",
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<Product>>() {}
+        );
+
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(List.of("P1001", "P1002", "P1003", "P1004"),
+            first.getBody().stream().map(Product::id).toList());
+        String cursor = first.getHeaders().getFirst("X-Next-Cursor");
+        assertNotNull(cursor);
+
+        ResponseEntity<List<Product>> second = restTemplate.exchange(
+            baseUrl + "?limit=4&cursor=" + cursor,
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<Product>>() {}
+        );
+
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertEquals(List.of("P1005", "P1006"), second.getBody().stream().map(Product::id).toList());
+        assertNull(second.getHeaders().getFirst("X-Next-Cursor"));
+    }
+
+    @Test
+    void testGetAllProducts_InvalidPageParameters() {
+        assertEquals(HttpStatus.BAD_REQUEST,
+            restTemplate.getForEntity(baseUrl + "?cursor=not*base64", String.class).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+            restTemplate.getForEntity(baseUrl + "?limit=1001", String.class).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+            restTemplate.getForEntity(baseUrl + "?limit=0", String.class).getStatusCode());
+    }
+
+    @Test
+    void testExportProducts_Ndjson() throws Exception {
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/export", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(MediaType.APPLICATION_NDJSON.isCompatibleWith(response.getHeaders().getContentType()));
+        String[] lines = response.getBody().split("\n");
+        assertEquals(6, lines.length);
+        assertTrue(response.getBody().endsWith("\n"));
+        Product first = objectMapper.readValue(lines[0], Product.class);
+        assertEquals("P1001", first.id());
+        assertEquals("iPhone 15", first.name());
+        assertEquals("P1006", objectMapper.readValue(lines[5], Product.class).id());
+    }
+
     @Test
     void testGetRecommendations_WithPriceRange() {
         String url = baseUrl + "/recommendations?minPrice=10000&maxPrice=80000";
@@ -206,6 +298,70 @@ class ProductControllerIntegrationTest {
         assertTrue(response.getBody().size() >= 0);
     }
 
+    @Test
+    void testGetRecommendations_SortedByPriceDescending() {
+        ResponseEntity<List<Product>> response = restTemplate.exchange(
+            baseUrl + "/recommendations?type=ELECTRONICS&sort=price_desc",
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<Product>>() {}
+        );
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(List.of("P1003", "P1001", "P1002"),
+            response.getBody().stream().map(Product::id).toList());
+    }
+
+    @Test
+    void testGetRecommendations_SortedResultsAreCachedWhole() {
+        for (String sort : List.of("price_asc", "price_desc")) {
+            String url = baseUrl + "/recommendations?type=ELECTRONICS&sort=" + sort;
+            List<Product> miss = restTemplate.exchange(url, HttpMethod.GET, null,
+                new ParameterizedTypeReference<List<Product>>() {}).getBody();
+            List<Product> hit = restTemplate.exchange(url, HttpMethod.GET, null,
+                new ParameterizedTypeReference<List<Product>>() {}).getBody();
+
+            assertEquals(3, miss.size());
+            assertEquals(miss, hit, sort);
+        }
+    }
+
+    @Test
+    void testGetRecommendations_LimitKeepsTopK() {
+        ResponseEntity<List<Product>> limited = restTemplate.exchange(
+            baseUrl + "/recommendations?type=ELECTRONICS&sort=price_desc&limit=2",
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<Product>>() {}
+        );
+        ResponseEntity<List<Product>> aliased = restTemplate.exchange(
+            baseUrl + "/recommendations?type=ELECTRONICS&k=1",
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<Product>>() {}
+        );
+
+        assertEquals(List.of("P1003", "P1001"), limited.getBody().stream().map(Product::id).toList());
+        assertEquals(1, aliased.getBody().size());
+    }
+
+    @Test
+    void testGetRecommendations_InvalidLimit() {
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.getForEntity(
+            baseUrl + "/recommendations?limit=1001", String.class).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.getForEntity(
+            baseUrl + "/recommendations?limit=2&k=3", String.class).getStatusCode());
+    }
+
+    @Test
+    void testGetRecommendations_InvalidSort() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+            baseUrl + "/recommendations?sort=name", String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
     @Test
     void testGetRecommendations_CombinedFilters() {
         String url = baseUrl + "/recommendations?minPrice=60000&maxPrice=100000&type=ELECTRONICS&category=SMARTPHONE&age=25";
@@ -238,6 +394,57 @@ class ProductControllerIntegrationTest {
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
     }
 
+    @Test
+    void testRecommendationsFollowWritesThroughProductService() {
+        String url = baseUrl + "/recommendations?type=ELECTRONICS&sort=price_asc";
+        ParameterizedTypeReference<List<Product>> products = new ParameterizedTypeReference<>() {};
+        // Cached first, so the writes have to drop it and the catalog index has to follow them
+        assertEquals(List.of("P1002", "P1001", "P1003"), restTemplate.exchange(
+            url, HttpMethod.GET, null, products).getBody().stream().map(Product::id).toList());
+
+        productService.save(new Product("P1001", "iPhone 15", "ELECTRONICS", "SMARTPHONE", 59900L,
+                                        "18-45", Map.of()));
+        productService.deleteById("P1003");
+        productService.save(new Product("P1009", "Pixel 9", "ELECTRONICS", "SMARTPHONE", 49900L,
+                                        "18-45", Map.of()));
+
+        assertEquals(List.of("P1009", "P1001", "P1002"), restTemplate.exchange(
+            url, HttpMethod.GET, null, products).getBody().stream().map(Product::id).toList());
+    }
+
+    @Test
+    void testRecommendationQueryRunsInMongo() {
+        RecommendationQuery query = new RecommendationQuery(
+            10000L, 200000L, "electronics", null, 20, PriceSort.PRICE_ASC);
+
+        List<Product> products = productRepository.findRecommendations(query, 0);
+
+        // MacBook Pro (22-65) is outside the age; P1002 and P1001 are in price order
+        assertEquals(List.of("P1002", "P1001"), products.stream().map(Product::id).toList());
+        assertEquals(Integer.valueOf(16), products.get(0).minAge());
+        assertEquals(List.of("P1002"), productRepository.findRecommendations(query, 1).stream()
+            .map(Product::id).toList());
+    }
+
+    @Test
+    void testRecommendationQueryInMongoIgnoresCase() {
+        productRepository.save(new Product("P1007", "Kite", "Toys", "Outdoor", 2000L, null, Map.of()));
+        mongoTemplate.getCollection("products").insertOne(new Document("_id", "P1008")
+            .append("name", "Yo-yo").append("type", "TOYS").append("category", "outdoor")
+            .append("price", 500L));
+
+        RecommendationQuery query = new RecommendationQuery(null, null, "toys", "OutDoor", null, PriceSort.PRICE_ASC);
+
+        assertEquals(List.of("P1008", "P1007"), productRepository.findRecommendations(query, 0).stream()
+            .map(Product::id).toList());
+        assertEquals(List.of("P1007", "P1008"), productRepository.findByType("tOYS").stream()
+            .map(Product::id).sorted().toList());
+        // Stored values keep the case they were saved in
+        Product kite = productRepository.findById("P1007").orElseThrow();
+        assertEquals("Toys", kite.type());
+        assertEquals("Outdoor", kite.category());
+    }
+
     @Test
     void testCachingBehavior_ProductById() {
         // First request - should fetch from database
@@ -288,6 +495,8 @@ class ProductControllerIntegrationTest {
         
         assertEquals(HttpStatus.OK, response2.getStatusCode());
         assertEquals(response1.getBody().size(), response2.getBody().size());
+        // A hit returns the whole type, never the part of it that survived eviction
+        assertEquals(response1.getBody(), response2.getBody());
     }
 
     @Test
@@ -306,6 +515,8 @@ class ProductControllerIntegrationTest {
         
         assertEquals(HttpStatus.OK, response2.getStatusCode());
         assertEquals(response1.getBody().size(), response2.getBody().size());
+        // The cached ranking is the computed one, best first, not what is left after eviction
+        assertEquals(response1.getBody(), response2.getBody());
     }
 
     @Test
@@ -349,4 +560,11 @@ class ProductControllerIntegrationTest {
         
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
+
+    @Test
+    void testReactiveMongoIsNotConfiguredOutsideReactiveMode() {
+        assertEquals(0, applicationContext.getBeanNamesForType(
+            com.mongodb.reactivestreams.client.MongoClient.class).length);
+        assertEquals(0, applicationContext.getBeanNamesForType(ReactiveMongoTemplate.class).length);
+    }
 }
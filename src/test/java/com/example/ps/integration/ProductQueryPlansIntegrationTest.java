@@ -0,0 +1,34 @@
+package com.example.ps.integration;
+
+import com.example.ps.ProductServicesApplication;
+import com.example.ps.repository.ProductQueryPlans;
+import com.example.ps.repository.ProductQueryPlans.QueryPlan;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fails when a repository query shape loses its index, before the regression reaches production.
+ */
+@SpringBootTest(classes = ProductServicesApplication.class)
+@ActiveProfiles("test")
+class ProductQueryPlansIntegrationTest {
+
+    @Autowired
+    private ProductQueryPlans queryPlans;
+
+    @Test
+    void testNoRepositoryQueryScansTheCollection() {
+        List<QueryPlan> plans = queryPlans.explainAll();
+
+        assertFalse(plans.isEmpty());
+        List<QueryPlan> scans = plans.stream().filter(QueryPlan::collectionScan).toList();
+        assertTrue(scans.isEmpty(), () -> "Collection scans: " + scans);
+        assertTrue(plans.stream().allMatch(plan -> plan.stages().contains("IXSCAN")), plans::toString);
+    }
+}
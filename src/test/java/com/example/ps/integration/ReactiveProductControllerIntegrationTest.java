@@ -0,0 +1,114 @@
+package com.example.ps.integration;
+
+import com.example.ps.ProductServicesApplication;
+import com.example.ps.domain.Product;
+import com.example.ps.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(
+    classes = ProductServicesApplication.class,
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "app.reactive.enabled=true"
+)
+@ActiveProfiles("test")
+class ReactiveProductControllerIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port + "/api/reactive/products";
+
+        productRepository.deleteAll();
+        productRepository.saveAll(List.of(
+            new Product("P2001", "iPhone 15", "ELECTRONICS", "SMARTPHONE", 79900L,
+                       "18-45", Map.of("color", "Black")),
+            new Product("P2002", "MacBook Pro", "ELECTRONICS", "LAPTOP", 199900L,
+                       "22-65", Map.of("ram", "16GB")),
+            new Product("P2003", "Nike Shoes", "FASHION", "SHOES", 12000L,
+                       "16-40", Map.of("size", "10"))
+        ));
+    }
+
+    @Test
+    void testGetProductById() {
+        ResponseEntity<Product> response = restTemplate.getForEntity(baseUrl + "/P2002", Product.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("MacBook Pro", response.getBody().name());
+    }
+
+    @Test
+    void testGetProductById_NotFound() {
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/P9999", String.class);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void testGetProductsByType() {
+        ResponseEntity<List<Product>> response = restTemplate.exchange(
+            baseUrl + "/type/electronics",
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<Product>>() {}
+        );
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().size());
+        assertEquals(HttpStatus.NO_CONTENT,
+            restTemplate.getForEntity(baseUrl + "/type/TOYS", String.class).getStatusCode());
+    }
+
+    @Test
+    void testGetAllProducts_Paginated() {
+        ResponseEntity<List<Product>> first = restTemplate.exchange(
+            baseUrl + "?limit=2",
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<Product>>() {}
+        );
+        String cursor = first.getHeaders().getFirst("X-Next-Cursor");
+        ResponseEntity<List<Product>> second = restTemplate.exchange(
+            baseUrl + "?limit=2&cursor=" + cursor,
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<Product>>() {}
+        );
+
+        assertEquals(List.of("P2001", "P2002"), first.getBody().stream().map(Product::id).toList());
+        assertEquals(List.of("P2003"), second.getBody().stream().map(Product::id).toList());
+        assertNull(second.getHeaders().getFirst("X-Next-Cursor"));
+    }
+
+    @Test
+    void testExportProducts_Ndjson() {
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/export", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(MediaType.APPLICATION_NDJSON.isCompatibleWith(response.getHeaders().getContentType()));
+        assertEquals(3, response.getBody().split("\n").length);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.ps.service;
+
+import com.example.ps.config.CacheProperties;
+import com.example.ps.config.WarmUpConfig;
+import com.example.ps.domain.RecommendationQuery;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotKeyTrackerTest {
+
+    private Path directory;
+    private Path hotKeysFile;
+    private HotKeyTracker tracker;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("hot-keys-test");
+        hotKeysFile = directory.resolve("hot-keys.json");
+        tracker = newTracker(hotKeysFile.toString(), 2);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testSnapshotKeepsMostRequestedKeysFirst() {
+        record(tracker, "P1", 1);
+        record(tracker, "P2", 5);
+        record(tracker, "P3", 3);
+
+        assertEquals(List.of("P2", "P3"), tracker.snapshot().productIds());
+    }
+
+    @Test
+    void testOverflowDropsLeastRequestedKeys() {
+        record(tracker, "P1", 10);
+        record(tracker, "P2", 9);
+        // Eight one-off keys overflow the eight tracked and push the rarest out
+        for (int i = 0; i < 8; i++) {
+            tracker.recordProductId("once-" + i);
+        }
+        record(tracker, "P3", 2);
+
+        assertEquals(List.of("P1", "P2"), tracker.snapshot().productIds());
+    }
+
+    @Test
+    void testSaveAndLoadRoundTrip() throws IOException {
+        RecommendationQuery query = new RecommendationQuery(1000L, 50000L, "ELECTRONICS", null, 25);
+        tracker.recordProductId("P1");
+        tracker.recordType("ELECTRONICS");
+        tracker.recordQuery(query);
+
+        tracker.save();
+        HotKeys loaded = newTracker(hotKeysFile.toString(), 2).load();
+
+        assertEquals(List.of("P1"), loaded.productIds());
+        assertEquals(List.of("ELECTRONICS"), loaded.types());
+        assertEquals(List.of(query), loaded.queries());
+    }
+
+    @Test
+    void testLoadWithoutFileIsEmpty() {
+        assertTrue(tracker.load().isEmpty());
+    }
+
+    @Test
+    void testLoadIgnoresCorruptFile() throws IOException {
+        Files.writeString(hotKeysFile, "{not json");
+
+        assertTrue(tracker.load().isEmpty());
+    }
+
+    @Test
+    void testDisabledTrackerSavesNothingButStillCountsProductIds() throws IOException {
+        HotKeyTracker disabled = newTracker(null, 2);
+        disabled.recordProductId("P1");
+
+        disabled.save();
+
+        assertTrue(disabled.snapshot().isEmpty());
+        assertFalse(Files.exists(hotKeysFile));
+        // Kept for recommendation popularity
+        assertEquals(1, disabled.productIdCount("P1"));
+    }
+
+    private static void record(HotKeyTracker tracker, String productId, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.recordProductId(productId);
+        }
+    }
+
+    private static HotKeyTracker newTracker(String hotKeysFile, int limit) {
+        CacheProperties properties = new CacheProperties();
+        properties.setWarmUp(new WarmUpConfig(hotKeysFile, limit, limit, limit,
+            Duration.ofMinutes(5), Duration.ofSeconds(30), 2, 10));
+        return new HotKeyTracker(properties, new ObjectMapper());
+    }
+}
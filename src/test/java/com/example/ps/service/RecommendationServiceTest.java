@@ -1,12 +1,22 @@
 package com.example.ps.service;
 
 import com.example.ps.cache.provider.CacheProvider;
+import com.example.ps.cache.strategy.SnapshotTypeCache;
 import com.example.ps.cache.strategy.TypeAwareCache;
+import com.example.ps.catalog.CatalogIndex;
+import com.example.ps.config.CacheProperties;
+import com.example.ps.config.TypeCacheConfig;
+import com.example.ps.config.TypeCacheStrategy;
+import com.example.ps.domain.PriceSort;
 import com.example.ps.domain.Product;
+import com.example.ps.domain.ProductChangedEvent;
 import com.example.ps.domain.RecommendationQuery;
+import com.example.ps.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -28,7 +38,14 @@ class RecommendationServiceTest {
     @Mock
     private CacheProvider cacheProvider;
 
+    // Backs the real catalog index that recommendations are computed from
     @Mock
+    private ProductRepository productRepository;
+
+    private CatalogIndex catalogIndex;
+
+    // Runs the interface's fetchOrLoad default over the stubbed fetch and save
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
     private TypeAwareCache<String, Product> recommendationCache;
 
     private RecommendationService recommendationService;
@@ -37,7 +54,9 @@ class RecommendationServiceTest {
 
     @BeforeEach
     void setUp() {
-        recommendationService = new RecommendationService(productService, cacheProvider);
+        HotKeyTracker hotKeyTracker = new HotKeyTracker(new CacheProperties(), new ObjectMapper());
+        catalogIndex = new CatalogIndex(productRepository);
+        recommendationService = new RecommendationService(productService, cacheProvider, hotKeyTracker, catalogIndex);
         
         when(cacheProvider.getRecommendationCache()).thenReturn(recommendationCache);
         
@@ -63,7 +82,7 @@ class RecommendationServiceTest {
         RecommendationQuery query = new RecommendationQuery(1000L, 50000L, "ELECTRONICS", null, 25);
         
         when(recommendationCache.fetch(query.toString())).thenReturn(null);
-        when(productService.findAll()).thenReturn(testProducts);
+        givenCatalog(testProducts);
         
         List<Product> results = recommendationService.getRecommendations(query);
         
@@ -74,28 +93,43 @@ class RecommendationServiceTest {
         
         // Verify cache was checked
         verify(recommendationCache).fetch(query.toString());
-        verify(productService).findAll();
+        verifyNoInteractions(productService);
         verify(recommendationCache).save(eq(query.toString()), any(Iterable.class));
     }
 
     @Test
     void testGetRecommendations_DatabaseFallback() {
+        // The catalog index is not built yet, so MongoDB runs the query
         RecommendationQuery query = new RecommendationQuery(1000L, 50000L, "ELECTRONICS", null, 25);
+        List<Product> matching = List.of(testProducts.get(0), testProducts.get(1));
         
         when(recommendationCache.fetch(anyString())).thenReturn(null);
-        when(productService.findAll()).thenReturn(testProducts);
+        when(productService.findMatching(query)).thenReturn(matching);
         
         List<Product> results = recommendationService.getRecommendations(query);
         
-        // Should include iPhone and Samsung Phone (both in price range and age range)
-        assertEquals(2, results.size());
-        assertTrue(results.stream().anyMatch(p -> p.name().equals("iPhone")));
-        assertTrue(results.stream().anyMatch(p -> p.name().equals("Samsung Phone")));
+        // Ranked: the Samsung phone is nearer the middle of both the age group and the price range
+        assertEquals(List.of(testProducts.get(1), testProducts.get(0)), results);
         
         // Verify cache interactions
         verify(recommendationCache).fetch(query.toString());
         verify(recommendationCache).save(eq(query.toString()), any(Iterable.class));
-        verify(productService).findAll();
+        verify(productService).findMatching(query);
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void testLimitKeepsMostRelevantRecommendations() {
+        RecommendationQuery query = new RecommendationQuery(null, null, "ELECTRONICS", null, 25, null, 2);
+
+        when(recommendationCache.fetch(anyString())).thenReturn(null);
+        givenCatalog(testProducts);
+
+        List<Product> results = recommendationService.getRecommendations(query);
+
+        // 25 is nearest the middle of 16-40, then of 18-45; Laptop and Watch are cut off
+        assertEquals(List.of("P2", "P1"), results.stream().map(Product::id).toList());
+        verify(recommendationCache).save(eq(query.toString()), eq(results));
     }
 
     @Test
@@ -103,7 +137,7 @@ class RecommendationServiceTest {
         RecommendationQuery query = new RecommendationQuery(1000L, 10000L, null, null, null);
         
         when(recommendationCache.fetch(anyString())).thenReturn(null);
-        when(productService.findAll()).thenReturn(testProducts);
+        givenCatalog(testProducts);
         
         List<Product> results = recommendationService.getRecommendations(query);
         
@@ -118,7 +152,7 @@ class RecommendationServiceTest {
         RecommendationQuery query = new RecommendationQuery(50000L, null, null, null, null);
         
         when(recommendationCache.fetch(anyString())).thenReturn(null);
-        when(productService.findAll()).thenReturn(testProducts);
+        givenCatalog(testProducts);
         
         List<Product> results = recommendationService.getRecommendations(query);
         
@@ -132,7 +166,7 @@ class RecommendationServiceTest {
         RecommendationQuery query = new RecommendationQuery(null, 10000L, null, null, null);
         
         when(recommendationCache.fetch(anyString())).thenReturn(null);
-        when(productService.findAll()).thenReturn(testProducts);
+        givenCatalog(testProducts);
         
         List<Product> results = recommendationService.getRecommendations(query);
         
@@ -146,7 +180,7 @@ class RecommendationServiceTest {
         RecommendationQuery query = new RecommendationQuery(null, null, "ELECTRONICS", null, null);
         
         when(recommendationCache.fetch(anyString())).thenReturn(null);
-        when(productService.findAll()).thenReturn(testProducts);
+        givenCatalog(testProducts);
         
         List<Product> results = recommendationService.getRecommendations(query);
         
@@ -160,7 +194,7 @@ class RecommendationServiceTest {
         RecommendationQuery query = new RecommendationQuery(null, null, null, "SMARTPHONE", null);
         
         when(recommendationCache.fetch(anyString())).thenReturn(null);
-        when(productService.findAll()).thenReturn(testProducts);
+        givenCatalog(testProducts);
         
         List<Product> results = recommendationService.getRecommendations(query);
         
@@ -174,7 +208,7 @@ class RecommendationServiceTest {
         RecommendationQuery query = new RecommendationQuery(null, null, null, null, 20);
         
         when(recommendationCache.fetch(anyString())).thenReturn(null);
-        when(productService.findAll()).thenReturn(testProducts);
+        givenCatalog(testProducts);
         
         List<Product> results = recommendationService.getRecommendations(query);
         
@@ -192,7 +226,7 @@ class RecommendationServiceTest {
         RecommendationQuery query2 = new RecommendationQuery(null, null, null, null, 45);
         
         when(recommendationCache.fetch(anyString())).thenReturn(null);
-        when(productService.findAll()).thenReturn(testProducts);
+        givenCatalog(testProducts);
         
         List<Product> results1 = recommendationService.getRecommendations(query1);
         List<Product> results2 = recommendationService.getRecommendations(query2);
@@ -213,7 +247,7 @@ class RecommendationServiceTest {
         RecommendationQuery query = new RecommendationQuery(20000L, 60000L, "ELECTRONICS", "SMARTPHONE", 25);
         
         when(recommendationCache.fetch(anyString())).thenReturn(null);
-        when(productService.findAll()).thenReturn(testProducts);
+        givenCatalog(testProducts);
         
         List<Product> results = recommendationService.getRecommendations(query);
         
@@ -235,7 +269,7 @@ class RecommendationServiceTest {
         RecommendationQuery query = new RecommendationQuery(null, null, null, null, 25);
         
         when(recommendationCache.fetch(anyString())).thenReturn(null);
-        when(productService.findAll()).thenReturn(productsWithInvalid);
+        givenCatalog(productsWithInvalid);
         
         List<Product> results = recommendationService.getRecommendations(query);
         
@@ -244,7 +278,7 @@ class RecommendationServiceTest {
         
         // Verify interactions
         verify(recommendationCache).fetch(anyString());
-        verify(productService).findAll();
+        verifyNoInteractions(productService);
     }
 
     @Test
@@ -257,7 +291,7 @@ class RecommendationServiceTest {
         RecommendationQuery query = new RecommendationQuery(null, null, null, null, 25);
         
         when(recommendationCache.fetch(anyString())).thenReturn(null);
-        when(productService.findAll()).thenReturn(productsWithNull);
+        givenCatalog(productsWithNull);
         
         List<Product> results = recommendationService.getRecommendations(query);
         
@@ -271,7 +305,7 @@ class RecommendationServiceTest {
         RecommendationQuery query = new RecommendationQuery(1000L, 50000L, "ELECTRONICS", null, 25);
         
         when(recommendationCache.fetch(anyString())).thenReturn(null);
-        when(productService.findAll()).thenReturn(List.of());
+        givenCatalog(List.of());
         
         List<Product> results = recommendationService.getRecommendations(query);
         
@@ -285,7 +319,7 @@ class RecommendationServiceTest {
         RecommendationQuery query2 = new RecommendationQuery(null, null, null, "smartphone", null);
         
         when(recommendationCache.fetch(anyString())).thenReturn(null);
-        when(productService.findAll()).thenReturn(testProducts);
+        givenCatalog(testProducts);
         
         List<Product> results1 = recommendationService.getRecommendations(query1);
         List<Product> results2 = recommendationService.getRecommendations(query2);
@@ -294,4 +328,84 @@ class RecommendationServiceTest {
         assertEquals(4, results1.size()); // All ELECTRONICS products
         assertEquals(2, results2.size()); // All SMARTPHONE products
     }
+
+    @Test
+    void testProductChangeInvalidatesOnlyMatchingQueries() {
+        RecommendationQuery electronics = new RecommendationQuery(null, null, "ELECTRONICS", null, null);
+        RecommendationQuery books = new RecommendationQuery(null, null, "BOOKS", null, null);
+
+        when(recommendationCache.fetch(anyString())).thenReturn(null);
+        givenCatalog(testProducts);
+        recommendationService.getRecommendations(electronics);
+        recommendationService.getRecommendations(books);
+
+        Product before = testProducts.get(0);
+        Product after = new Product("P1", "iPhone", "ELECTRONICS", "SMARTPHONE", 45000L, "18-45",
+                                    Map.of("color", "Black"));
+        recommendationService.onProductChanged(new ProductChangedEvent("P1", before, after));
+
+        verify(recommendationCache).invalidate(electronics.toString());
+        verify(recommendationCache, never()).invalidate(books.toString());
+    }
+
+    @Test
+    void testNewProductInvalidatesQueriesItNowMatches() {
+        RecommendationQuery books = new RecommendationQuery(null, null, "BOOKS", null, null);
+
+        when(recommendationCache.fetch(anyString())).thenReturn(null);
+        givenCatalog(testProducts);
+        recommendationService.getRecommendations(books);
+
+        Product added = new Product("P9", "New Novel", "BOOKS", "FICTION", 700L, "12-80", Map.of());
+        recommendationService.onProductChanged(new ProductChangedEvent("P9", null, added));
+
+        verify(recommendationCache).invalidate(books.toString());
+    }
+
+    @Test
+    void testCacheHitReturnsTheSameRankingAsTheMiss() {
+        RecommendationQuery query = new RecommendationQuery(null, null, "ELECTRONICS", null, 25);
+        givenCatalog(testProducts);
+
+        // Room for the whole ranking, and the per-type capacity of 2 the shipped config once used
+        for (int capacity : new int[] {10, 2}) {
+            SnapshotTypeCache<String, Product> cache = new SnapshotTypeCache<>(new TypeCacheConfig(
+                "recommendation-cache", capacity, 10, true, TypeCacheStrategy.SNAPSHOT));
+            when(cacheProvider.getRecommendationCache()).thenReturn(cache);
+
+            List<Product> miss = recommendationService.getRecommendations(query);
+            List<Product> hit = recommendationService.getRecommendations(query);
+
+            assertEquals(List.of("P2", "P1", "P3", "P6"), miss.stream().map(Product::id).toList());
+            assertEquals(miss, hit);
+        }
+    }
+
+    @Test
+    void testCacheHitKeepsTheHeadOfPriceSortedResults() {
+        RecommendationQuery ascending = new RecommendationQuery(null, null, "ELECTRONICS", null, null,
+            PriceSort.PRICE_ASC);
+        RecommendationQuery descending = new RecommendationQuery(null, null, "ELECTRONICS", null, null,
+            PriceSort.PRICE_DESC);
+        givenCatalog(testProducts);
+
+        for (int capacity : new int[] {10, 2}) {
+            SnapshotTypeCache<String, Product> cache = new SnapshotTypeCache<>(new TypeCacheConfig(
+                "recommendation-cache", capacity, 10, true, TypeCacheStrategy.SNAPSHOT));
+            when(cacheProvider.getRecommendationCache()).thenReturn(cache);
+
+            List<Product> cheapestFirst = recommendationService.getRecommendations(ascending);
+            List<Product> dearestFirst = recommendationService.getRecommendations(descending);
+
+            assertEquals(List.of("P2", "P1", "P3", "P6"), cheapestFirst.stream().map(Product::id).toList());
+            assertEquals(List.of("P6", "P3", "P1", "P2"), dearestFirst.stream().map(Product::id).toList());
+            assertEquals(cheapestFirst, recommendationService.getRecommendations(ascending));
+            assertEquals(dearestFirst, recommendationService.getRecommendations(descending));
+        }
+    }
+
+    private void givenCatalog(List<Product> products) {
+        when(productRepository.findAll()).thenReturn(products);
+        catalogIndex.rebuild();
+    }
 }
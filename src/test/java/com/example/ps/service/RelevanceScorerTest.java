@@ -0,0 +1,70 @@
+package com.example.ps.service;
+
+import com.example.ps.config.CacheProperties;
+import com.example.ps.config.WarmUpConfig;
+import com.example.ps.domain.Product;
+import com.example.ps.domain.RecommendationQuery;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RelevanceScorerTest {
+
+    private HotKeyTracker tracker;
+    private RelevanceScorer scorer;
+
+    @BeforeEach
+    void setUp() {
+        CacheProperties properties = new CacheProperties();
+        properties.setWarmUp(new WarmUpConfig("unused-hot-keys.json", 10, 10, 10,
+            Duration.ofMinutes(5), Duration.ofSeconds(30), 2, 10));
+        tracker = new HotKeyTracker(properties, new ObjectMapper());
+        scorer = new RelevanceScorer(tracker);
+    }
+
+    @Test
+    void testAgeFitPeaksAtMidpointOfAgeGroup() {
+        Product product = product("P1", 1000L, "20-40");
+
+        assertEquals(1.0, RelevanceScorer.ageFit(product, 30), 1e-9);
+        assertTrue(RelevanceScorer.ageFit(product, 25) > RelevanceScorer.ageFit(product, 21));
+        assertEquals(0.0, RelevanceScorer.ageFit(product, 50));
+        assertEquals(0.0, RelevanceScorer.ageFit(product, null));
+        assertEquals(0.5, RelevanceScorer.ageFit(product("P2", 1000L, null), 30));
+    }
+
+    @Test
+    void testPriceFitFollowsTheQueryBounds() {
+        Product cheap = product("P1", 1000L, null);
+        Product dear = product("P2", 9000L, null);
+
+        assertTrue(RelevanceScorer.priceFit(product("P3", 5000L, null), 1000L, 9000L)
+            > RelevanceScorer.priceFit(cheap, 1000L, 9000L));
+        assertTrue(RelevanceScorer.priceFit(cheap, null, 10000L) > RelevanceScorer.priceFit(dear, null, 10000L));
+        assertTrue(RelevanceScorer.priceFit(cheap, 1000L, null) > RelevanceScorer.priceFit(dear, 1000L, null));
+        assertEquals(0.0, RelevanceScorer.priceFit(cheap, null, null));
+    }
+
+    @Test
+    void testPopularityBreaksTiesBetweenOtherwiseEqualProducts() {
+        Product popular = product("P1", 1000L, "20-40");
+        Product unknown = product("P2", 1000L, "20-40");
+        for (int i = 0; i < 5; i++) {
+            tracker.recordProductId("P1");
+        }
+        ToDoubleFunction<Product> relevance = scorer.forQuery(new RecommendationQuery(null, 5000L, null, null, 30));
+
+        assertTrue(relevance.applyAsDouble(popular) > relevance.applyAsDouble(unknown));
+        assertTrue(relevance.applyAsDouble(popular) <= 1.0);
+    }
+
+    private static Product product(String id, Long price, String ageGroup) {
+        return new Product(id, id, "TOYS", "PUZZLE", price, ageGroup, Map.of());
+    }
+}